@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+
+/**
+ * Flight Recorder events of GradientMetrics. jdk.jfr is not part of the Java 8 API, so this
+ * class lives in its own source set and GradientMetrics loads it by name if it is available.
+ * The events are only created if they are enabled in the recording.
+ */
+final class JfrEvents implements GradientMetrics.EventSink {
+
+    // ******************** Constructors **************************************
+    JfrEvents() {}
+
+
+    // ******************** Methods *******************************************
+    @Override public void rebuild(final String OPERATION, final int SIZE, final long NANOS, final long BYTES) {
+        final RebuildEvent EVENT = new RebuildEvent();
+        if (!EVENT.isEnabled()) { return; }
+        EVENT.operation      = OPERATION;
+        EVENT.size           = SIZE;
+        EVENT.elapsed        = NANOS;
+        EVENT.allocatedBytes = BYTES;
+        if (EVENT.shouldCommit()) { EVENT.commit(); }
+    }
+
+    @Override public void slowObserver(final String OBSERVER, final String EVENT_TYPE, final long NANOS) {
+        final SlowObserverEvent EVENT = new SlowObserverEvent();
+        if (!EVENT.isEnabled()) { return; }
+        EVENT.observer  = OBSERVER;
+        EVENT.eventType = EVENT_TYPE;
+        EVENT.elapsed   = NANOS;
+        if (EVENT.shouldCommit()) { EVENT.commit(); }
+    }
+
+
+    // ******************** Inner Classes *************************************
+    @Name("eu.hansolo.gradientpicker.Rebuild")
+    @Label("Gradient Rebuild")
+    @Category("GradientPicker")
+    @StackTrace(false)
+    static final class RebuildEvent extends Event {
+        @Label("Operation")                                 String operation;
+        @Label("Size")                                      int    size;
+        @Label("Elapsed")   @Timespan(Timespan.NANOSECONDS) long   elapsed;
+        @Label("Allocated") @DataAmount(DataAmount.BYTES)   long   allocatedBytes;
+    }
+
+    @Name("eu.hansolo.gradientpicker.SlowObserver")
+    @Label("Slow Gradient Observer")
+    @Category("GradientPicker")
+    static final class SlowObserverEvent extends Event {
+        @Label("Observer")                                String observer;
+        @Label("Event Type")                              String eventType;
+        @Label("Elapsed") @Timespan(Timespan.NANOSECONDS) long   elapsed;
+    }
+}
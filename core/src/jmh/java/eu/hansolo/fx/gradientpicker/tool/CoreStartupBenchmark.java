@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Cold start of the core module, every fork is a fresh JVM without JavaFX on the class path.
+ * firstColor : time from the first use of the core classes to the first sampled color
+ * footprint  : heap retained by the first lookup incl. the static data of the loaded classes
+ *              and the number of classes loaded for it (secondary metrics, only the first
+ *              invocation is counted and JMH sums them over forks, so it runs in one fork)
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class CoreStartupBenchmark {
+    private static final String GRADIENT = "linear-gradient(to right, #0000ff 0%, rgba(0, 255, 255, 1.0) 25%, lime 50%, #ff0 75%, red 100%)";
+
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public  long         retainedHeapBytes;
+        public  long         loadedClasses;
+        private MemoryMXBean memory;
+        private long         heapBefore;
+        private long         classesBefore;
+        private boolean      measured;
+        private Object       retained;
+
+        // The first heap query initializes the management beans, that garbage must not end up in the baseline
+        @Setup(Level.Trial) public void setup() {
+            memory = ManagementFactory.getMemoryMXBean();
+            usedHeap();
+        }
+
+        // The baseline is taken right before the first use of the core classes in the fork
+        void begin() {
+            if (measured) { return; }
+            classesBefore = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+            heapBefore    = usedHeap();
+        }
+
+        void end(final Object RETAINED) {
+            if (measured) { return; }
+            measured          = true;
+            retained          = RETAINED;
+            retainedHeapBytes = Math.max(0, usedHeap() - heapBefore);
+            loadedClasses     = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount() - classesBefore;
+            retained          = null;
+        }
+
+        private long usedHeap() {
+            for (int i = 0 ; i < 3 ; i++) { System.gc(); }
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+
+
+    @Benchmark
+    public int firstColor() throws ParseException { return createLookup().getArgbAt(0.5); }
+
+    @Benchmark @BenchmarkMode(Mode.AverageTime) @Measurement(iterations = 1, time = 1) @Fork(1)
+    public int footprint(final Footprint FOOTPRINT) throws ParseException {
+        FOOTPRINT.begin();
+        final ArgbLookup LOOKUP = createLookup();
+        FOOTPRINT.end(LOOKUP);
+        return LOOKUP.getArgbAt(0.5);
+    }
+
+    private static ArgbLookup createLookup() throws ParseException {
+        final ArgbLookup LOOKUP = new ArgbLookup(GradientParser.parse(GRADIENT));
+        LOOKUP.setLutResolution(1024);
+        return LOOKUP;
+    }
+}
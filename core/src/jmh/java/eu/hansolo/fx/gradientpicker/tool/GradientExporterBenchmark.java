@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Streams a gradient into a reused StringBuilder, the builder is cleared before each export
+ * so after warm up only the export itself is measured (-prof gc should show no allocations).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GradientExporterBenchmark {
+    @Param({ "2", "10", "100", "1000" })
+    private int            stopCount;
+    @Param({ "CSS_STOPS", "JAVA_STOPS", "CSS", "SVG", "JSON" })
+    private GradientFormat format;
+    private GradientSpec   spec;
+    private StringBuilder  builder;
+
+
+    @Setup public void setup() {
+        Random   random   = new Random(42);
+        double[] offsets  = new double[stopCount];
+        double[] channels = new double[stopCount * 4];
+        for (int i = 0 ; i < stopCount ; i++) {
+            offsets[i] = stopCount == 1 ? 0.0 : i / (double) (stopCount - 1);
+            for (int c = 0 ; c < 4 ; c++) { channels[i * 4 + c] = random.nextDouble(); }
+        }
+        spec    = new GradientSpec(offsets, channels);
+        builder = new StringBuilder(stopCount * 64 + 64);
+    }
+
+    @Benchmark
+    public StringBuilder export() throws IOException {
+        builder.setLength(0);
+        GradientExporter.export(spec, format, builder);
+        return builder;
+    }
+}
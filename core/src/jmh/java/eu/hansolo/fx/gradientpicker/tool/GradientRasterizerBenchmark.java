@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Renders a 1920 x 1080 image into a reused buffer, -prof gc should only show the
+ * fork/join tasks (one per tile) as allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GradientRasterizerBenchmark {
+    private static final int   WIDTH  = 1920;
+    private static final int   HEIGHT = 1080;
+    @Param({ "LINEAR", "RADIAL", "CONIC" })
+    private String             shape;
+    @Param({ "NO_CYCLE", "REFLECT" })
+    private CycleMode          cycleMode;
+    @Param({ "0", "1024" })
+    private int                lutResolution;
+    @Param({ "NONE", "BLUE_NOISE" })
+    private DitherMode         ditherMode;
+    private GradientRasterizer rasterizer;
+    private int[]              argb;
+
+
+    @Setup public void setup() throws ParseException {
+        ArgbLookup lookup = new ArgbLookup(GradientParser.parse("#1e3c72 0%, #2a5298 30%, #f7971e 70%, #ffd200 100%"));
+        lookup.setLutResolution(lutResolution);
+        lookup.setDitherMode(ditherMode);
+        switch(shape) {
+            case "RADIAL": rasterizer = new RadialRasterizer(lookup, cycleMode, WIDTH * 0.5, HEIGHT * 0.5, HEIGHT * 0.25, WIDTH * 0.45, HEIGHT * 0.4); break;
+            case "CONIC" : rasterizer = new ConicRasterizer(lookup, cycleMode, WIDTH * 0.5, HEIGHT * 0.5, 0, 120); break;
+            default      : rasterizer = LinearRasterizer.fromAngle(lookup, cycleMode, 30, WIDTH * 0.5, HEIGHT * 0.5); break;
+        }
+        argb = new int[WIDTH * HEIGHT];
+    }
+
+    @Benchmark
+    public int[] render() {
+        rasterizer.render(argb, WIDTH, HEIGHT);
+        return argb;
+    }
+}
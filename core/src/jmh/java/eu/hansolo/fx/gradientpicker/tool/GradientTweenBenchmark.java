@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures one animation frame of a GradientTween: interpolating the shared stops and sampling
+ * the in-between gradient into a reused row (-prof gc should show no allocations).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GradientTweenBenchmark {
+    @Param({ "2", "10", "100" })
+    private int           stopCount;
+    @Param({ "256", "1920" })
+    private int           width;
+    private GradientTween tween;
+    private int[]         row;
+    private int           frame;
+
+
+    @Setup public void setup() {
+        Random random = new Random(42);
+        tween = new GradientTween(createSpec(random, stopCount), createSpec(random, stopCount + 3));
+        row   = new int[width];
+    }
+
+    @Benchmark
+    public int[] frame() {
+        frame = (frame + 1) % 60;
+        tween.setProgress(Easing.EASE_IN_OUT.apply(frame / 59.0));
+        tween.getArgb(row, 0, width);
+        return row;
+    }
+
+    private static GradientSpec createSpec(final Random RANDOM, final int STOP_COUNT) {
+        double[] offsets  = new double[STOP_COUNT];
+        double[] channels = new double[STOP_COUNT * 4];
+        for (int i = 0 ; i < STOP_COUNT ; i++) {
+            offsets[i] = STOP_COUNT == 1 ? 0.0 : i / (double) (STOP_COUNT - 1);
+            for (int c = 0 ; c < 4 ; c++) { channels[i * 4 + c] = RANDOM.nextDouble(); }
+        }
+        return new GradientSpec(offsets, channels);
+    }
+}
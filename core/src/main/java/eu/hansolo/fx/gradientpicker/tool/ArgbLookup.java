@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+
+/**
+ * Color lookup of a gradient without any JavaFX dependency, colors are returned as
+ * packed 32 bit ARGB or as float channels. The stops are normalized on setSpec():
+ * sorted by offset (on equal offsets the last stop wins) and extended to 0.0 and 1.0
+ * with the colors of the first and last stop.
+ */
+public class ArgbLookup {
+    public  static final int               PARALLEL_THRESHOLD = 65_536;
+    private              GradientSpec      spec;
+    private              GradientSampler   sampler;
+    private              GradientLut       lut;
+    private              InterpolationMode interpolationMode  = InterpolationMode.RGB;
+    private              DitherMode        ditherMode         = DitherMode.NONE;
+
+
+    // ******************** Constructors **************************************
+    public ArgbLookup() {
+        this(GradientSpec.EMPTY);
+    }
+    public ArgbLookup(final GradientSpec SPEC) {
+        setSpec(SPEC);
+    }
+
+
+    // ******************** Initialization ************************************
+    private void init() {
+        GradientSampler oldSampler = sampler;
+        sampler = new GradientSampler(spec.getOffsetArray(), spec.getChannelArray(), interpolationMode);
+        if (null != lut) { lut.rebake(oldSampler, sampler); }
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns the normalized stops of the lookup.
+     */
+    public GradientSpec getSpec() { return spec; }
+    public void setSpec(final GradientSpec SPEC) {
+        spec = normalize(SPEC);
+        init();
+    }
+
+    /**
+     * Returns the color at the given position as packed 32 bit ARGB without allocating.
+     * If a lookup table is enabled the color is taken from the table.
+     */
+    public int getArgbAt(final double POSITION_OF_COLOR) {
+        if (GradientMetrics.isEnabled()) { GradientMetrics.count(MetricOperation.LOOKUP, 1); }
+        return null == lut ? sampler.getArgbAt(POSITION_OF_COLOR) : lut.getArgbAt(POSITION_OF_COLOR);
+    }
+    /**
+     * Returns the color at the given position after mapping it onto 0.0 - 1.0 with the given cycle mode.
+     */
+    public int getArgbAt(final double POSITION_OF_COLOR, final CycleMode CYCLE_MODE) { return getArgbAt(CYCLE_MODE.apply(POSITION_OF_COLOR)); }
+
+    /**
+     * Returns the color at the given position for the pixel X, Y, quantized with the dither mode.
+     */
+    public int getArgbAt(final double POSITION_OF_COLOR, final int X, final int Y) {
+        if (DitherMode.NONE == ditherMode) { return getArgbAt(POSITION_OF_COLOR); }
+        if (GradientMetrics.isEnabled()) { GradientMetrics.count(MetricOperation.LOOKUP, 1); }
+        final long FIXED = null == lut ? sampler.getFixedAt(POSITION_OF_COLOR) : lut.getFixedAt(POSITION_OF_COLOR);
+        return ColorSpaces.fixedToArgb(FIXED, ditherMode.getBias(X, Y));
+    }
+
+    /**
+     * Writes red, green, blue and opacity (0.0 - 1.0) of the color at the given position
+     * into RGBA[OFFSET] to RGBA[OFFSET + 3] without allocating.
+     */
+    public void getRgbaAt(final double POSITION_OF_COLOR, final float[] RGBA, final int OFFSET) {
+        if (GradientMetrics.isEnabled()) { GradientMetrics.count(MetricOperation.LOOKUP, 1); }
+        sampler.getRgbaAt(POSITION_OF_COLOR, RGBA, OFFSET);
+    }
+
+    /**
+     * Fills ARGB[ARGB_OFFSET] to ARGB[ARGB_OFFSET + LENGTH - 1] with the packed ARGB colors at
+     * POSITIONS[OFFSET] to POSITIONS[OFFSET + LENGTH - 1]. Inputs longer than PARALLEL_THRESHOLD
+     * are split across the common fork/join pool with the same result as the sequential path.
+     */
+    public void getArgbAt(final double[] POSITIONS, final int OFFSET, final int LENGTH, final int[] ARGB, final int ARGB_OFFSET) {
+        getArgbAt(POSITIONS, OFFSET, LENGTH, ARGB, ARGB_OFFSET, Math.max(1, ARGB.length));
+    }
+    public void getArgbAt(final float[] POSITIONS, final int OFFSET, final int LENGTH, final int[] ARGB, final int ARGB_OFFSET) {
+        getArgbAt(POSITIONS, OFFSET, LENGTH, ARGB, ARGB_OFFSET, Math.max(1, ARGB.length));
+    }
+    /**
+     * Same as above for ARGB being an image with the given scanline stride, ARGB[i] is dithered
+     * as the pixel i % SCANLINE_STRIDE, i / SCANLINE_STRIDE.
+     */
+    public void getArgbAt(final double[] POSITIONS, final int OFFSET, final int LENGTH, final int[] ARGB, final int ARGB_OFFSET, final int SCANLINE_STRIDE) {
+        checkRange(POSITIONS.length, OFFSET, LENGTH, ARGB.length, ARGB_OFFSET, 1);
+        if (SCANLINE_STRIDE < 1) { throw new IllegalArgumentException("Scanline stride must be greater than 0"); }
+        if (GradientMetrics.isEnabled()) { GradientMetrics.count(MetricOperation.LOOKUP, LENGTH); }
+        new BulkSampleTask(sampler, lut, POSITIONS, null, OFFSET, LENGTH, ARGB, null, ARGB_OFFSET, PARALLEL_THRESHOLD, ditherMode, SCANLINE_STRIDE).execute();
+    }
+    public void getArgbAt(final float[] POSITIONS, final int OFFSET, final int LENGTH, final int[] ARGB, final int ARGB_OFFSET, final int SCANLINE_STRIDE) {
+        checkRange(POSITIONS.length, OFFSET, LENGTH, ARGB.length, ARGB_OFFSET, 1);
+        if (SCANLINE_STRIDE < 1) { throw new IllegalArgumentException("Scanline stride must be greater than 0"); }
+        if (GradientMetrics.isEnabled()) { GradientMetrics.count(MetricOperation.LOOKUP, LENGTH); }
+        new BulkSampleTask(sampler, lut, null, POSITIONS, OFFSET, LENGTH, ARGB, null, ARGB_OFFSET, PARALLEL_THRESHOLD, ditherMode, SCANLINE_STRIDE).execute();
+    }
+
+    /**
+     * Fills RGBA starting at RGBA_OFFSET with 4 floats (red, green, blue, opacity) per position
+     * for POSITIONS[OFFSET] to POSITIONS[OFFSET + LENGTH - 1]. Always uses the exact interpolation.
+     */
+    public void getRgbaAt(final double[] POSITIONS, final int OFFSET, final int LENGTH, final float[] RGBA, final int RGBA_OFFSET) {
+        checkRange(POSITIONS.length, OFFSET, LENGTH, RGBA.length, RGBA_OFFSET, 4);
+        if (GradientMetrics.isEnabled()) { GradientMetrics.count(MetricOperation.LOOKUP, LENGTH); }
+        new BulkSampleTask(sampler, null, POSITIONS, null, OFFSET, LENGTH, null, RGBA, RGBA_OFFSET, PARALLEL_THRESHOLD).execute();
+    }
+    public void getRgbaAt(final float[] POSITIONS, final int OFFSET, final int LENGTH, final float[] RGBA, final int RGBA_OFFSET) {
+        checkRange(POSITIONS.length, OFFSET, LENGTH, RGBA.length, RGBA_OFFSET, 4);
+        if (GradientMetrics.isEnabled()) { GradientMetrics.count(MetricOperation.LOOKUP, LENGTH); }
+        new BulkSampleTask(sampler, null, null, POSITIONS, OFFSET, LENGTH, null, RGBA, RGBA_OFFSET, PARALLEL_THRESHOLD).execute();
+    }
+
+    /**
+     * Returns the index of the stop in getSpec() closest to the given position.
+     */
+    public int getStopIndexAt(final double POSITION_OF_STOP) {
+        if (sampler.isEmpty()) { throw new IllegalArgumentException("GradientStop stops should not be empty"); }
+        return sampler.getNearestIndex(Helper.clamp(0.0, 1.0, POSITION_OF_STOP));
+    }
+
+    public GradientSampler getSampler() { return sampler; }
+
+    public InterpolationMode getInterpolationMode() { return interpolationMode; }
+    /**
+     * Sets the color space used to interpolate between stops. The stop colors are converted
+     * once here and on every setSpec(), not per sample.
+     */
+    public void setInterpolationMode(final InterpolationMode MODE) {
+        if (null == MODE || interpolationMode == MODE) { return; }
+        interpolationMode = MODE;
+        init();
+    }
+
+    public DitherMode getDitherMode() { return ditherMode; }
+    /**
+     * Sets the dithering of the 8 bit output of the bulk methods, the rasterizers and
+     * getArgbAt(position, x, y). Dithering needs the fraction of the channels, so an enabled
+     * lookup table additionally keeps its colors as fixed ARGB (12 instead of 4 bytes per entry).
+     */
+    public void setDitherMode(final DitherMode MODE) {
+        if (null == MODE || ditherMode == MODE) { return; }
+        ditherMode = MODE;
+        if (null != lut && lut.hasFixedTable() != (DitherMode.NONE != MODE)) { lut = new GradientLut(lut.getResolution(), sampler, DitherMode.NONE != MODE); }
+    }
+
+    public boolean isLutEnabled() { return null != lut; }
+
+    public int getLutResolution() { return null == lut ? 0 : lut.getResolution(); }
+    /**
+     * Bakes the gradient into a lookup table with the given number of packed ARGB entries
+     * (e.g. 256, 1024 or 4096) which is then used by getArgbAt(). A resolution of 0 disables
+     * the table. Subsequent changes of the stops only recompute the entries of changed segments.
+     */
+    public void setLutResolution(final int RESOLUTION) {
+        if (RESOLUTION == 0) {
+            lut = null;
+        } else if (null == lut || lut.getResolution() != RESOLUTION) {
+            lut = new GradientLut(RESOLUTION, sampler, DitherMode.NONE != ditherMode);
+        }
+    }
+
+    /**
+     * Returns the maximum deviation of a single 8 bit channel of the lookup table
+     * from the exact interpolation (0 if no table is enabled).
+     */
+    public double getLutError() { return null == lut ? 0 : lut.getError(sampler); }
+
+    public int getLutSizeInBytes() { return null == lut ? 0 : lut.getSizeInBytes(); }
+
+    public long getLastRebakeNanos() { return null == lut ? 0 : lut.getLastRebakeNanos(); }
+
+    public int getLastRebakeEntries() { return null == lut ? 0 : lut.getLastRebakeEntries(); }
+
+    static GradientSpec normalize(final GradientSpec SPEC) {
+        final int NO_OF_STOPS = SPEC.getSize();
+        if (NO_OF_STOPS == 0) { return SPEC; }
+        boolean normalized = Double.compare(SPEC.getOffset(0), 0) == 0 && Double.compare(SPEC.getOffset(NO_OF_STOPS - 1), 1) == 0;
+        for (int i = 1 ; i < NO_OF_STOPS && normalized ; i++) { normalized = SPEC.getOffset(i - 1) < SPEC.getOffset(i); }
+        if (normalized) { return SPEC; }
+
+        // Stable sort keeps the insertion order of equal offsets so that the last one wins
+        Integer[] order = new Integer[NO_OF_STOPS];
+        for (int i = 0 ; i < NO_OF_STOPS ; i++) { order[i] = i; }
+        Arrays.sort(order, Comparator.comparingDouble(SPEC::getOffset));
+
+        double[] offsets  = new double[NO_OF_STOPS + 2];
+        double[] channels = new double[(NO_OF_STOPS + 2) * 4];
+        int      size     = 0;
+        for (int index : order) {
+            if (size == 0 || Double.compare(offsets[size - 1], SPEC.getOffset(index)) != 0) { size++; }
+            offsets[size - 1] = SPEC.getOffset(index);
+            copyChannels(SPEC, index, channels, size - 1);
+        }
+        if (Double.compare(offsets[0], 0) > 0) {
+            System.arraycopy(offsets, 0, offsets, 1, size);
+            System.arraycopy(channels, 0, channels, 4, size * 4);
+            offsets[0] = 0.0;
+            size++;
+        }
+        if (Double.compare(offsets[size - 1], 1) < 0) {
+            offsets[size] = 1.0;
+            System.arraycopy(channels, (size - 1) * 4, channels, size * 4, 4);
+            size++;
+        }
+        return new GradientSpec(Arrays.copyOf(offsets, size), Arrays.copyOf(channels, size * 4));
+    }
+
+    private static void copyChannels(final GradientSpec SPEC, final int INDEX, final double[] CHANNELS, final int TARGET) {
+        CHANNELS[TARGET * 4]     = SPEC.getRed(INDEX);
+        CHANNELS[TARGET * 4 + 1] = SPEC.getGreen(INDEX);
+        CHANNELS[TARGET * 4 + 2] = SPEC.getBlue(INDEX);
+        CHANNELS[TARGET * 4 + 3] = SPEC.getOpacity(INDEX);
+    }
+
+    private static void checkRange(final int INPUT_LENGTH, final int OFFSET, final int LENGTH, final int OUTPUT_LENGTH, final int OUTPUT_OFFSET, final int STRIDE) {
+        if (OFFSET < 0 || LENGTH < 0 || OFFSET + LENGTH > INPUT_LENGTH) { throw new IndexOutOfBoundsException("Positions range out of bounds"); }
+        if (OUTPUT_OFFSET < 0 || OUTPUT_OFFSET + LENGTH * STRIDE > OUTPUT_LENGTH) { throw new IndexOutOfBoundsException("Output range out of bounds"); }
+    }
+}
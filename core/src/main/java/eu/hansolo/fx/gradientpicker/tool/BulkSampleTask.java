@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Samples a range of positions into packed ARGB or RGBA float output.
+ * Every output element only depends on its own position, so splitting the
+ * range across a fork/join pool produces exactly the sequential result.
+ * Dithered ARGB output takes the pixel coordinates from the output index, ARGB[i]
+ * is the pixel i % STRIDE, i / STRIDE.
+ */
+@SuppressWarnings("serial") // Fork/join tasks are never serialized
+class BulkSampleTask extends RecursiveAction {
+    private final GradientSampler SAMPLER;
+    private final GradientLut     LUT;
+    private final double[]        DOUBLE_POSITIONS;
+    private final float[]         FLOAT_POSITIONS;
+    private final int             OFFSET;
+    private final int             LENGTH;
+    private final int[]           ARGB;
+    private final float[]         RGBA;
+    private final int             OUT_OFFSET;
+    private final int             THRESHOLD;
+    private final DitherMode      DITHER;
+    private final int             STRIDE;
+
+
+    // ******************** Constructors **************************************
+    BulkSampleTask(final GradientSampler SAMPLER, final GradientLut LUT, final double[] DOUBLE_POSITIONS, final float[] FLOAT_POSITIONS, final int OFFSET, final int LENGTH,
+                   final int[] ARGB, final float[] RGBA, final int OUT_OFFSET, final int THRESHOLD) {
+        this(SAMPLER, LUT, DOUBLE_POSITIONS, FLOAT_POSITIONS, OFFSET, LENGTH, ARGB, RGBA, OUT_OFFSET, THRESHOLD, DitherMode.NONE, 1);
+    }
+    BulkSampleTask(final GradientSampler SAMPLER, final GradientLut LUT, final double[] DOUBLE_POSITIONS, final float[] FLOAT_POSITIONS, final int OFFSET, final int LENGTH,
+                   final int[] ARGB, final float[] RGBA, final int OUT_OFFSET, final int THRESHOLD, final DitherMode DITHER, final int STRIDE) {
+        this.SAMPLER          = SAMPLER;
+        this.LUT              = LUT;
+        this.DOUBLE_POSITIONS = DOUBLE_POSITIONS;
+        this.FLOAT_POSITIONS  = FLOAT_POSITIONS;
+        this.OFFSET           = OFFSET;
+        this.LENGTH           = LENGTH;
+        this.ARGB             = ARGB;
+        this.RGBA             = RGBA;
+        this.OUT_OFFSET       = OUT_OFFSET;
+        this.THRESHOLD        = THRESHOLD;
+        this.DITHER           = DITHER;
+        this.STRIDE           = STRIDE;
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Runs the task in the common fork/join pool if LENGTH exceeds the threshold, otherwise in the calling thread.
+     */
+    void execute() {
+        if (LENGTH > THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(this);
+        } else {
+            sample();
+        }
+    }
+
+    @Override protected void compute() {
+        if (LENGTH <= THRESHOLD) {
+            sample();
+        } else {
+            final int HALF   = LENGTH >>> 1;
+            final int CHANNELS = null == ARGB ? 4 : 1;
+            invokeAll(new BulkSampleTask(SAMPLER, LUT, DOUBLE_POSITIONS, FLOAT_POSITIONS, OFFSET, HALF, ARGB, RGBA, OUT_OFFSET, THRESHOLD, DITHER, STRIDE),
+                      new BulkSampleTask(SAMPLER, LUT, DOUBLE_POSITIONS, FLOAT_POSITIONS, OFFSET + HALF, LENGTH - HALF, ARGB, RGBA, OUT_OFFSET + HALF * CHANNELS, THRESHOLD, DITHER, STRIDE));
+        }
+    }
+
+    private void sample() {
+        final int END = OFFSET + LENGTH;
+        if (null != ARGB && DitherMode.NONE != DITHER) {
+            int out = OUT_OFFSET;
+            int x   = out % STRIDE;
+            int y   = out / STRIDE;
+            for (int i = OFFSET ; i < END ; i++) {
+                final double POSITION = null != DOUBLE_POSITIONS ? DOUBLE_POSITIONS[i] : FLOAT_POSITIONS[i];
+                final long   FIXED    = null == LUT ? SAMPLER.getFixedAt(POSITION) : LUT.getFixedAt(POSITION);
+                ARGB[out++] = ColorSpaces.fixedToArgb(FIXED, DITHER.getBias(x, y));
+                if (++x == STRIDE) { x = 0; y++; }
+            }
+        } else if (null != ARGB) {
+            int out = OUT_OFFSET;
+            if (null != LUT) {
+                if (null != DOUBLE_POSITIONS) {
+                    for (int i = OFFSET ; i < END ; i++) { ARGB[out++] = LUT.getArgbAt(DOUBLE_POSITIONS[i]); }
+                } else {
+                    for (int i = OFFSET ; i < END ; i++) { ARGB[out++] = LUT.getArgbAt(FLOAT_POSITIONS[i]); }
+                }
+            } else {
+                if (null != DOUBLE_POSITIONS) {
+                    for (int i = OFFSET ; i < END ; i++) { ARGB[out++] = SAMPLER.getArgbAt(DOUBLE_POSITIONS[i]); }
+                } else {
+                    for (int i = OFFSET ; i < END ; i++) { ARGB[out++] = SAMPLER.getArgbAt(FLOAT_POSITIONS[i]); }
+                }
+            }
+        } else {
+            int out = OUT_OFFSET;
+            if (null != DOUBLE_POSITIONS) {
+                for (int i = OFFSET ; i < END ; i++, out += 4) { SAMPLER.getRgbaAt(DOUBLE_POSITIONS[i], RGBA, out); }
+            } else {
+                for (int i = OFFSET ; i < END ; i++, out += 4) { SAMPLER.getRgbaAt(FLOAT_POSITIONS[i], RGBA, out); }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+/**
+ * Conversions between gamma encoded sRGB and the color spaces of InterpolationMode.
+ * The sRGB transfer function is evaluated through precomputed tables with linear
+ * interpolation between the entries. Colors converted back to sRGB are returned as
+ * "wide ARGB", a long with 16 bits per channel (alpha, red, green, blue).
+ * "Fixed ARGB" uses the same layout but holds each channel as 8.8 fixed point
+ * (0 - 255 * 256) so that quantizing it to 8 bits is an add and a shift.
+ */
+public final class ColorSpaces {
+    public  static final int      TABLE_SIZE  = 4096;
+    private static final int      FIXED_ONE   = 255 << 8;
+    private static final long     FIXED_LANES = 0x0001_0001_0001_0001L;
+    private static final double[] TO_LINEAR   = new double[TABLE_SIZE + 1];
+    private static final double[] TO_SRGB     = new double[TABLE_SIZE + 1];
+    static {
+        for (int i = 0 ; i <= TABLE_SIZE ; i++) {
+            final double V = i / (double) TABLE_SIZE;
+            TO_LINEAR[i] = V <= 0.04045   ? V / 12.92 : Math.pow((V + 0.055) / 1.055, 2.4);
+            TO_SRGB[i]   = V <= 0.0031308 ? V * 12.92 : 1.055 * Math.pow(V, 1.0 / 2.4) - 0.055;
+        }
+    }
+
+
+    // ******************** Constructors **************************************
+    private ColorSpaces() {}
+
+
+    // ******************** Methods *******************************************
+    public static double srgbToLinear(final double VALUE) { return lookup(TO_LINEAR, VALUE); }
+
+    public static double linearToSrgb(final double VALUE) { return lookup(TO_SRGB, VALUE); }
+
+    /**
+     * Converts the given sRGB color into the color space of MODE and writes the 3 components to OUT[OFFSET] to OUT[OFFSET + 2].
+     * OKLCH hue is given in radians.
+     */
+    public static void fromSrgb(final InterpolationMode MODE, final double RED, final double GREEN, final double BLUE, final double[] OUT, final int OFFSET) {
+        final double R = srgbToLinear(RED);
+        final double G = srgbToLinear(GREEN);
+        final double B = srgbToLinear(BLUE);
+        switch(MODE) {
+            case LINEAR_RGB:
+                OUT[OFFSET]     = R;
+                OUT[OFFSET + 1] = G;
+                OUT[OFFSET + 2] = B;
+                break;
+            case OKLAB:
+            case OKLCH:
+                final double L_ = Math.cbrt(0.4122214708 * R + 0.5363325363 * G + 0.0514459929 * B);
+                final double M_ = Math.cbrt(0.2119034982 * R + 0.6806995451 * G + 0.1073969566 * B);
+                final double S_ = Math.cbrt(0.0883024619 * R + 0.2817188376 * G + 0.6299787005 * B);
+                final double L  = 0.2104542553 * L_ + 0.7936177850 * M_ - 0.0040720468 * S_;
+                final double A  = 1.9779984951 * L_ - 2.4285922050 * M_ + 0.4505937099 * S_;
+                final double BB = 0.0259040371 * L_ + 0.7827717662 * M_ - 0.8086757660 * S_;
+                OUT[OFFSET] = L;
+                if (InterpolationMode.OKLAB == MODE) {
+                    OUT[OFFSET + 1] = A;
+                    OUT[OFFSET + 2] = BB;
+                } else {
+                    OUT[OFFSET + 1] = Math.sqrt(A * A + BB * BB);
+                    OUT[OFFSET + 2] = Math.atan2(BB, A);
+                }
+                break;
+            default:
+                OUT[OFFSET]     = RED;
+                OUT[OFFSET + 1] = GREEN;
+                OUT[OFFSET + 2] = BLUE;
+                break;
+        }
+    }
+
+    public static long linearToWide(final double RED, final double GREEN, final double BLUE, final double OPACITY) {
+        return toWide(linearToSrgb(RED), linearToSrgb(GREEN), linearToSrgb(BLUE), OPACITY);
+    }
+
+    public static long oklabToWide(final double L, final double A, final double B, final double OPACITY) {
+        final double L_ = L + 0.3963377774 * A + 0.2158037573 * B;
+        final double M_ = L - 0.1055613458 * A - 0.0638541728 * B;
+        final double S_ = L - 0.0894841775 * A - 1.2914855480 * B;
+        final double LL = L_ * L_ * L_;
+        final double MM = M_ * M_ * M_;
+        final double SS = S_ * S_ * S_;
+        return linearToWide( 4.0767416621 * LL - 3.3077115913 * MM + 0.2309699292 * SS,
+                            -1.2684380046 * LL + 2.6097574011 * MM - 0.3413193965 * SS,
+                            -0.0041960863 * LL - 0.7034186147 * MM + 1.7076147010 * SS,
+                            OPACITY);
+    }
+
+    public static long toWide(final double RED, final double GREEN, final double BLUE, final double OPACITY) {
+        return ((long) (Helper.clamp(0.0, 1.0, OPACITY) * 65535 + 0.5) << 48) |
+               ((long) (Helper.clamp(0.0, 1.0, RED)     * 65535 + 0.5) << 32) |
+               ((long) (Helper.clamp(0.0, 1.0, GREEN)   * 65535 + 0.5) << 16) |
+                (long) (Helper.clamp(0.0, 1.0, BLUE)    * 65535 + 0.5);
+    }
+
+    public static long toFixed(final double RED, final double GREEN, final double BLUE, final double OPACITY) {
+        return ((long) (Helper.clamp(0.0, 1.0, OPACITY) * FIXED_ONE + 0.5) << 48) |
+               ((long) (Helper.clamp(0.0, 1.0, RED)     * FIXED_ONE + 0.5) << 32) |
+               ((long) (Helper.clamp(0.0, 1.0, GREEN)   * FIXED_ONE + 0.5) << 16) |
+                (long) (Helper.clamp(0.0, 1.0, BLUE)    * FIXED_ONE + 0.5);
+    }
+
+    public static long wideToFixed(final long WIDE) {
+        return (toFixed(WIDE >>> 48) << 48) | (toFixed(WIDE >>> 32) << 32) | (toFixed(WIDE >>> 16) << 16) | toFixed(WIDE);
+    }
+
+    /**
+     * Quantizes fixed ARGB to packed 8 bit ARGB. BIAS (0 - 255) is added to the fraction of every
+     * channel, 128 rounds to the nearest value and a dither threshold gives ordered dithering.
+     * The channels never exceed 255 * 256 + 255, so a single add can't carry into the next channel.
+     */
+    public static int fixedToArgb(final long FIXED, final int BIAS) {
+        final long SUM = FIXED + BIAS * FIXED_LANES;
+        return (int) (((SUM >>> 32) & 0xFF000000L) | ((SUM >>> 24) & 0x00FF0000L) | ((SUM >>> 16) & 0x0000FF00L) | ((SUM >>> 8) & 0x000000FFL));
+    }
+
+    public static int wideToArgb(final long WIDE) {
+        return (to8Bit(WIDE >>> 48) << 24) | (to8Bit(WIDE >>> 32) << 16) | (to8Bit(WIDE >>> 16) << 8) | to8Bit(WIDE);
+    }
+
+    public static float wideChannel(final long WIDE, final int SHIFT) { return ((WIDE >>> SHIFT) & 0xFFFF) / 65535f; }
+
+    private static long toFixed(final long WIDE_CHANNEL) { return ((WIDE_CHANNEL & 0xFFFF) * FIXED_ONE + 32767) / 65535; }
+
+    private static int to8Bit(final long WIDE_CHANNEL) { return (int) (((WIDE_CHANNEL & 0xFFFF) * 255 + 32767) / 65535); }
+
+    private static double lookup(final double[] TABLE, final double VALUE) {
+        final double INDEX    = Helper.clamp(0.0, 1.0, VALUE) * TABLE_SIZE;
+        final int    LOWER    = Math.min((int) INDEX, TABLE_SIZE - 1);
+        final double FRACTION = INDEX - LOWER;
+        return TABLE[LOWER] + (TABLE[LOWER + 1] - TABLE[LOWER]) * FRACTION;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+/**
+ * Conic (sweep) gradient around CENTER like a css conic-gradient(). Angles are in degrees
+ * clockwise with 0 pointing to the top, position 0.0 is at START_ANGLE and 1.0 at
+ * START_ANGLE + SWEEP_ANGLE. With a sweep of less than 360 degrees the rest of the
+ * circle is filled according to the cycle mode.
+ */
+public final class ConicRasterizer extends GradientRasterizer {
+    private static final double TWO_PI = 2 * Math.PI;
+    private        final double centerX;
+    private        final double centerY;
+    private        final double startAngle;
+    private        final double sweepAngle;
+    private        final double start;
+    private        final double scale;
+
+
+    // ******************** Constructors **************************************
+    public ConicRasterizer(final ArgbLookup LOOKUP, final CycleMode CYCLE_MODE, final double CENTER_X, final double CENTER_Y, final double START_ANGLE) {
+        this(LOOKUP, CYCLE_MODE, CENTER_X, CENTER_Y, START_ANGLE, 360);
+    }
+    public ConicRasterizer(final ArgbLookup LOOKUP, final CycleMode CYCLE_MODE, final double CENTER_X, final double CENTER_Y, final double START_ANGLE, final double SWEEP_ANGLE) {
+        super(LOOKUP, CYCLE_MODE);
+        if (!(SWEEP_ANGLE > 0) || SWEEP_ANGLE > 360) { throw new IllegalArgumentException("Sweep angle must be in the range of (0, 360]"); }
+        centerX    = CENTER_X;
+        centerY    = CENTER_Y;
+        startAngle = START_ANGLE;
+        sweepAngle = SWEEP_ANGLE;
+        start      = Math.toRadians(START_ANGLE) / TWO_PI;
+        scale      = 360 / SWEEP_ANGLE;
+    }
+
+
+    // ******************** Methods *******************************************
+    public double getCenterX() { return centerX; }
+    public double getCenterY() { return centerY; }
+
+    public double getStartAngle() { return startAngle; }
+
+    public double getSweepAngle() { return sweepAngle; }
+
+    @Override protected void fillSpan(final int[] ARGB, final int INDEX, final int X, final int Y, final int LENGTH) {
+        final double DY = centerY - (Y + 0.5);
+        int index = INDEX;
+        for (int x = X, end = X + LENGTH ; x < end ; x++) {
+            final double TURN = Math.atan2(x + 0.5 - centerX, DY) / TWO_PI - start;
+            ARGB[index++] = getArgbAt((TURN - Math.floor(TURN)) * scale, x, Y);
+        }
+    }
+}
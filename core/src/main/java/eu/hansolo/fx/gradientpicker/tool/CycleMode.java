@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+/**
+ * Defines how positions outside of 0.0 - 1.0 are mapped onto the gradient.
+ * NO_CYCLE : positions are clamped, the end colors are extended
+ * REFLECT  : the gradient is mirrored at every multiple of 1.0
+ * REPEAT   : the gradient starts over at every multiple of 1.0
+ */
+public enum CycleMode {
+    NO_CYCLE {
+        @Override public double apply(final double POSITION) { return Helper.clamp(0.0, 1.0, POSITION); }
+    },
+    REFLECT {
+        @Override public double apply(final double POSITION) {
+            final double CYCLE = POSITION - 2.0 * Math.floor(POSITION * 0.5);
+            return CYCLE > 1.0 ? 2.0 - CYCLE : CYCLE;
+        }
+    },
+    REPEAT {
+        @Override public double apply(final double POSITION) { return POSITION - Math.floor(POSITION); }
+    };
+
+
+    /**
+     * Maps the given position onto 0.0 - 1.0.
+     */
+    public abstract double apply(final double POSITION);
+}
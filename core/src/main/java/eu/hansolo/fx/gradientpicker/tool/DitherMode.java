@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+/**
+ * Dithering applied when colors are quantized to 8 bits per channel.
+ * NONE       : rounding to the nearest value
+ * BAYER      : ordered dithering with an 8 x 8 Bayer matrix
+ * BLUE_NOISE : ordered dithering with a 64 x 64 blue noise tile (void and cluster),
+ *              the tile is generated on first use
+ * The threshold only depends on the pixel coordinates, so the output is deterministic.
+ */
+public enum DitherMode {
+    NONE {
+        @Override int getBias(final int X, final int Y) { return DitherTiles.ROUND; }
+    },
+    BAYER {
+        @Override int getBias(final int X, final int Y) { return DitherTiles.BAYER[((Y & DitherTiles.BAYER_MASK) << DitherTiles.BAYER_SHIFT) | (X & DitherTiles.BAYER_MASK)]; }
+    },
+    BLUE_NOISE {
+        @Override int getBias(final int X, final int Y) { return DitherTiles.BlueNoise.TILE[((Y & DitherTiles.BLUE_NOISE_MASK) << DitherTiles.BLUE_NOISE_SHIFT) | (X & DitherTiles.BLUE_NOISE_MASK)]; }
+    };
+
+
+    /**
+     * Returns the threshold (0 - 255) that is added to the 8.8 fixed point channels of the pixel at X, Y.
+     */
+    abstract int getBias(final int X, final int Y);
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.util.Random;
+
+
+/**
+ * Threshold tiles of DitherMode. Every tile contains each rank exactly once, the ranks
+ * are spread evenly over 0 - 255 so that the average threshold equals plain rounding.
+ */
+final class DitherTiles {
+            static final int    ROUND            = 128;
+            static final int    BAYER_SHIFT      = 3;
+            static final int    BAYER_MASK       = (1 << BAYER_SHIFT) - 1;
+            static final int[]  BAYER            = createBayer();
+            static final int    BLUE_NOISE_SHIFT = 6;
+            static final int    BLUE_NOISE_MASK  = (1 << BLUE_NOISE_SHIFT) - 1;
+    private static final int    BLUE_NOISE_SIZE  = 1 << BLUE_NOISE_SHIFT;
+    private static final double SIGMA            = 1.5;
+    private static final int    RADIUS           = 5;
+    private static final int    KERNEL_SIZE      = 2 * RADIUS + 1;
+    private static final long   SEED             = 42;
+
+
+    // ******************** Constructors **************************************
+    private DitherTiles() {}
+
+
+    // ******************** Methods *******************************************
+    private static int[] createBayer() {
+        final int SIZE = 1 << BAYER_SHIFT;
+        int[] ranks = { 0 };
+        for (int size = 1 ; size < SIZE ; size <<= 1) {
+            final int[] NEXT = new int[size * size * 4];
+            for (int y = 0 ; y < size ; y++) {
+                for (int x = 0 ; x < size ; x++) {
+                    final int RANK = ranks[y * size + x] * 4;
+                    NEXT[y * 2 * size + x]                 = RANK;
+                    NEXT[y * 2 * size + x + size]          = RANK + 2;
+                    NEXT[(y + size) * 2 * size + x]        = RANK + 3;
+                    NEXT[(y + size) * 2 * size + x + size] = RANK + 1;
+                }
+            }
+            ranks = NEXT;
+        }
+        return toBias(ranks);
+    }
+
+    /**
+     * Void and cluster (Ulichney 1993) on a torus: a random initial pattern is relaxed by moving
+     * its tightest cluster into its largest void, its pixels are then ranked by removing
+     * the tightest clusters and the remaining pixels by filling the largest voids.
+     */
+    private static int[] createBlueNoise() {
+        final int      SIZE   = BLUE_NOISE_SIZE;
+        final int      AREA   = SIZE * SIZE;
+        final double[] KERNEL = new double[KERNEL_SIZE * KERNEL_SIZE];
+        for (int y = 0 ; y < KERNEL_SIZE ; y++) {
+            for (int x = 0 ; x < KERNEL_SIZE ; x++) {
+                final int DX = x - RADIUS;
+                final int DY = y - RADIUS;
+                KERNEL[y * KERNEL_SIZE + x] = Math.exp(-(DX * DX + DY * DY) / (2 * SIGMA * SIGMA));
+            }
+        }
+
+        final boolean[] PATTERN = new boolean[AREA];
+        final double[]  ENERGY  = new double[AREA];
+        final Random    RANDOM  = new Random(SEED);
+        int ones = 0;
+        while (ones < AREA / 10) {
+            final int INDEX = RANDOM.nextInt(AREA);
+            if (!PATTERN[INDEX]) { toggle(PATTERN, ENERGY, KERNEL, INDEX); ones++; }
+        }
+        for (int i = 0 ; i < AREA ; i++) {
+            final int CLUSTER = find(PATTERN, ENERGY, true);
+            toggle(PATTERN, ENERGY, KERNEL, CLUSTER);
+            final int VOID = find(PATTERN, ENERGY, false);
+            toggle(PATTERN, ENERGY, KERNEL, VOID);
+            if (VOID == CLUSTER) { break; }
+        }
+
+        final int[]     RANKS     = new int[AREA];
+        final boolean[] PROTOTYPE = PATTERN.clone();
+        final double[]  PROTO_E   = ENERGY.clone();
+        for (int rank = ones - 1 ; rank >= 0 ; rank--) {
+            final int CLUSTER = find(PATTERN, ENERGY, true);
+            toggle(PATTERN, ENERGY, KERNEL, CLUSTER);
+            RANKS[CLUSTER] = rank;
+        }
+        System.arraycopy(PROTOTYPE, 0, PATTERN, 0, AREA);
+        System.arraycopy(PROTO_E, 0, ENERGY, 0, AREA);
+        for (int rank = ones ; rank < AREA ; rank++) {
+            final int VOID = find(PATTERN, ENERGY, false);
+            toggle(PATTERN, ENERGY, KERNEL, VOID);
+            RANKS[VOID] = rank;
+        }
+        return toBias(RANKS);
+    }
+
+    // Returns the set pixel with the highest or the unset pixel with the lowest energy
+    private static int find(final boolean[] PATTERN, final double[] ENERGY, final boolean CLUSTER) {
+        int    result = -1;
+        double best   = CLUSTER ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        for (int i = 0 ; i < PATTERN.length ; i++) {
+            if (PATTERN[i] != CLUSTER) { continue; }
+            if (CLUSTER ? ENERGY[i] > best : ENERGY[i] < best) {
+                best   = ENERGY[i];
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    // Adds or removes the gaussian of the pixel at INDEX to the energy of its neighbourhood (wrapping around)
+    private static void toggle(final boolean[] PATTERN, final double[] ENERGY, final double[] KERNEL, final int INDEX) {
+        final double SIGN = PATTERN[INDEX] ? -1 : 1;
+        final int    X0   = (INDEX & BLUE_NOISE_MASK) - RADIUS;
+        final int    Y0   = (INDEX >>> BLUE_NOISE_SHIFT) - RADIUS;
+        PATTERN[INDEX] = !PATTERN[INDEX];
+        for (int y = 0 ; y < KERNEL_SIZE ; y++) {
+            final int ROW = ((Y0 + y) & BLUE_NOISE_MASK) << BLUE_NOISE_SHIFT;
+            for (int x = 0 ; x < KERNEL_SIZE ; x++) {
+                ENERGY[ROW | ((X0 + x) & BLUE_NOISE_MASK)] += SIGN * KERNEL[y * KERNEL_SIZE + x];
+            }
+        }
+    }
+
+    private static int[] toBias(final int[] RANKS) {
+        final int   AREA = RANKS.length;
+        final int[] BIAS = new int[AREA];
+        for (int i = 0 ; i < AREA ; i++) { BIAS[i] = (int) ((RANKS[i] * 256L + 128) / AREA); }
+        return BIAS;
+    }
+
+
+    // ******************** Inner Classes *************************************
+    static final class BlueNoise {
+        static final int[] TILE = createBlueNoise();
+
+        private BlueNoise() {}
+    }
+}
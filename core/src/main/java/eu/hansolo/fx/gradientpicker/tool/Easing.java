@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+/**
+ * Maps the linear progress of an animation (0.0 - 1.0) onto the progress of the value.
+ * LINEAR      : constant speed
+ * EASE_IN     : starts slow, cubic
+ * EASE_OUT    : ends slow, cubic
+ * EASE_IN_OUT : starts and ends slow, cubic
+ */
+public enum Easing {
+    LINEAR {
+        @Override public double apply(final double PROGRESS) { return PROGRESS; }
+    },
+    EASE_IN {
+        @Override public double apply(final double PROGRESS) { return PROGRESS * PROGRESS * PROGRESS; }
+    },
+    EASE_OUT {
+        @Override public double apply(final double PROGRESS) {
+            final double INVERSE = 1.0 - PROGRESS;
+            return 1.0 - INVERSE * INVERSE * INVERSE;
+        }
+    },
+    EASE_IN_OUT {
+        @Override public double apply(final double PROGRESS) {
+            if (PROGRESS < 0.5) { return 4.0 * PROGRESS * PROGRESS * PROGRESS; }
+            final double INVERSE = 2.0 - 2.0 * PROGRESS;
+            return 1.0 - INVERSE * INVERSE * INVERSE * 0.5;
+        }
+    };
+
+
+    /**
+     * Maps the given progress (0.0 - 1.0) onto the eased progress, 0.0 and 1.0 are kept.
+     */
+    public abstract double apply(final double PROGRESS);
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+
+/**
+ * Writes a GradientSpec in one of the GradientFormats to an Appendable (StringBuilder, Writer, ...).
+ * Numbers are written with the NumberFormatter, no intermediate strings are created and the
+ * output is the same in every locale. CSS_STOPS and JAVA_STOPS keep the format of
+ * GradientPicker.getStopsAsString() including the truncated 8 bit channels, all other
+ * formats round the channels.
+ */
+public final class GradientExporter {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+
+    // ******************** Constructors **************************************
+    private GradientExporter() {}
+
+
+    // ******************** Methods *******************************************
+    public static String toString(final GradientSpec SPEC, final GradientFormat FORMAT) {
+        StringBuilder builder = new StringBuilder(SPEC.getSize() * 48 + 64);
+        try {
+            export(SPEC, FORMAT, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    public static void export(final GradientSpec SPEC, final GradientFormat FORMAT, final Appendable OUT) throws IOException {
+        switch(FORMAT) {
+            case CSS_STOPS : writeCssStops(SPEC, OUT); break;
+            case JAVA_STOPS: writeJavaStops(SPEC, OUT); break;
+            case CSS       : writeCss(SPEC, OUT); break;
+            case FX_CSS    : writeFxCss(SPEC, OUT); break;
+            case JAVA      : writeJava(SPEC, OUT); break;
+            case SVG       : writeSvg(SPEC, "gradient", OUT); break;
+            case JSON      : writeJson(SPEC, OUT); break;
+        }
+    }
+
+    /**
+     * rgba(255, 0, 0, 1.000) 0.0%,
+     */
+    public static void writeCssStops(final GradientSpec SPEC, final Appendable OUT) throws IOException {
+        final int SIZE = SPEC.getSize();
+        for (int i = 0 ; i < SIZE ; i++) {
+            OUT.append("rgba(");
+            NumberFormatter.appendInt(OUT, (int) (SPEC.getRed(i) * 255));
+            OUT.append(", ");
+            NumberFormatter.appendInt(OUT, (int) (SPEC.getGreen(i) * 255));
+            OUT.append(", ");
+            NumberFormatter.appendInt(OUT, (int) (SPEC.getBlue(i) * 255));
+            OUT.append(", ");
+            NumberFormatter.appendFixed(OUT, SPEC.getOpacity(i), 3);
+            OUT.append(") ");
+            NumberFormatter.appendFixed(OUT, Math.floor(SPEC.getOffset(i) * 100), 1);
+            OUT.append(i == SIZE - 1 ? "%\n" : "%,\n");
+        }
+    }
+
+    /**
+     * new Stop(0.000, Color.rgb(255, 0, 0, 1.00)),
+     */
+    public static void writeJavaStops(final GradientSpec SPEC, final Appendable OUT) throws IOException {
+        final int SIZE = SPEC.getSize();
+        for (int i = 0 ; i < SIZE ; i++) {
+            OUT.append("new Stop(");
+            NumberFormatter.appendFixed(OUT, SPEC.getOffset(i), 3);
+            OUT.append(", Color.rgb(");
+            NumberFormatter.appendInt(OUT, (int) (SPEC.getRed(i) * 255));
+            OUT.append(", ");
+            NumberFormatter.appendInt(OUT, (int) (SPEC.getGreen(i) * 255));
+            OUT.append(", ");
+            NumberFormatter.appendInt(OUT, (int) (SPEC.getBlue(i) * 255));
+            OUT.append(", ");
+            NumberFormatter.appendFixed(OUT, SPEC.getOpacity(i), 2);
+            OUT.append(i == SIZE - 1 ? "))\n" : ")),\n");
+        }
+    }
+
+    /**
+     * linear-gradient(to right, rgba(255, 0, 0, 1.000) 0.00%, ...)
+     */
+    public static void writeCss(final GradientSpec SPEC, final Appendable OUT) throws IOException {
+        OUT.append("linear-gradient(to right");
+        writeRgbaStops(SPEC, OUT);
+        OUT.append(')');
+    }
+
+    /**
+     * linear-gradient(from 0% 0% to 100% 0%, rgba(255, 0, 0, 1.000) 0.00%, ...)
+     */
+    public static void writeFxCss(final GradientSpec SPEC, final Appendable OUT) throws IOException {
+        OUT.append("linear-gradient(from 0% 0% to 100% 0%");
+        writeRgbaStops(SPEC, OUT);
+        OUT.append(')');
+    }
+
+    public static void writeJava(final GradientSpec SPEC, final Appendable OUT) throws IOException {
+        final int SIZE = SPEC.getSize();
+        OUT.append("new LinearGradient(0, 0, 1, 0, true, CycleMethod.NO_CYCLE");
+        for (int i = 0 ; i < SIZE ; i++) {
+            OUT.append(",\n    new Stop(");
+            NumberFormatter.appendFixed(OUT, SPEC.getOffset(i), 4);
+            OUT.append(", Color.rgb(");
+            NumberFormatter.appendInt(OUT, to8Bit(SPEC.getRed(i)));
+            OUT.append(", ");
+            NumberFormatter.appendInt(OUT, to8Bit(SPEC.getGreen(i)));
+            OUT.append(", ");
+            NumberFormatter.appendInt(OUT, to8Bit(SPEC.getBlue(i)));
+            OUT.append(", ");
+            NumberFormatter.appendFixed(OUT, SPEC.getOpacity(i), 3);
+            OUT.append("))");
+        }
+        OUT.append(");\n");
+    }
+
+    /**
+     * Writes a horizontal SVG linearGradient element with the given id, the id is expected to be a valid XML name.
+     */
+    public static void writeSvg(final GradientSpec SPEC, final String ID, final Appendable OUT) throws IOException {
+        final int SIZE = SPEC.getSize();
+        OUT.append("<linearGradient id=\"").append(ID).append("\" x1=\"0\" y1=\"0\" x2=\"1\" y2=\"0\">\n");
+        for (int i = 0 ; i < SIZE ; i++) {
+            OUT.append("  <stop offset=\"");
+            NumberFormatter.appendFixed(OUT, SPEC.getOffset(i), 4);
+            OUT.append("\" stop-color=\"#");
+            appendHex(OUT, to8Bit(SPEC.getRed(i)));
+            appendHex(OUT, to8Bit(SPEC.getGreen(i)));
+            appendHex(OUT, to8Bit(SPEC.getBlue(i)));
+            OUT.append("\" stop-opacity=\"");
+            NumberFormatter.appendFixed(OUT, SPEC.getOpacity(i), 3);
+            OUT.append("\"/>\n");
+        }
+        OUT.append("</linearGradient>\n");
+    }
+
+    /**
+     * {"stops":[{"offset":0.0000,"color":"#ff0000ff"}, ...]}, the color is given as #rrggbbaa.
+     */
+    public static void writeJson(final GradientSpec SPEC, final Appendable OUT) throws IOException {
+        final int SIZE = SPEC.getSize();
+        OUT.append("{\"stops\":[");
+        for (int i = 0 ; i < SIZE ; i++) {
+            if (i > 0) { OUT.append(','); }
+            OUT.append("{\"offset\":");
+            NumberFormatter.appendFixed(OUT, SPEC.getOffset(i), 4);
+            OUT.append(",\"color\":\"#");
+            appendHex(OUT, to8Bit(SPEC.getRed(i)));
+            appendHex(OUT, to8Bit(SPEC.getGreen(i)));
+            appendHex(OUT, to8Bit(SPEC.getBlue(i)));
+            appendHex(OUT, to8Bit(SPEC.getOpacity(i)));
+            OUT.append("\"}");
+        }
+        OUT.append("]}");
+    }
+
+    private static void writeRgbaStops(final GradientSpec SPEC, final Appendable OUT) throws IOException {
+        final int SIZE = SPEC.getSize();
+        for (int i = 0 ; i < SIZE ; i++) {
+            OUT.append(", rgba(");
+            NumberFormatter.appendInt(OUT, to8Bit(SPEC.getRed(i)));
+            OUT.append(", ");
+            NumberFormatter.appendInt(OUT, to8Bit(SPEC.getGreen(i)));
+            OUT.append(", ");
+            NumberFormatter.appendInt(OUT, to8Bit(SPEC.getBlue(i)));
+            OUT.append(", ");
+            NumberFormatter.appendFixed(OUT, SPEC.getOpacity(i), 3);
+            OUT.append(") ");
+            NumberFormatter.appendFixed(OUT, SPEC.getOffset(i) * 100, 2);
+            OUT.append('%');
+        }
+    }
+
+    private static int to8Bit(final double VALUE) { return (int) (Helper.clamp(0.0, 1.0, VALUE) * 255 + 0.5); }
+
+    private static void appendHex(final Appendable OUT, final int VALUE) throws IOException {
+        OUT.append(HEX[(VALUE >>> 4) & 0xF]).append(HEX[VALUE & 0xF]);
+    }
+}
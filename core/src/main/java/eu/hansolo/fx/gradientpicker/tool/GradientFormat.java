@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+/**
+ * CSS_STOPS  : CSS color stops, one per line (GradientPicker.getStopsAsString(true))
+ * JAVA_STOPS : JavaFX Stop code, one per line (GradientPicker.getStopsAsString(false))
+ * CSS        : CSS linear-gradient(to right, ...)
+ * FX_CSS     : JavaFX CSS linear-gradient(from 0% 0% to 100% 0%, ...)
+ * JAVA       : JavaFX LinearGradient code
+ * SVG        : SVG linearGradient element
+ * JSON       : JSON object with an array of stops
+ */
+public enum GradientFormat {
+    CSS_STOPS, JAVA_STOPS, CSS, FX_CSS, JAVA, SVG, JSON
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Undo/redo history of gradient snapshots with a limit on the retained memory.
+ * A snapshot stores its stops in small immutable chunks. Chunk boundaries are content
+ * defined (they follow stops whose hash matches a mask), so inserting, removing or editing
+ * a stop only creates the chunk around it while all other chunks are shared with the
+ * previous snapshot, no matter if the stops after the change have been shifted.
+ * Transient states (e.g. while dragging a stop) replace each other and are merged with
+ * the following committed state into a single entry.
+ * The size in bytes is an estimate of the retained arrays, shared chunks are counted once.
+ * If the history exceeds its limit the oldest undo entries are dropped.
+ * A state can consist of two tracks (e.g. the color and the opacity stops of an editor that keeps
+ * them separately), both are chunked and restored exactly, see getCurrentOpacities().
+ */
+public class GradientHistory {
+    public  static final long            DEFAULT_MAX_BYTES = 1 << 20;
+    private static final int             CHANNELS          = 4;
+    private static final int             BOUNDARY_MASK     = 0x7;
+    private static final int             MAX_CHUNK_SIZE    = 32;
+    private static final int             OBJECT_BYTES      = 16;
+    private static final int             ARRAY_BYTES       = 16;
+    private static final int             REFERENCE_BYTES   = 4;
+    private        final Deque<Snapshot> undoStack;
+    private        final Deque<Snapshot> redoStack;
+    private              Snapshot        current;
+    private              boolean         currentTransient;
+    private              long            maxBytes;
+    private              long            sizeInBytes;
+
+
+    // ******************** Constructors **************************************
+    public GradientHistory() {
+        this(DEFAULT_MAX_BYTES);
+    }
+    public GradientHistory(final long MAX_BYTES) {
+        undoStack = new ArrayDeque<>();
+        redoStack = new ArrayDeque<>();
+        setMaxBytes(MAX_BYTES);
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Records the given state. A state equal to the current one is ignored (a committed
+     * state only seals a transient current state). A transient state replaces a transient
+     * current state, a committed state replaces it and seals it. Recording clears the redo entries.
+     */
+    public void record(final GradientSpec SPEC, final boolean TRANSIENT) { record(SPEC, null, TRANSIENT); }
+    /**
+     * Records a state that consists of the stops (or color stops) SPEC and the separate opacity stops OPACITIES.
+     */
+    public void record(final GradientSpec SPEC, final GradientSpec OPACITIES, final boolean TRANSIENT) {
+        if (null != current && current.matches(SPEC, OPACITIES)) {
+            if (!TRANSIENT) { currentTransient = false; }
+            return;
+        }
+        final Snapshot SNAPSHOT = new Snapshot(SPEC, OPACITIES, current);
+        retain(SNAPSHOT);
+        if (null != current) {
+            if (currentTransient) {
+                release(current);
+            } else {
+                undoStack.push(current);
+            }
+        }
+        current          = SNAPSHOT;
+        currentTransient = TRANSIENT;
+        while (!redoStack.isEmpty()) { release(redoStack.pop()); }
+        trim();
+    }
+
+    public boolean canUndo() { return !undoStack.isEmpty(); }
+
+    public boolean canRedo() { return !redoStack.isEmpty(); }
+
+    /**
+     * Steps back to the previous state and returns it or returns null if there is no previous state.
+     */
+    public GradientSpec undo() {
+        if (undoStack.isEmpty()) { return null; }
+        redoStack.push(current);
+        current          = undoStack.pop();
+        currentTransient = false;
+        return current.toSpec();
+    }
+
+    /**
+     * Steps forward to the next state and returns it or returns null if there is no next state.
+     */
+    public GradientSpec redo() {
+        if (redoStack.isEmpty()) { return null; }
+        undoStack.push(current);
+        current          = redoStack.pop();
+        currentTransient = false;
+        return current.toSpec();
+    }
+
+    /**
+     * Returns the current state or null if nothing has been recorded.
+     */
+    public GradientSpec getCurrent() { return null == current ? null : current.toSpec(); }
+
+    /**
+     * Returns the opacity stops of the current state or null if the state was recorded without them.
+     */
+    public GradientSpec getCurrentOpacities() { return null == current ? null : current.toOpacitySpec(); }
+
+    /**
+     * Removes all undo and redo entries, the current state is kept.
+     */
+    public void clear() {
+        while (!undoStack.isEmpty()) { release(undoStack.pop()); }
+        while (!redoStack.isEmpty()) { release(redoStack.pop()); }
+    }
+
+    public int getUndoSize() { return undoStack.size(); }
+
+    public int getRedoSize() { return redoStack.size(); }
+
+    public long getSizeInBytes() { return sizeInBytes; }
+
+    public long getMaxBytes() { return maxBytes; }
+    public void setMaxBytes(final long MAX_BYTES) {
+        if (MAX_BYTES < 0) { throw new IllegalArgumentException("Max bytes cannot be negative"); }
+        maxBytes = MAX_BYTES;
+        trim();
+    }
+
+    // Drops the oldest undo entries, the current state and the redo entries are always kept
+    private void trim() {
+        while (sizeInBytes > maxBytes && !undoStack.isEmpty()) { release(undoStack.removeLast()); }
+    }
+
+    private void retain(final Snapshot SNAPSHOT) {
+        sizeInBytes += SNAPSHOT.getSizeInBytes();
+        retain(SNAPSHOT.chunks);
+        if (null != SNAPSHOT.opacityChunks) { retain(SNAPSHOT.opacityChunks); }
+    }
+    private void retain(final Chunk[] CHUNKS) {
+        for (Chunk chunk : CHUNKS) {
+            if (0 == chunk.references++) { sizeInBytes += chunk.getSizeInBytes(); }
+        }
+    }
+
+    private void release(final Snapshot SNAPSHOT) {
+        sizeInBytes -= SNAPSHOT.getSizeInBytes();
+        release(SNAPSHOT.chunks);
+        if (null != SNAPSHOT.opacityChunks) { release(SNAPSHOT.opacityChunks); }
+    }
+    private void release(final Chunk[] CHUNKS) {
+        for (Chunk chunk : CHUNKS) {
+            if (0 == --chunk.references) { sizeInBytes -= chunk.getSizeInBytes(); }
+        }
+    }
+
+
+    // ******************** Inner Classes *************************************
+    private static final class Snapshot {
+        private final Chunk[] chunks;
+        private final int     size;
+        private final Chunk[] opacityChunks;
+        private final int     opacitySize;
+
+
+        // ******************** Constructors **************************************
+        /**
+         * Splits the stops of SPEC and OPACITIES into chunks, chunks with the same stops as a chunk of PREVIOUS are reused.
+         */
+        Snapshot(final GradientSpec SPEC, final GradientSpec OPACITIES, final Snapshot PREVIOUS) {
+            chunks        = split(SPEC, null == PREVIOUS ? null : PREVIOUS.chunks);
+            size          = SPEC.getSize();
+            opacityChunks = null == OPACITIES ? null : split(OPACITIES, null == PREVIOUS ? null : PREVIOUS.opacityChunks);
+            opacitySize   = null == OPACITIES ? 0 : OPACITIES.getSize();
+        }
+
+
+        // ******************** Methods *******************************************
+        boolean matches(final GradientSpec SPEC, final GradientSpec OPACITIES) {
+            if ((null == OPACITIES) != (null == opacityChunks)) { return false; }
+            return matches(chunks, size, SPEC) && (null == OPACITIES || matches(opacityChunks, opacitySize, OPACITIES));
+        }
+
+        GradientSpec toSpec() { return toSpec(chunks, size); }
+
+        GradientSpec toOpacitySpec() { return null == opacityChunks ? null : toSpec(opacityChunks, opacitySize); }
+
+        long getSizeInBytes() {
+            return OBJECT_BYTES + ARRAY_BYTES + (long) chunks.length * REFERENCE_BYTES +
+                   (null == opacityChunks ? 0 : ARRAY_BYTES + (long) opacityChunks.length * REFERENCE_BYTES);
+        }
+
+        private static Chunk[] split(final GradientSpec SPEC, final Chunk[] PREVIOUS) {
+            // The chunks of the previous state by content, so sharing is a hash lookup per chunk
+            final Map<Chunk, Chunk> SHARED = new HashMap<>();
+            if (null != PREVIOUS) { for (Chunk chunk : PREVIOUS) { SHARED.put(chunk, chunk); } }
+            final int NO_OF_STOPS = SPEC.getSize();
+            Chunk[] newChunks = new Chunk[NO_OF_STOPS / MAX_CHUNK_SIZE + 1];
+            int     count     = 0;
+            int     start     = 0;
+            for (int i = 0 ; i < NO_OF_STOPS ; i++) {
+                if (i == NO_OF_STOPS - 1 || i - start + 1 == MAX_CHUNK_SIZE || (hashStop(SPEC, i) & BOUNDARY_MASK) == 0) {
+                    if (count == newChunks.length) { newChunks = Arrays.copyOf(newChunks, count * 2); }
+                    final Chunk CHUNK = new Chunk(SPEC, start, i + 1);
+                    newChunks[count++] = SHARED.getOrDefault(CHUNK, CHUNK);
+                    start = i + 1;
+                }
+            }
+            return Arrays.copyOf(newChunks, count);
+        }
+
+        private static boolean matches(final Chunk[] CHUNKS, final int SIZE, final GradientSpec SPEC) {
+            if (SPEC.getSize() != SIZE) { return false; }
+            int index = 0;
+            for (Chunk chunk : CHUNKS) {
+                if (!chunk.matches(SPEC, index)) { return false; }
+                index += chunk.offsets.length;
+            }
+            return true;
+        }
+
+        private static GradientSpec toSpec(final Chunk[] CHUNKS, final int SIZE) {
+            final double[] OFFSETS  = new double[SIZE];
+            final double[] CHANNELS = new double[SIZE * GradientHistory.CHANNELS];
+            int index = 0;
+            for (Chunk chunk : CHUNKS) {
+                System.arraycopy(chunk.offsets, 0, OFFSETS, index, chunk.offsets.length);
+                System.arraycopy(chunk.channels, 0, CHANNELS, index * GradientHistory.CHANNELS, chunk.channels.length);
+                index += chunk.offsets.length;
+            }
+            return new GradientSpec(OFFSETS, CHANNELS);
+        }
+
+        private static int hashStop(final GradientSpec SPEC, final int INDEX) {
+            int hash = Double.hashCode(SPEC.getOffset(INDEX));
+            hash = 31 * hash + Double.hashCode(SPEC.getRed(INDEX));
+            hash = 31 * hash + Double.hashCode(SPEC.getGreen(INDEX));
+            hash = 31 * hash + Double.hashCode(SPEC.getBlue(INDEX));
+            hash = 31 * hash + Double.hashCode(SPEC.getOpacity(INDEX));
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    private static final class Chunk {
+        private final double[] offsets;
+        private final double[] channels;
+        private final int      hash;
+        private       int      references;
+
+
+        // ******************** Constructors **************************************
+        Chunk(final GradientSpec SPEC, final int FROM, final int TO) {
+            offsets  = new double[TO - FROM];
+            channels = new double[(TO - FROM) * CHANNELS];
+            for (int i = FROM ; i < TO ; i++) {
+                final int INDEX = i - FROM;
+                offsets[INDEX]                 = SPEC.getOffset(i);
+                channels[INDEX * CHANNELS]     = SPEC.getRed(i);
+                channels[INDEX * CHANNELS + 1] = SPEC.getGreen(i);
+                channels[INDEX * CHANNELS + 2] = SPEC.getBlue(i);
+                channels[INDEX * CHANNELS + 3] = SPEC.getOpacity(i);
+            }
+            hash = 31 * Arrays.hashCode(offsets) + Arrays.hashCode(channels);
+        }
+
+
+        // ******************** Methods *******************************************
+        boolean matches(final GradientSpec SPEC, final int FROM) {
+            for (int i = 0 ; i < offsets.length ; i++) {
+                if (Double.compare(offsets[i], SPEC.getOffset(FROM + i))                  != 0 ||
+                    Double.compare(channels[i * CHANNELS], SPEC.getRed(FROM + i))         != 0 ||
+                    Double.compare(channels[i * CHANNELS + 1], SPEC.getGreen(FROM + i))   != 0 ||
+                    Double.compare(channels[i * CHANNELS + 2], SPEC.getBlue(FROM + i))    != 0 ||
+                    Double.compare(channels[i * CHANNELS + 3], SPEC.getOpacity(FROM + i)) != 0) { return false; }
+            }
+            return true;
+        }
+
+        long getSizeInBytes() { return OBJECT_BYTES + 2 * ARRAY_BYTES + (long) offsets.length * (1 + CHANNELS) * Double.BYTES; }
+
+        @Override public boolean equals(final Object OBJECT) {
+            if (this == OBJECT) { return true; }
+            if (!(OBJECT instanceof Chunk)) { return false; }
+            Chunk chunk = (Chunk) OBJECT;
+            return hash == chunk.hash && Arrays.equals(offsets, chunk.offsets) && Arrays.equals(channels, chunk.channels);
+        }
+
+        @Override public int hashCode() { return hash; }
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Memory mapped library of named gradients in a compact binary palette file.
+ *
+ * File layout (big endian):
+ * header  : int magic "GPAL", short version, short reserved, long index position, int count,
+ *           int index capacity, long end of data
+ * record  : short name length, UTF-8 name, int stop count, per stop a float offset and an int ARGB
+ * index   : per gradient a long record position and the int hash of its name, followed by unused entries up to the capacity
+ *
+ * Gradients are only decoded when they are requested by id or name, the decoded specs are cached.
+ * Names are looked up in a hash table over the index that is built when the library is opened.
+ * Use FxGradients of the ui module to turn them into Stops or a LinearGradient.
+ * Appending writes the new records behind the existing data and their entries into the unused
+ * entries of the index and finally updates the header, existing records are never rewritten.
+ * A full index is copied into a new block of twice the capacity, the previous block stays in the file
+ * as unused space. The file grows in steps of its doubled size (at most 16MB) while it is open and is truncated
+ * to the end of data when the library is closed.
+ */
+public class GradientLibrary implements Closeable {
+    public  static final int              MAGIC           = 0x4750414C;
+    public  static final short            VERSION         = 2;
+    public  static final int              HEADER_SIZE     = 32;
+    private static final int              INDEX_OFFSET    = 8;
+    private static final int              COUNT_OFFSET    = 16;
+    private static final int              CAPACITY_OFFSET = 20;
+    private static final int              END_OFFSET      = 24;
+    private static final int              ENTRY_SIZE      = 12;
+    private static final int              STOP_SIZE       = 8;
+    private static final int              MIN_CAPACITY    = 16;
+    private static final long             MAX_GROWTH      = 1 << 24;
+    private        final FileChannel      channel;
+    private              MappedByteBuffer buffer;
+    private              long             indexPosition;
+    private              int              indexCapacity;
+    private              long             end;
+    private              int              size;
+    private              GradientSpec[]   specs;
+    private              int[]            ids;
+
+
+    // ******************** Constructors **************************************
+    private GradientLibrary(final FileChannel CHANNEL) throws IOException {
+        channel = CHANNEL;
+        final long LENGTH = channel.size();
+        map(Math.max(LENGTH, HEADER_SIZE));
+        if (LENGTH == 0) { writeHeader(HEADER_SIZE, 0, 0, HEADER_SIZE); }
+        if (buffer.getInt(0) != MAGIC) { throw new IOException("Not a gradient library"); }
+        if (buffer.getShort(4) != VERSION) { throw new IOException("Unsupported gradient library version " + buffer.getShort(4)); }
+        indexPosition = buffer.getLong(INDEX_OFFSET);
+        size          = buffer.getInt(COUNT_OFFSET);
+        indexCapacity = buffer.getInt(CAPACITY_OFFSET);
+        end           = buffer.getLong(END_OFFSET);
+        if (size < 0 || size > indexCapacity || indexPosition < HEADER_SIZE || indexPosition + (long) indexCapacity * ENTRY_SIZE > end || end > buffer.capacity()) {
+            throw new IOException("Corrupt gradient library index");
+        }
+        specs = new GradientSpec[size];
+        ids   = new int[MIN_CAPACITY];
+        indexNames(0, size);
+    }
+
+    /**
+     * Opens the library in the given file, a new empty library is created if the file does not exist.
+     */
+    public static GradientLibrary open(final Path PATH) throws IOException {
+        FileChannel channel = FileChannel.open(PATH, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new GradientLibrary(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+
+    // ******************** Methods *******************************************
+    public synchronized int getSize() { return size; }
+
+    public synchronized String getName(final int ID) {
+        checkOpen();
+        final int POSITION = getRecordPosition(ID);
+        return readName(POSITION, buffer.getShort(POSITION) & 0xFFFF);
+    }
+
+    /**
+     * Returns the id of the first gradient with the given name or -1 if there is none.
+     * Only the ids with the same name hash are probed, names are compared on a hash match.
+     */
+    public synchronized int getId(final String NAME) {
+        checkOpen();
+        final byte[] BYTES = NAME.getBytes(StandardCharsets.UTF_8);
+        final int    HASH  = NAME.hashCode();
+        final int    MASK  = ids.length - 1;
+        // Ids are inserted in ascending order without removals, so the first id of a name is probed first
+        for (int slot = spread(HASH) & MASK ; ids[slot] != 0 ; slot = (slot + 1) & MASK) {
+            final int ENTRY = getEntryPosition(ids[slot] - 1);
+            if (buffer.getInt(ENTRY + 8) != HASH) { continue; }
+            final int POSITION = (int) buffer.getLong(ENTRY);
+            if ((buffer.getShort(POSITION) & 0xFFFF) == BYTES.length && isSameName(POSITION + 2, BYTES)) { return ids[slot] - 1; }
+        }
+        return -1;
+    }
+
+    public synchronized GradientSpec getSpec(final int ID) {
+        checkOpen();
+        GradientSpec spec = specs[checkId(ID)];
+        if (null == spec) {
+            spec      = readSpec(getRecordPosition(ID));
+            specs[ID] = spec;
+        }
+        return spec;
+    }
+    public GradientSpec getSpec(final String NAME) {
+        final int ID = getId(NAME);
+        return ID < 0 ? null : getSpec(ID);
+    }
+
+    public ArgbLookup getLookup(final int ID) { return new ArgbLookup(getSpec(ID)); }
+    public ArgbLookup getLookup(final String NAME) {
+        final GradientSpec SPEC = getSpec(NAME);
+        return null == SPEC ? null : new ArgbLookup(SPEC);
+    }
+
+    /**
+     * Appends the gradient and returns its id.
+     */
+    public int append(final String NAME, final GradientSpec SPEC) throws IOException {
+        return append(Collections.singletonList(NAME), Collections.singletonList(SPEC));
+    }
+    /**
+     * Appends the gradients and returns the id of the first one.
+     * The new data is forced to disk before the header is updated, a failed append leaves the
+     * library in its previous state.
+     */
+    public synchronized int append(final List<String> NAMES, final List<GradientSpec> SPECS) throws IOException {
+        checkOpen();
+        if (NAMES.size() != SPECS.size()) { throw new IllegalArgumentException("Names and specs must have the same size"); }
+        final int          COUNT    = NAMES.size();
+        final int          FIRST_ID = size;
+        final int          NEW_SIZE = size + COUNT;
+        final ByteBuffer[] RECORDS  = new ByteBuffer[COUNT];
+        long recordsLength = 0;
+        for (int i = 0 ; i < COUNT ; i++) {
+            RECORDS[i]     = encode(NAMES.get(i), SPECS.get(i));
+            recordsLength += RECORDS[i].remaining();
+        }
+
+        // Only a full index is moved, into a new block with twice the capacity behind the existing data
+        long newIndexPosition = indexPosition;
+        int  newIndexCapacity = indexCapacity;
+        long position         = end;
+        if (NEW_SIZE > indexCapacity) {
+            newIndexCapacity = Math.max(MIN_CAPACITY, Math.max(NEW_SIZE, indexCapacity * 2));
+            newIndexPosition = end;
+            position        += (long) newIndexCapacity * ENTRY_SIZE;
+        }
+        final long NEW_END = position + recordsLength;
+        ensureLength(NEW_END);
+        if (newIndexPosition != indexPosition) {
+            final ByteBuffer OLD   = buffer.duplicate();
+            final ByteBuffer INDEX = buffer.duplicate();
+            OLD.position((int) indexPosition).limit((int) (indexPosition + (long) size * ENTRY_SIZE));
+            INDEX.position((int) newIndexPosition);
+            INDEX.put(OLD);
+        }
+        final ByteBuffer DATA = buffer.duplicate();
+        for (int i = 0 ; i < COUNT ; i++) {
+            final int ENTRY = (int) (newIndexPosition + (long) (size + i) * ENTRY_SIZE);
+            buffer.putLong(ENTRY, position).putInt(ENTRY + 8, NAMES.get(i).hashCode());
+            DATA.position((int) position);
+            position += RECORDS[i].remaining();
+            DATA.put(RECORDS[i]);
+        }
+        buffer.force();
+
+        writeHeader(newIndexPosition, NEW_SIZE, newIndexCapacity, NEW_END);
+        buffer.force();
+
+        // The new gradients are decoded from the file on request so that they come back with the stored precision
+        if (NEW_SIZE > specs.length) { specs = Arrays.copyOf(specs, Math.max(NEW_SIZE, specs.length * 2)); }
+        indexPosition = newIndexPosition;
+        indexCapacity = newIndexCapacity;
+        end           = NEW_END;
+        size          = NEW_SIZE;
+        indexNames(FIRST_ID, NEW_SIZE);
+        return FIRST_ID;
+    }
+
+    /**
+     * Closes the library and truncates the file to the end of data, every further access throws an IllegalStateException.
+     */
+    @Override public synchronized void close() throws IOException {
+        if (null == buffer) { return; }
+        buffer = null;
+        specs  = new GradientSpec[0];
+        ids    = new int[MIN_CAPACITY];
+        size   = 0;
+        try {
+            channel.truncate(end);
+        } catch (IOException e) {
+            // Some systems (e.g. Windows) refuse to truncate a file while the unmapped buffer has not been collected,
+            // the unused space is kept then, the end in the header still tells where the data ends
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void map(final long LENGTH) throws IOException {
+        if (LENGTH > Integer.MAX_VALUE) { throw new IOException("Gradient library exceeds 2GB"); }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, LENGTH);
+    }
+
+    // Grows the file and its mapping to at least LENGTH, in steps of the doubled size (at most 16MB) so that appends rarely remap
+    private void ensureLength(final long LENGTH) throws IOException {
+        if (LENGTH <= buffer.capacity()) { return; }
+        if (LENGTH > Integer.MAX_VALUE) { throw new IOException("Gradient library exceeds 2GB"); }
+        map(Math.min(Integer.MAX_VALUE, Math.max(LENGTH, buffer.capacity() + Math.min(buffer.capacity(), MAX_GROWTH))));
+    }
+
+    private void writeHeader(final long INDEX_POSITION, final int COUNT, final int CAPACITY, final long END) {
+        buffer.putInt(0, MAGIC).putShort(4, VERSION).putShort(6, (short) 0)
+              .putLong(INDEX_OFFSET, INDEX_POSITION)
+              .putInt(COUNT_OFFSET, COUNT)
+              .putInt(CAPACITY_OFFSET, CAPACITY)
+              .putLong(END_OFFSET, END);
+    }
+
+    // Adds the ids FROM - TO to the name table, the table is rebuilt if it would get more than half full
+    private void indexNames(final int FROM, final int TO) {
+        int from = FROM;
+        if (TO * 2 > ids.length) {
+            ids  = new int[Integer.highestOneBit(Math.max(MIN_CAPACITY, TO * 2 - 1)) << 1];
+            from = 0;
+        }
+        final int MASK = ids.length - 1;
+        for (int id = from ; id < TO ; id++) {
+            int slot = spread(buffer.getInt(getEntryPosition(id) + 8)) & MASK;
+            while (ids[slot] != 0) { slot = (slot + 1) & MASK; }
+            ids[slot] = id + 1;
+        }
+    }
+
+    private static int spread(final int HASH) { return HASH ^ (HASH >>> 16); }
+
+    private int getEntryPosition(final int ID) { return (int) (indexPosition + (long) ID * ENTRY_SIZE); }
+
+    private int getRecordPosition(final int ID) {
+        checkId(ID);
+        return (int) buffer.getLong(getEntryPosition(ID));
+    }
+
+    private void checkOpen() {
+        if (null == buffer) { throw new IllegalStateException("library closed"); }
+    }
+
+    private int checkId(final int ID) {
+        if (ID < 0 || ID >= size) { throw new IndexOutOfBoundsException("No gradient with id " + ID); }
+        return ID;
+    }
+
+    private String readName(final int POSITION, final int LENGTH) {
+        final byte[]     BYTES = new byte[LENGTH];
+        final ByteBuffer NAME  = buffer.duplicate();
+        NAME.position(POSITION + 2);
+        NAME.get(BYTES);
+        return new String(BYTES, StandardCharsets.UTF_8);
+    }
+
+    private boolean isSameName(final int POSITION, final byte[] BYTES) {
+        for (int i = 0 ; i < BYTES.length ; i++) {
+            if (buffer.get(POSITION + i) != BYTES[i]) { return false; }
+        }
+        return true;
+    }
+
+    private GradientSpec readSpec(final int POSITION) {
+        final int      STOPS_POSITION = POSITION + 2 + (buffer.getShort(POSITION) & 0xFFFF);
+        final int      NO_OF_STOPS    = buffer.getInt(STOPS_POSITION);
+        final double[] OFFSETS        = new double[NO_OF_STOPS];
+        final double[] CHANNELS       = new double[NO_OF_STOPS * 4];
+        for (int i = 0 ; i < NO_OF_STOPS ; i++) {
+            final int STOP = STOPS_POSITION + 4 + i * STOP_SIZE;
+            final int ARGB = buffer.getInt(STOP + 4);
+            OFFSETS[i]          = buffer.getFloat(STOP);
+            CHANNELS[i * 4]     = ((ARGB >>> 16) & 0xFF) / 255.0;
+            CHANNELS[i * 4 + 1] = ((ARGB >>> 8)  & 0xFF) / 255.0;
+            CHANNELS[i * 4 + 2] = ( ARGB         & 0xFF) / 255.0;
+            CHANNELS[i * 4 + 3] = ((ARGB >>> 24) & 0xFF) / 255.0;
+        }
+        return new GradientSpec(OFFSETS, CHANNELS);
+    }
+
+    private static ByteBuffer encode(final String NAME, final GradientSpec SPEC) {
+        final byte[] NAME_BYTES = NAME.getBytes(StandardCharsets.UTF_8);
+        if (NAME_BYTES.length > 0xFFFF) { throw new IllegalArgumentException("Name must not exceed 65535 bytes"); }
+        final int        NO_OF_STOPS = SPEC.getSize();
+        final ByteBuffer RECORD      = ByteBuffer.allocate(2 + NAME_BYTES.length + 4 + NO_OF_STOPS * STOP_SIZE);
+        RECORD.putShort((short) NAME_BYTES.length).put(NAME_BYTES).putInt(NO_OF_STOPS);
+        for (int i = 0 ; i < NO_OF_STOPS ; i++) {
+            RECORD.putFloat((float) Helper.clamp(0.0, 1.0, SPEC.getOffset(i)));
+            RECORD.putInt(Helper.toArgb(SPEC.getRed(i), SPEC.getGreen(i), SPEC.getBlue(i), SPEC.getOpacity(i)));
+        }
+        RECORD.flip();
+        return RECORD;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+/**
+ * Fixed resolution lookup table of packed ARGB colors baked from a GradientSampler.
+ * Entry i holds the color at position i / (resolution - 1), sampling is a multiply
+ * and an array read. When the gradient changes only the entries covering the
+ * segments that differ between the old and the new sampler are recomputed.
+ * Optionally a second table keeps the colors as fixed ARGB for dithered output.
+ */
+public class GradientLut {
+    public  static final int    MIN_RESOLUTION = 2;
+    private static final int    ERROR_PROBES   = 4;
+    private        final int[]  table;
+    private        final long[] fixedTable;
+    private        final int    resolution;
+    private        final double scale;
+    private              long   lastRebakeNanos;
+    private              int    lastRebakeEntries;
+    private              double error;
+
+
+    // ******************** Constructors **************************************
+    public GradientLut(final int RESOLUTION, final GradientSampler SAMPLER) {
+        this(RESOLUTION, SAMPLER, false);
+    }
+    public GradientLut(final int RESOLUTION, final GradientSampler SAMPLER, final boolean FIXED) {
+        if (RESOLUTION < MIN_RESOLUTION) { throw new IllegalArgumentException("Resolution must be at least " + MIN_RESOLUTION); }
+        table      = new int[RESOLUTION];
+        fixedTable = FIXED ? new long[RESOLUTION] : null;
+        resolution = RESOLUTION;
+        scale      = RESOLUTION - 1;
+        bake(SAMPLER, 0, RESOLUTION - 1);
+    }
+
+
+    // ******************** Methods *******************************************
+    public int getResolution() { return resolution; }
+
+    public int getSizeInBytes() { return resolution * (null == fixedTable ? Integer.BYTES : Integer.BYTES + Long.BYTES); }
+
+    public boolean hasFixedTable() { return null != fixedTable; }
+
+    /**
+     * Returns the time the last (re)bake took in nanoseconds.
+     */
+    public long getLastRebakeNanos() { return lastRebakeNanos; }
+
+    /**
+     * Returns the number of entries that have been recomputed by the last (re)bake.
+     */
+    public int getLastRebakeEntries() { return lastRebakeEntries; }
+
+    public int getArgbAt(final double POSITION) {
+        return table[(int) (Helper.clamp(0.0, 1.0, POSITION) * scale + 0.5)];
+    }
+
+    /**
+     * Returns the color at the given position as fixed ARGB, requires the fixed table.
+     */
+    public long getFixedAt(final double POSITION) {
+        return fixedTable[(int) (Helper.clamp(0.0, 1.0, POSITION) * scale + 0.5)];
+    }
+
+    int[] getTable() { return table; }
+
+    /**
+     * Recomputes the entries that are affected by the change from OLD_SAMPLER to NEW_SAMPLER.
+     * Segments that are built from identical stops at the start and the end of both samplers
+     * produce identical colors and are left untouched.
+     */
+    public void rebake(final GradientSampler OLD_SAMPLER, final GradientSampler NEW_SAMPLER) {
+        final int OLD_SIZE = OLD_SAMPLER.getSize();
+        final int NEW_SIZE = NEW_SAMPLER.getSize();
+        if (OLD_SIZE < 2 || NEW_SIZE < 2 || OLD_SAMPLER.getInterpolationMode() != NEW_SAMPLER.getInterpolationMode()) {
+            bake(NEW_SAMPLER, 0, resolution - 1);
+            return;
+        }
+
+        final int MAX_EQUAL = Math.min(OLD_SIZE, NEW_SIZE);
+        int prefix = 0;
+        while (prefix < MAX_EQUAL && isSameStop(OLD_SAMPLER, prefix, NEW_SAMPLER, prefix)) { prefix++; }
+        if (prefix == OLD_SIZE && prefix == NEW_SIZE) {
+            lastRebakeNanos   = 0;
+            lastRebakeEntries = 0;
+            return;
+        }
+        int suffix = 0;
+        while (suffix < MAX_EQUAL - prefix && isSameStop(OLD_SAMPLER, OLD_SIZE - 1 - suffix, NEW_SAMPLER, NEW_SIZE - 1 - suffix)) { suffix++; }
+
+        final double FROM = prefix == 0 ? 0.0 : NEW_SAMPLER.getOffset(prefix - 1);
+        final double TO   = suffix == 0 ? 1.0 : NEW_SAMPLER.getOffset(NEW_SIZE - suffix);
+        bake(NEW_SAMPLER, (int) Math.floor(FROM * scale), (int) Math.ceil(TO * scale));
+    }
+
+    /**
+     * Returns the maximum difference of a single 8 bit channel between the table
+     * and the exact interpolation of the given sampler, probed between all entries.
+     */
+    public double getError(final GradientSampler SAMPLER) {
+        if (error >= 0) { return error; }
+        int maxDelta = 0;
+        for (int i = 0 ; i < resolution - 1 ; i++) {
+            for (int probe = 0 ; probe < ERROR_PROBES ; probe++) {
+                final double POSITION = (i + probe / (double) ERROR_PROBES) / scale;
+                final int    EXACT    = SAMPLER.getArgbAt(POSITION);
+                final int    BAKED    = getArgbAt(POSITION);
+                for (int shift = 0 ; shift < 32 ; shift += 8) {
+                    maxDelta = Math.max(maxDelta, Math.abs(((EXACT >>> shift) & 0xFF) - ((BAKED >>> shift) & 0xFF)));
+                }
+            }
+        }
+        error = maxDelta;
+        return error;
+    }
+
+    private void bake(final GradientSampler SAMPLER, final int FROM_INDEX, final int TO_INDEX) {
+        final long START       = System.nanoTime();
+        final long START_BYTES = GradientMetrics.isEnabled() ? GradientMetrics.getAllocatedBytes() : -1;
+        final int  FROM        = Math.max(0, FROM_INDEX);
+        final int  TO          = Math.min(resolution - 1, TO_INDEX);
+        for (int i = FROM ; i <= TO ; i++) { table[i] = SAMPLER.getArgbAt(i / scale); }
+        if (null != fixedTable) {
+            for (int i = FROM ; i <= TO ; i++) { fixedTable[i] = SAMPLER.getFixedAt(i / scale); }
+        }
+        lastRebakeNanos   = System.nanoTime() - START;
+        lastRebakeEntries = TO - FROM + 1;
+        error             = -1;
+        if (GradientMetrics.isEnabled()) { GradientMetrics.record(MetricOperation.LUT_REBAKE, START, START_BYTES, lastRebakeEntries); }
+    }
+
+    private static boolean isSameStop(final GradientSampler SAMPLER_A, final int INDEX_A, final GradientSampler SAMPLER_B, final int INDEX_B) {
+        return Double.compare(SAMPLER_A.getOffset(INDEX_A), SAMPLER_B.getOffset(INDEX_B))   == 0 &&
+               Double.compare(SAMPLER_A.getRed(INDEX_A), SAMPLER_B.getRed(INDEX_B))         == 0 &&
+               Double.compare(SAMPLER_A.getGreen(INDEX_A), SAMPLER_B.getGreen(INDEX_B))     == 0 &&
+               Double.compare(SAMPLER_A.getBlue(INDEX_A), SAMPLER_B.getBlue(INDEX_B))       == 0 &&
+               Double.compare(SAMPLER_A.getOpacity(INDEX_A), SAMPLER_B.getOpacity(INDEX_B)) == 0;
+    }
+}
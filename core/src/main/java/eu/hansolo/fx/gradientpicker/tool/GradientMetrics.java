@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Opt-in instrumentation of the hot paths. If disabled (the default) every call site
+ * only checks isEnabled(). Enable it with setEnabled(true) or the system property
+ * "eu.hansolo.fx.gradientpicker.metrics=true".
+ * Per operation it keeps a call counter, a latency histogram with power of two buckets
+ * and the bytes allocated by the calling thread (if supported by the JVM). Observer
+ * dispatch times are kept per observer (weakly, so an observer that is collected without
+ * being removed does not keep its values alive). If Flight Recorder is available, rebuilds are
+ * emitted as "eu.hansolo.gradientpicker.Rebuild" and observers that take longer than the
+ * slow observer threshold as "eu.hansolo.gradientpicker.SlowObserver" events.
+ * The management beans and Flight Recorder are only touched once metrics are enabled.
+ */
+public final class GradientMetrics {
+    public  static final    String                               ENABLED_PROPERTY      = "eu.hansolo.fx.gradientpicker.metrics";
+    public  static final    long                                 DEFAULT_SLOW_OBSERVER = 1_000_000;
+    private static final    Map<MetricOperation, Histogram>      HISTOGRAMS            = createHistograms();
+    private static final    Map<Object, Histogram>               OBSERVER_HISTOGRAMS   = Collections.synchronizedMap(new WeakHashMap<>());
+    private static volatile boolean                              enabled               = Boolean.getBoolean(ENABLED_PROPERTY);
+    private static volatile long                                 slowObserverNanos     = DEFAULT_SLOW_OBSERVER;
+    private static volatile long                                 sinceNanos            = System.nanoTime();
+
+
+    // ******************** Constructors **************************************
+    private GradientMetrics() {}
+
+
+    // ******************** Methods *******************************************
+    public static boolean isEnabled() { return enabled; }
+    /**
+     * Enables or disables the metrics, enabling resets all values.
+     */
+    public static void setEnabled(final boolean ENABLED) {
+        if (ENABLED && !enabled) {
+            // Probe the allocation counter and Flight Recorder now instead of in the first measured call
+            isAllocationSupported();
+            isFlightRecorderAvailable();
+            reset();
+        }
+        enabled = ENABLED;
+    }
+
+    public static boolean isFlightRecorderAvailable() { return null != FlightRecorder.EVENTS; }
+
+    public static boolean isAllocationSupported() { return Allocation.SUPPORTED; }
+
+    public static long getSlowObserverNanos() { return slowObserverNanos; }
+    public static void setSlowObserverNanos(final long NANOS) { slowObserverNanos = NANOS; }
+
+    /**
+     * Returns the bytes allocated by the current thread so far or -1 if not supported.
+     */
+    public static long getAllocatedBytes() {
+        return Allocation.SUPPORTED ? ((com.sun.management.ThreadMXBean) Allocation.THREADS).getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    /**
+     * Records a call of OPERATION that started at START_NANOS (System.nanoTime()), START_BYTES is the
+     * result of getAllocatedBytes() at the start (or -1) and SIZE the number of stops, observers or entries.
+     */
+    public static void record(final MetricOperation OPERATION, final long START_NANOS, final long START_BYTES, final int SIZE) {
+        final long NANOS = System.nanoTime() - START_NANOS;
+        final long BYTES = START_BYTES < 0 ? -1 : getAllocatedBytes() - START_BYTES;
+        HISTOGRAMS.get(OPERATION).add(NANOS, BYTES);
+        if (OPERATION.isRebuild() && null != FlightRecorder.EVENTS) { FlightRecorder.EVENTS.rebuild(OPERATION.name(), SIZE, NANOS, BYTES); }
+    }
+
+    /**
+     * Adds COUNT calls of OPERATION without timing them.
+     */
+    public static void count(final MetricOperation OPERATION, final long COUNT) { HISTOGRAMS.get(OPERATION).count.add(COUNT); }
+
+    /**
+     * Records the dispatch of an event of the given type to OBSERVER that started at START_NANOS.
+     */
+    public static void recordObserver(final Object OBSERVER, final String EVENT_TYPE, final long START_NANOS) {
+        final long NANOS = System.nanoTime() - START_NANOS;
+        OBSERVER_HISTOGRAMS.computeIfAbsent(OBSERVER, observer -> new Histogram()).add(NANOS, -1);
+        if (NANOS >= slowObserverNanos && null != FlightRecorder.EVENTS) { FlightRecorder.EVENTS.slowObserver(OBSERVER.getClass().getName(), EVENT_TYPE, NANOS); }
+    }
+
+    /**
+     * Drops the values of the given observer, called when the observer is removed.
+     */
+    public static void removeObserver(final Object OBSERVER) { OBSERVER_HISTOGRAMS.remove(OBSERVER); }
+
+    public static Histogram getHistogram(final MetricOperation OPERATION) { return HISTOGRAMS.get(OPERATION); }
+
+    /**
+     * Returns a snapshot of the dispatch times per observer.
+     */
+    public static Map<Object, Histogram> getObserverHistograms() {
+        synchronized (OBSERVER_HISTOGRAMS) { return new HashMap<>(OBSERVER_HISTOGRAMS); }
+    }
+
+    /**
+     * Returns the calls of OPERATION per second since metrics have been enabled or reset.
+     */
+    public static double getRatePerSecond(final MetricOperation OPERATION) {
+        final long NANOS = System.nanoTime() - sinceNanos;
+        return NANOS <= 0 ? 0 : HISTOGRAMS.get(OPERATION).getCount() * 1e9 / NANOS;
+    }
+
+    public static void reset() {
+        HISTOGRAMS.values().forEach(Histogram::reset);
+        OBSERVER_HISTOGRAMS.clear();
+        sinceNanos = System.nanoTime();
+    }
+
+    private static Map<MetricOperation, Histogram> createHistograms() {
+        Map<MetricOperation, Histogram> histograms = new EnumMap<>(MetricOperation.class);
+        for (MetricOperation operation : MetricOperation.values()) { histograms.put(operation, new Histogram()); }
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    // ******************** Inner Classes *************************************
+    /**
+     * Receiver of the Flight Recorder events, implemented by JfrEvents which is compiled separately
+     * because jdk.jfr is not part of the Java 8 API.
+     */
+    interface EventSink {
+        void rebuild(final String OPERATION, final int SIZE, final long NANOS, final long BYTES);
+
+        void slowObserver(final String OBSERVER, final String EVENT_TYPE, final long NANOS);
+    }
+
+    // Loaded on first use only, so the management classes are not loaded while metrics are disabled
+    private static final class Allocation {
+        private static final ThreadMXBean THREADS   = ManagementFactory.getThreadMXBean();
+        private static final boolean      SUPPORTED = checkSupport();
+
+        private static boolean checkSupport() {
+            try {
+                if (!(THREADS instanceof com.sun.management.ThreadMXBean)) { return false; }
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+                return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+            } catch (LinkageError e) {
+                return false;
+            }
+        }
+    }
+
+    // EVENTS is null if jdk.jfr or the JfrEvents class is missing at runtime
+    private static final class FlightRecorder {
+        private static final EventSink EVENTS = loadEvents();
+
+        private static EventSink loadEvents() {
+            try {
+                return (EventSink) Class.forName("eu.hansolo.fx.gradientpicker.tool.JfrEvents", true, GradientMetrics.class.getClassLoader())
+                                        .getDeclaredConstructor()
+                                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Call counter and latency histogram of one operation or observer. Bucket i counts the
+     * calls that took less than 2^i nanoseconds (and at least 2^(i-1)).
+     * getCount() includes the calls added by GradientMetrics.count() which are not timed, the
+     * latency values only cover the getTimedCount() timed calls. If no call has been timed
+     * getMeanNanos() returns NaN and getPercentileNanos() returns -1.
+     */
+    public static final class Histogram {
+        public  static final int             BUCKETS = 64;
+        private        final LongAdder       count;
+        private        final LongAdder       timed;
+        private        final LongAdder       totalNanos;
+        private        final LongAdder       allocatedBytes;
+        private        final AtomicLong      maxNanos;
+        private        final AtomicLongArray buckets;
+
+
+        // ******************** Constructors **************************************
+        Histogram() {
+            count          = new LongAdder();
+            timed          = new LongAdder();
+            totalNanos     = new LongAdder();
+            allocatedBytes = new LongAdder();
+            maxNanos       = new AtomicLong();
+            buckets        = new AtomicLongArray(BUCKETS);
+        }
+
+
+        // ******************** Methods *******************************************
+        public long getCount() { return count.sum(); }
+
+        public long getTimedCount() { return timed.sum(); }
+
+        public long getTotalNanos() { return totalNanos.sum(); }
+
+        public double getMeanNanos() {
+            final long TIMED = timed.sum();
+            return TIMED == 0 ? Double.NaN : totalNanos.sum() / (double) TIMED;
+        }
+
+        public long getMaxNanos() { return maxNanos.get(); }
+
+        /**
+         * Returns the upper bound of the bucket that contains the given percentile (0 - 100) of the timed calls.
+         */
+        public long getPercentileNanos(final double PERCENTILE) {
+            final long TIMED = timed.sum();
+            if (TIMED == 0) { return -1; }
+            final long RANK = (long) Math.ceil(Helper.clamp(0, 100, PERCENTILE) / 100.0 * TIMED);
+            long sum = 0;
+            for (int i = 0 ; i < BUCKETS ; i++) {
+                sum += buckets.get(i);
+                if (sum >= RANK && sum > 0) { return i == BUCKETS - 1 ? Long.MAX_VALUE : 1L << i; }
+            }
+            return maxNanos.get();
+        }
+
+        public long getBucket(final int INDEX) { return buckets.get(INDEX); }
+
+        /**
+         * Returns the bytes allocated by all recorded calls (on the calling threads).
+         */
+        public long getAllocatedBytes() { return allocatedBytes.sum(); }
+
+        @Override public String toString() {
+            if (timed.sum() == 0) { return String.format("count=%d, not timed", getCount()); }
+            return String.format("count=%d, mean=%.0fns, p50<%dns, p99<%dns, max=%dns, allocated=%dB",
+                                 getCount(), getMeanNanos(), getPercentileNanos(50), getPercentileNanos(99), getMaxNanos(), getAllocatedBytes());
+        }
+
+        void add(final long NANOS, final long BYTES) {
+            count.increment();
+            timed.increment();
+            totalNanos.add(NANOS);
+            if (BYTES > 0) { allocatedBytes.add(BYTES); }
+            buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, NANOS))));
+            long max = maxNanos.get();
+            while (NANOS > max && !maxNanos.compareAndSet(max, NANOS)) { max = maxNanos.get(); }
+        }
+
+        void reset() {
+            count.reset();
+            timed.reset();
+            totalNanos.reset();
+            allocatedBytes.reset();
+            maxNanos.set(0);
+            for (int i = 0 ; i < BUCKETS ; i++) { buckets.set(i, 0); }
+        }
+    }
+}
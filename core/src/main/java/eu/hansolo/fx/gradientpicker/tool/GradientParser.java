@@ -0,0 +1,749 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+
+/**
+ * Single pass parser for gradient definitions, it reads
+ * - CSS color stops as created by getStopsAsString(true), e.g. "rgba(255, 0, 0, 1.000) 0.0%, ..."
+ * - CSS and JavaFX CSS linear-gradient(...) with rgb(), rgba(), hex and named colors, rgb() and rgba()
+ *   take the comma syntax "rgba(255, 0, 0, 0.5)" and the space syntax "rgb(255 0 0 / 50%)",
+ *   channels and alpha can be given as numbers or percentages
+ * - JavaFX code as created by getStopsAsString(false), e.g. "new Stop(0.000, Color.rgb(255, 0, 0, 1.00)), ..."
+ *   optionally wrapped in new LinearGradient(...), colors can be given with Color.rgb(), Color.color(),
+ *   Color.web() or as constants like Color.RED
+ * - SVG linearGradient elements with stop elements that define offset, stop-color and stop-opacity attributes
+ * - JSON as written by GradientExporter, e.g. {"stops":[{"offset":0.0,"color":"#ff0000ff"}, ...]}
+ * Numbers are read straight from the text, only named colors create a substring.
+ * Errors are reported as ParseException with the offset of the offending character.
+ * CSS stops without a position are distributed evenly like in a browser.
+ */
+public class GradientParser {
+    private static final String       LINEAR_GRADIENT     = "linear-gradient(";
+    private static final String       NEW_LINEAR_GRADIENT = "new LinearGradient(";
+    private static final String       NEW_STOP            = "new Stop(";
+    private static final String       COMMENT             = "//";
+    private static final String       SVG_GRADIENT        = "<linearGradient";
+    private static final String       SVG_GRADIENT_END    = "</linearGradient";
+    private static final String       SVG_STOP            = "<stop";
+    private static final long         MAX_EXACT_MANTISSA  = 1L << 53;
+    private static final double[]     POWERS_OF_TEN       = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+                                                              1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+    private        final CharSequence text;
+    private        final int          end;
+    private              int          pos;
+    private              double[]     offsets;
+    private              double[]     channels;
+    private              int          size;
+
+
+    // ******************** Constructors **************************************
+    private GradientParser(final CharSequence TEXT, final int START, final int END) {
+        text     = TEXT;
+        end      = END;
+        pos      = START;
+        offsets  = new double[8];
+        channels = new double[32];
+    }
+
+
+    // ******************** Methods *******************************************
+    public static GradientSpec parse(final CharSequence TEXT) throws ParseException { return parse(TEXT, 0, TEXT.length()); }
+    public static GradientSpec parse(final CharSequence TEXT, final int START, final int END) throws ParseException {
+        return new GradientParser(TEXT, START, END).parseGradient();
+    }
+
+    /**
+     * Parses one gradient per line in parallel, blank lines and lines starting with // are skipped.
+     * A line can start with a name followed by '=', e.g. "sunset = linear-gradient(...)".
+     * Failures don't stop the import, they are reported in the result of their line.
+     */
+    public static List<Result> parseLines(final List<String> LINES) {
+        return IntStream.range(0, LINES.size())
+                        .parallel()
+                        .mapToObj(index -> parseLine(index + 1, LINES.get(index)))
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList());
+    }
+
+    public static List<Result> parseFile(final Path PATH) throws IOException {
+        return parseLines(Files.readAllLines(PATH, StandardCharsets.UTF_8));
+    }
+
+    private static Result parseLine(final int LINE, final String TEXT) {
+        int start = skipWhitespace(TEXT, 0, TEXT.length());
+        if (start == TEXT.length() || TEXT.startsWith(COMMENT, start)) { return null; }
+
+        String name    = null;
+        int    nameEnd = start;
+        while (nameEnd < TEXT.length() && isNameChar(TEXT.charAt(nameEnd))) { nameEnd++; }
+        final int EQUALS = skipWhitespace(TEXT, nameEnd, TEXT.length());
+        if (nameEnd > start && EQUALS < TEXT.length() && TEXT.charAt(EQUALS) == '=') {
+            name  = TEXT.substring(start, nameEnd);
+            start = EQUALS + 1;
+        }
+        try {
+            return new Result(LINE, name, parse(TEXT, start, TEXT.length()), null);
+        } catch (ParseException e) {
+            return new Result(LINE, name, null, e);
+        }
+    }
+
+    private GradientSpec parseGradient() throws ParseException {
+        skipWhitespace();
+        if (startsWith(LINEAR_GRADIENT)) {
+            pos += LINEAR_GRADIENT.length();
+            skipWhitespace();
+            if (!isColorStart()) {
+                skipArgument();
+                expect(',');
+                skipWhitespace();
+            }
+            // JavaFX cycle method
+            if (startsWith("repeat") || startsWith("reflect")) {
+                skipArgument();
+                expect(',');
+            }
+            parseCssStops(')');
+            expect(')');
+        } else if (startsWith(NEW_LINEAR_GRADIENT)) {
+            pos += NEW_LINEAR_GRADIENT.length();
+            skipWhitespace();
+            while (!startsWith(NEW_STOP)) {
+                skipArgument();
+                expect(',');
+                skipWhitespace();
+            }
+            parseJavaStops(')');
+            expect(')');
+            skipWhitespace();
+            if (pos < end && text.charAt(pos) == ';') { pos++; }
+        } else if (startsWith(NEW_STOP)) {
+            parseJavaStops('\0');
+        } else if (startsWith(SVG_GRADIENT)) {
+            parseSvgGradient();
+        } else if (pos < end && text.charAt(pos) == '{') {
+            parseJson();
+        } else {
+            parseCssStops('\0');
+        }
+        skipWhitespace();
+        if (pos < end) { throw error("Unexpected '" + text.charAt(pos) + "'"); }
+        if (size == 0) { throw error("No stops found"); }
+
+        final double[] OFFSETS  = new double[size];
+        final double[] CHANNELS = new double[size * 4];
+        System.arraycopy(offsets, 0, OFFSETS, 0, size);
+        System.arraycopy(channels, 0, CHANNELS, 0, size * 4);
+        return new GradientSpec(OFFSETS, CHANNELS);
+    }
+
+    // Stops are separated by ',', the list ends at TERMINATOR or the end of the text
+    private void parseCssStops(final char TERMINATOR) throws ParseException {
+        while (true) {
+            skipWhitespace();
+            parseCssColor();
+            skipWhitespace();
+            double offset = Double.NaN;
+            if (pos < end && isNumberStart(text.charAt(pos))) {
+                final int START = pos;
+                offset = parseNumber();
+                expect('%');
+                if (offset < 0 || offset > 100) { throw new ParseException("Stop position must be between 0% and 100%", START); }
+                offset /= 100.0;
+            }
+            offsets[size - 1] = offset;
+            skipWhitespace();
+            if (pos < end && text.charAt(pos) == ',') {
+                pos++;
+                continue;
+            }
+            if (pos == end || text.charAt(pos) == TERMINATOR) { break; }
+            throw error("Expected ','");
+        }
+        distributeMissingOffsets();
+    }
+
+    private void parseJavaStops(final char TERMINATOR) throws ParseException {
+        while (true) {
+            skipWhitespace();
+            if (!startsWith(NEW_STOP)) { throw error("Expected 'new Stop('"); }
+            pos += NEW_STOP.length();
+            skipWhitespace();
+            final int    START  = pos;
+            final double OFFSET = parseNumber();
+            if (OFFSET < 0 || OFFSET > 1) { throw new ParseException("Stop offset must be between 0.0 and 1.0", START); }
+            expect(',');
+            skipWhitespace();
+            parseJavaColor();
+            offsets[size - 1] = OFFSET;
+            expect(')');
+            skipWhitespace();
+            if (pos < end && text.charAt(pos) == ',') {
+                pos++;
+                continue;
+            }
+            if (pos == end || text.charAt(pos) == TERMINATOR) { break; }
+            throw error("Expected ','");
+        }
+    }
+
+    // <linearGradient ...> <stop offset="0.5" stop-color="#ff0000" stop-opacity="1.0"/> ... </linearGradient>
+    private void parseSvgGradient() throws ParseException {
+        pos += SVG_GRADIENT.length();
+        skipTag();
+        double max = 0.0;
+        while (true) {
+            skipWhitespace();
+            if (startsWith(SVG_GRADIENT_END)) {
+                pos += SVG_GRADIENT_END.length();
+                expect('>');
+                return;
+            }
+            if (!startsWith(SVG_STOP)) { throw error("Expected '<stop'"); }
+            pos += SVG_STOP.length();
+            double  offset   = 0.0;
+            double  opacity  = 1.0;
+            boolean hasColor = false;
+            while (true) {
+                skipWhitespace();
+                if (startsWith("/>")) {
+                    pos += 2;
+                    break;
+                }
+                if (pos < end && text.charAt(pos) == '>') {
+                    pos++;
+                    skipWhitespace();
+                    if (startsWith("</stop>")) { pos += 7; }
+                    break;
+                }
+                final int NAME_START = pos;
+                while (pos < end && (isNameChar(text.charAt(pos)) || text.charAt(pos) == ':')) { pos++; }
+                if (pos == NAME_START) { throw error("Expected attribute"); }
+                final int NAME_END = pos;
+                expect('=');
+                skipWhitespace();
+                if (pos == end || (text.charAt(pos) != '"' && text.charAt(pos) != '\'')) { throw error("Expected '\"'"); }
+                final char QUOTE = text.charAt(pos++);
+                if (isName(NAME_START, NAME_END, "offset")) {
+                    skipWhitespace();
+                    final int OFFSET_START = pos;
+                    offset = parseNumber();
+                    if (pos < end && text.charAt(pos) == '%') {
+                        pos++;
+                        offset /= 100.0;
+                    }
+                    if (offset < 0 || offset > 1) { throw new ParseException("Stop offset must be between 0.0 and 1.0", OFFSET_START); }
+                } else if (isName(NAME_START, NAME_END, "stop-color")) {
+                    if (hasColor) { throw new ParseException("Duplicate stop-color", NAME_START); }
+                    skipWhitespace();
+                    parseCssColor();
+                    hasColor = true;
+                } else if (isName(NAME_START, NAME_END, "stop-opacity")) {
+                    opacity = parseAlpha();
+                } else {
+                    while (pos < end && text.charAt(pos) != QUOTE) { pos++; }
+                }
+                expect(QUOTE);
+            }
+            // Like in a browser a missing stop-color is black and an offset smaller than the one before is moved up to it
+            if (!hasColor) { addStop(GradientSampler.BLACK_ARGB, 1.0); }
+            max = Math.max(max, offset);
+            offsets[size - 1]           = max;
+            channels[(size - 1) * 4 + 3] *= opacity;
+        }
+    }
+
+    // {"stops":[{"offset":0.0,"color":"#ff0000ff"}, ...]}, other members are skipped
+    private void parseJson() throws ParseException {
+        expect('{');
+        skipWhitespace();
+        if (pos < end && text.charAt(pos) == '}') { throw error("No stops found"); }
+        while (true) {
+            skipWhitespace();
+            final int NAME_START = pos + 1;
+            skipJsonString();
+            final int NAME_END   = pos - 1;
+            expect(':');
+            skipWhitespace();
+            if (isName(NAME_START, NAME_END, "stops")) {
+                parseJsonStops();
+            } else {
+                skipJsonValue();
+            }
+            skipWhitespace();
+            if (pos < end && text.charAt(pos) == ',') {
+                pos++;
+                continue;
+            }
+            expect('}');
+            return;
+        }
+    }
+
+    private void parseJsonStops() throws ParseException {
+        expect('[');
+        skipWhitespace();
+        if (pos < end && text.charAt(pos) == ']') {
+            pos++;
+            return;
+        }
+        while (true) {
+            skipWhitespace();
+            final int START    = pos;
+            double    offset   = Double.NaN;
+            boolean   hasColor = false;
+            expect('{');
+            while (true) {
+                skipWhitespace();
+                final int NAME_START = pos + 1;
+                skipJsonString();
+                final int NAME_END   = pos - 1;
+                expect(':');
+                skipWhitespace();
+                if (isName(NAME_START, NAME_END, "offset")) {
+                    final int OFFSET_START = pos;
+                    offset = parseNumber();
+                    if (offset < 0 || offset > 1) { throw new ParseException("Stop offset must be between 0.0 and 1.0", OFFSET_START); }
+                } else if (isName(NAME_START, NAME_END, "color")) {
+                    if (hasColor) { throw new ParseException("Duplicate color", NAME_START); }
+                    expect('"');
+                    parseCssColor();
+                    expect('"');
+                    hasColor = true;
+                } else {
+                    skipJsonValue();
+                }
+                skipWhitespace();
+                if (pos < end && text.charAt(pos) == ',') {
+                    pos++;
+                    continue;
+                }
+                expect('}');
+                break;
+            }
+            if (!hasColor || Double.isNaN(offset)) { throw new ParseException("Stop needs an offset and a color", START); }
+            offsets[size - 1] = offset;
+            skipWhitespace();
+            if (pos < end && text.charAt(pos) == ',') {
+                pos++;
+                continue;
+            }
+            expect(']');
+            return;
+        }
+    }
+
+    private void parseCssColor() throws ParseException {
+        if (pos == end) { throw error("Expected color"); }
+        if (text.charAt(pos) == '#') {
+            final int START = pos++;
+            addStop(parseHexColor(START), 1.0);
+        } else if (startsWith("rgba(") || startsWith("rgb(")) {
+            pos += text.charAt(pos + 3) == 'a' ? 5 : 4;
+            final double RED   = parseChannel();
+            skipWhitespace();
+            // Comma syntax rgba(r, g, b, a) or space syntax rgb(r g b / a)
+            final char   SEPARATOR = pos < end && text.charAt(pos) == ',' ? ',' : '/';
+            if (SEPARATOR == ',') { pos++; }
+            final double GREEN = parseChannel();
+            if (SEPARATOR == ',') { expect(','); }
+            final double BLUE  = parseChannel();
+            skipWhitespace();
+            double opacity = 1.0;
+            if (pos < end && text.charAt(pos) == SEPARATOR) {
+                pos++;
+                opacity = parseAlpha();
+            }
+            expect(')');
+            addStop(RED, GREEN, BLUE, opacity);
+        } else {
+            final int START = pos;
+            while (pos < end && Character.isLetter(text.charAt(pos))) { pos++; }
+            addStop(parseNamedColor(START, pos), 1.0);
+        }
+    }
+
+    private void parseJavaColor() throws ParseException {
+        if (startsWith("Color.rgb(")) {
+            pos += 10;
+            final double RED   = parseUnit(255.0);
+            expect(',');
+            final double GREEN = parseUnit(255.0);
+            expect(',');
+            final double BLUE  = parseUnit(255.0);
+            addStop(RED, GREEN, BLUE, parseOptionalOpacity());
+        } else if (startsWith("Color.color(")) {
+            pos += 12;
+            final double RED   = parseUnit(1.0);
+            expect(',');
+            final double GREEN = parseUnit(1.0);
+            expect(',');
+            final double BLUE  = parseUnit(1.0);
+            addStop(RED, GREEN, BLUE, parseOptionalOpacity());
+        } else if (startsWith("Color.web(\"")) {
+            pos += 11;
+            final int START = pos;
+            while (pos < end && text.charAt(pos) != '"') { pos++; }
+            if (pos == end) { throw error("Unterminated string"); }
+            final int ARGB = parseWebColor(START, pos);
+            pos++;
+            addStop(ARGB, parseOptionalOpacity());
+        } else if (startsWith("Color.")) {
+            pos += 6;
+            final int START = pos;
+            while (pos < end && (Character.isLetter(text.charAt(pos)) || text.charAt(pos) == '_')) { pos++; }
+            addStop(parseNamedColor(START, pos), 1.0);
+        } else {
+            throw error("Expected color");
+        }
+    }
+
+    private double parseOptionalOpacity() throws ParseException {
+        skipWhitespace();
+        double opacity = 1.0;
+        if (pos < end && text.charAt(pos) == ',') {
+            pos++;
+            opacity = parseUnit(1.0);
+        }
+        expect(')');
+        return opacity;
+    }
+
+    // Reads 3, 4, 6 or 8 hex digits (#rgb, #rgba, #rrggbb, #rrggbbaa) starting at pos, START is the position reported on errors
+    private int parseHexColor(final int START) throws ParseException {
+        int value  = 0;
+        int digits = 0;
+        while (pos < end && Character.digit(text.charAt(pos), 16) >= 0) {
+            if (digits == 8) { throw new ParseException("Invalid hex color", START); }
+            value = (value << 4) | Character.digit(text.charAt(pos++), 16);
+            digits++;
+        }
+        switch(digits) {
+            case 3 : return expandNibbles(value << 4 | 0xF);
+            case 4 : return expandNibbles(value);
+            case 6 : return 0xFF000000 | value;
+            case 8 : return (value << 24) | (value >>> 8);
+            default: throw new ParseException("Invalid hex color", START);
+        }
+    }
+
+    // Color.web() accepts names, #rrggbb, 0xrrggbb and rrggbb with optional alpha
+    private int parseWebColor(final int START, final int END) throws ParseException {
+        final Integer NAMED = START < END ? NamedColors.getArgb(text.subSequence(START, END).toString()) : null;
+        if (null != NAMED) { return NAMED; }
+        final int OLD_POS = pos;
+        pos = START;
+        if (pos < END && text.charAt(pos) == '#') {
+            pos++;
+        } else if (pos + 1 < END && text.charAt(pos) == '0' && (text.charAt(pos + 1) == 'x' || text.charAt(pos + 1) == 'X')) {
+            pos += 2;
+        }
+        final int ARGB = parseHexColor(START);
+        if (pos != END) { throw new ParseException("Unknown color '" + text.subSequence(START, END) + "'", START); }
+        pos = OLD_POS;
+        return ARGB;
+    }
+
+    private int parseNamedColor(final int START, final int END) throws ParseException {
+        if (START == END) { throw new ParseException("Expected color", START); }
+        final Integer ARGB = NamedColors.getArgb(text.subSequence(START, END).toString());
+        if (null == ARGB) { throw new ParseException("Unknown color '" + text.subSequence(START, END) + "'", START); }
+        return ARGB;
+    }
+
+    // Turns the nibbles rgba of a 16 bit value into the ARGB value aarrggbb
+    private static int expandNibbles(final int RGBA) {
+        final int R = (RGBA >> 12) & 0xF;
+        final int G = (RGBA >> 8)  & 0xF;
+        final int B = (RGBA >> 4)  & 0xF;
+        final int A =  RGBA        & 0xF;
+        return (A * 0x11) << 24 | (R * 0x11) << 16 | (G * 0x11) << 8 | (B * 0x11);
+    }
+
+    // A CSS rgb channel, either 0 - 255 or a percentage
+    private double parseChannel() throws ParseException {
+        skipWhitespace();
+        final int    START = pos;
+        final double VALUE = parseNumber();
+        if (pos < end && text.charAt(pos) == '%') {
+            pos++;
+            if (VALUE < 0 || VALUE > 100) { throw new ParseException("Value must be between 0% and 100%", START); }
+            return VALUE / 100.0;
+        }
+        if (VALUE < 0 || VALUE > 255) { throw new ParseException("Value must be between 0 and 255", START); }
+        return VALUE / 255.0;
+    }
+
+    // A CSS alpha value, either 0.0 - 1.0 or a percentage
+    private double parseAlpha() throws ParseException {
+        skipWhitespace();
+        final int    START = pos;
+        final double VALUE = parseNumber();
+        if (pos < end && text.charAt(pos) == '%') {
+            pos++;
+            if (VALUE < 0 || VALUE > 100) { throw new ParseException("Value must be between 0% and 100%", START); }
+            return VALUE / 100.0;
+        }
+        if (VALUE < 0 || VALUE > 1) { throw new ParseException("Value must be between 0 and 1.0", START); }
+        return VALUE;
+    }
+
+    // A number between 0 and MAX, returned normalized to 0.0 - 1.0
+    private double parseUnit(final double MAX) throws ParseException {
+        skipWhitespace();
+        final int    START = pos;
+        final double VALUE = parseNumber();
+        if (VALUE < 0 || VALUE > MAX) { throw new ParseException("Value must be between 0 and " + (MAX == 1.0 ? "1.0" : Integer.toString((int) MAX)), START); }
+        return VALUE / MAX;
+    }
+
+    private double parseNumber() throws ParseException {
+        final int START    = pos;
+        boolean   negative = false;
+        if (pos < end && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) { negative = text.charAt(pos++) == '-'; }
+        long      mantissa = 0;
+        int       exponent = 0;
+        int       digits   = 0;
+        boolean   fraction = false;
+        while (pos < end) {
+            final char C = text.charAt(pos);
+            if (C >= '0' && C <= '9') {
+                if (mantissa < 100_000_000_000_000_000L) {
+                    mantissa = mantissa * 10 + (C - '0');
+                    if (fraction) { exponent--; }
+                } else if (!fraction) {
+                    exponent++;
+                }
+                digits++;
+            } else if (C == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+            pos++;
+        }
+        if (digits == 0) { throw new ParseException("Expected number", START); }
+        if (pos < end && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < end && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) { negativeExponent = text.charAt(pos++) == '-'; }
+            final int EXPONENT_START = pos;
+            int value = 0;
+            while (pos < end && text.charAt(pos) >= '0' && text.charAt(pos) <= '9' && value < 1000) { value = value * 10 + (text.charAt(pos++) - '0'); }
+            if (pos == EXPONENT_START) { throw new ParseException("Expected exponent", EXPONENT_START); }
+            exponent += negativeExponent ? -value : value;
+        }
+        final int NUMBER_END = pos;
+        // Java literal suffixes
+        if (pos < end && "fFdD".indexOf(text.charAt(pos)) >= 0) { pos++; }
+
+        // Mantissa and power of ten are both exact doubles, so one multiplication or division rounds correctly
+        if (mantissa > MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+            try {
+                return Double.parseDouble(text.subSequence(START, NUMBER_END).toString());
+            } catch (NumberFormatException e) {
+                throw new ParseException("Invalid number", START);
+            }
+        }
+        final double VALUE = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -VALUE : VALUE;
+    }
+
+    // Skips a function argument incl. nested parentheses up to the next ',' on the same level
+    private void skipArgument() throws ParseException {
+        final int START = pos;
+        int depth = 0;
+        while (pos < end) {
+            final char C = text.charAt(pos);
+            if (C == '(') {
+                depth++;
+            } else if (C == ')') {
+                if (depth == 0) { break; }
+                depth--;
+            } else if (C == ',' && depth == 0) {
+                break;
+            }
+            pos++;
+        }
+        if (pos == START) { throw error("Expected argument"); }
+    }
+
+    // Skips the rest of a tag up to and including '>'
+    private void skipTag() throws ParseException {
+        while (pos < end && text.charAt(pos) != '>') { pos++; }
+        expect('>');
+    }
+
+    private void skipJsonString() throws ParseException {
+        expect('"');
+        while (pos < end && text.charAt(pos) != '"') { pos += text.charAt(pos) == '\\' ? 2 : 1; }
+        if (pos >= end) { throw new ParseException("Unterminated string", Math.min(pos, end)); }
+        pos++;
+    }
+
+    // Skips a JSON value incl. nested objects and arrays
+    private void skipJsonValue() throws ParseException {
+        final int START = pos;
+        int depth = 0;
+        while (pos < end) {
+            final char C = text.charAt(pos);
+            if (C == '"') {
+                skipJsonString();
+                continue;
+            }
+            if (C == '{' || C == '[') {
+                depth++;
+            } else if (C == '}' || C == ']') {
+                if (depth == 0) { break; }
+                depth--;
+            } else if (C == ',' && depth == 0) {
+                break;
+            }
+            pos++;
+        }
+        if (pos == START) { throw error("Expected value"); }
+    }
+
+    private boolean isName(final int START, final int END, final String NAME) {
+        if (END - START != NAME.length()) { return false; }
+        for (int i = 0 ; i < NAME.length() ; i++) {
+            if (text.charAt(START + i) != NAME.charAt(i)) { return false; }
+        }
+        return true;
+    }
+
+    private void distributeMissingOffsets() {
+        if (Double.isNaN(offsets[0]))        { offsets[0] = 0.0; }
+        if (Double.isNaN(offsets[size - 1])) { offsets[size - 1] = 1.0; }
+        double max = 0.0;
+        for (int i = 0 ; i < size ; i++) {
+            if (Double.isNaN(offsets[i])) {
+                int next = i + 1;
+                while (Double.isNaN(offsets[next])) { next++; }
+                final double STEP = (Math.max(max, offsets[next]) - max) / (next - i + 1);
+                for (int j = i ; j < next ; j++) { offsets[j] = max + STEP * (j - i + 1); }
+                i = next - 1;
+                continue;
+            }
+            // Like in CSS a position smaller than the one before is moved up to it
+            max        = Math.max(max, offsets[i]);
+            offsets[i] = max;
+        }
+    }
+
+    private void addStop(final int ARGB, final double OPACITY) {
+        addStop(((ARGB >> 16) & 0xFF) / 255.0, ((ARGB >> 8) & 0xFF) / 255.0, (ARGB & 0xFF) / 255.0, ((ARGB >>> 24) / 255.0) * OPACITY);
+    }
+    private void addStop(final double RED, final double GREEN, final double BLUE, final double OPACITY) {
+        if (size == offsets.length) {
+            offsets  = Arrays.copyOf(offsets, size * 2);
+            channels = Arrays.copyOf(channels, size * 8);
+        }
+        channels[size * 4]     = RED;
+        channels[size * 4 + 1] = GREEN;
+        channels[size * 4 + 2] = BLUE;
+        channels[size * 4 + 3] = OPACITY;
+        size++;
+    }
+
+    private boolean isColorStart() {
+        return pos < end && (text.charAt(pos) == '#' || startsWith("rgb") || !(startsWith("to ") || startsWith("from ") || isNumberStart(text.charAt(pos))));
+    }
+
+    private static boolean isNumberStart(final char C) { return (C >= '0' && C <= '9') || C == '.' || C == '-' || C == '+'; }
+
+    private static boolean isNameChar(final char C) { return Character.isLetterOrDigit(C) || C == '_' || C == '-' || C == '.'; }
+
+    private boolean startsWith(final String PREFIX) {
+        final int LENGTH = PREFIX.length();
+        if (pos + LENGTH > end) { return false; }
+        for (int i = 0 ; i < LENGTH ; i++) {
+            if (text.charAt(pos + i) != PREFIX.charAt(i)) { return false; }
+        }
+        return true;
+    }
+
+    private void expect(final char C) throws ParseException {
+        skipWhitespace();
+        if (pos == end || text.charAt(pos) != C) { throw error("Expected '" + C + "'"); }
+        pos++;
+    }
+
+    private void skipWhitespace() { pos = skipWhitespace(text, pos, end); }
+    private static int skipWhitespace(final CharSequence TEXT, final int START, final int END) {
+        int index = START;
+        while (index < END && Character.isWhitespace(TEXT.charAt(index))) { index++; }
+        return index;
+    }
+
+    private ParseException error(final String MESSAGE) {
+        return new ParseException(pos < end ? MESSAGE : MESSAGE + " but reached the end", pos);
+    }
+
+
+    // ******************** Inner Classes *************************************
+    public static class Result {
+        private final int            line;
+        private final String         name;
+        private final GradientSpec   spec;
+        private final ParseException error;
+
+
+        Result(final int LINE, final String NAME, final GradientSpec SPEC, final ParseException ERROR) {
+            line  = LINE;
+            name  = NAME;
+            spec  = SPEC;
+            error = ERROR;
+        }
+
+
+        /**
+         * Returns the number of the line in the input, starting at 1.
+         */
+        public int getLine() { return line; }
+
+        /**
+         * Returns the name in front of the '=' or null if the line has no name.
+         */
+        public String getName() { return name; }
+
+        public GradientSpec getSpec() { return spec; }
+
+        /**
+         * Returns the error of a failed line, its error offset is the column in the line (starting at 0).
+         */
+        public ParseException getError() { return error; }
+
+        public boolean isValid() { return null == error; }
+
+        @Override public String toString() {
+            return isValid() ? line + ": " + spec : line + ":" + error.getErrorOffset() + ": " + error.getMessage();
+        }
+    }
+}
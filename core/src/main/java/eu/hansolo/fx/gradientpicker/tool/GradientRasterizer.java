@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+/**
+ * Renders a gradient shape into caller provided packed ARGB buffers. The position of
+ * every pixel is computed at its center (x + 0.5, y + 0.5) from the absolute pixel
+ * coordinates only, so rendering a region in tiles, in parallel or in several calls
+ * produces exactly the same pixels as rendering it at once.
+ * Images with more than PARALLEL_THRESHOLD pixels are split into tiles of at most
+ * TILE_SIZE x TILE_SIZE pixels across the common fork/join pool.
+ * The lookup must not be modified while rendering, enabling its lookup table
+ * (ArgbLookup.setLutResolution()) turns the per pixel color interpolation into an array read.
+ * The dither mode of the lookup is applied per pixel, the thresholds are taken from the
+ * absolute pixel coordinates so dithered output is tiling independent as well.
+ */
+public abstract class GradientRasterizer {
+    public  static final int  TILE_SIZE          = 64;
+    public  static final int  PARALLEL_THRESHOLD = 65_536;
+    private final ArgbLookup  lookup;
+    private final CycleMode   cycleMode;
+
+
+    // ******************** Constructors **************************************
+    protected GradientRasterizer(final ArgbLookup LOOKUP, final CycleMode CYCLE_MODE) {
+        if (null == LOOKUP) { throw new IllegalArgumentException("Lookup cannot be null"); }
+        lookup    = LOOKUP;
+        cycleMode = null == CYCLE_MODE ? CycleMode.NO_CYCLE : CYCLE_MODE;
+    }
+
+
+    // ******************** Methods *******************************************
+    public ArgbLookup getLookup() { return lookup; }
+
+    public CycleMode getCycleMode() { return cycleMode; }
+
+    /**
+     * Renders the area 0, 0 - WIDTH, HEIGHT into ARGB with a scanline stride of WIDTH.
+     */
+    public void render(final int[] ARGB, final int WIDTH, final int HEIGHT) {
+        render(ARGB, 0, WIDTH, 0, 0, WIDTH, HEIGHT);
+    }
+    /**
+     * Renders the area X, Y - X + WIDTH, Y + HEIGHT of the gradient into ARGB. The pixel
+     * X, Y is written to ARGB[OFFSET], rows are SCANLINE_STRIDE elements apart.
+     */
+    public void render(final int[] ARGB, final int OFFSET, final int SCANLINE_STRIDE, final int X, final int Y, final int WIDTH, final int HEIGHT) {
+        if (WIDTH < 0 || HEIGHT < 0) { throw new IllegalArgumentException("Width and height cannot be negative"); }
+        if (WIDTH == 0 || HEIGHT == 0) { return; }
+        if (SCANLINE_STRIDE < WIDTH) { throw new IllegalArgumentException("Scanline stride must be at least the width"); }
+        if (OFFSET < 0 || OFFSET + (long) (HEIGHT - 1) * SCANLINE_STRIDE + WIDTH > ARGB.length) { throw new IndexOutOfBoundsException("Output range out of bounds"); }
+        new RasterTask(this, ARGB, OFFSET - X - (long) Y * SCANLINE_STRIDE, SCANLINE_STRIDE, X, Y, WIDTH, HEIGHT).execute();
+    }
+
+    /**
+     * Writes the LENGTH pixels of row Y starting at column X to ARGB[INDEX]. Implementations
+     * must not allocate and must derive the position of a pixel from its coordinates only.
+     */
+    protected abstract void fillSpan(final int[] ARGB, final int INDEX, final int X, final int Y, final int LENGTH);
+
+    /**
+     * Returns the color at the given position for the pixel X, Y, dithered if the lookup has a dither mode.
+     */
+    protected final int getArgbAt(final double POSITION, final int X, final int Y) { return lookup.getArgbAt(cycleMode.apply(POSITION), X, Y); }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+/**
+ * Immutable, compiled form of a gradient.
+ * The stop offsets and the red, green, blue and opacity channels are kept in
+ * parallel primitive arrays so that sampling only needs a binary search and
+ * never allocates. Offsets must be sorted, unique and span 0.0 to 1.0.
+ * For interpolation modes other than RGB the stop colors are converted into the
+ * target color space once on construction, sampling then only converts back.
+ */
+public class GradientSampler {
+    public  static final int               BLACK_ARGB = 0xFF000000;
+    private static final int               CHANNELS   = 4;
+    private static final double            ACHROMATIC = 1e-6;
+    private        final double[]          offsets;
+    private        final double[]          channels;
+    private        final int               size;
+    private        final InterpolationMode mode;
+    private        final double[]          space;
+    private        final double[]          hues;
+
+
+    // ******************** Constructors **************************************
+    /**
+     * @param OFFSETS  sorted, unique stop offsets starting at 0.0 and ending at 1.0
+     * @param CHANNELS red, green, blue and opacity of each stop (4 values per stop)
+     */
+    public GradientSampler(final double[] OFFSETS, final double[] CHANNELS) {
+        this(OFFSETS, CHANNELS, InterpolationMode.RGB);
+    }
+    public GradientSampler(final double[] OFFSETS, final double[] CHANNELS, final InterpolationMode MODE) {
+        if (CHANNELS.length != OFFSETS.length * GradientSampler.CHANNELS) { throw new IllegalArgumentException("Channels must contain 4 values per offset"); }
+        offsets  = OFFSETS;
+        channels = CHANNELS;
+        size     = OFFSETS.length;
+        mode     = MODE;
+        if (InterpolationMode.RGB == MODE) {
+            space = null;
+            hues  = null;
+        } else {
+            space = new double[size * 3];
+            for (int i = 0 ; i < size ; i++) { ColorSpaces.fromSrgb(MODE, getRed(i), getGreen(i), getBlue(i), space, i * 3); }
+            hues = InterpolationMode.OKLCH == MODE ? createSegmentHues() : null;
+        }
+    }
+
+
+    // ******************** Methods *******************************************
+    public int getSize() { return size; }
+
+    public InterpolationMode getInterpolationMode() { return mode; }
+
+    public boolean isEmpty() { return 0 == size; }
+
+    public double getOffset(final int INDEX) { return offsets[INDEX]; }
+
+    public double getRed(final int INDEX) { return channels[INDEX * CHANNELS]; }
+    public double getGreen(final int INDEX) { return channels[INDEX * CHANNELS + 1]; }
+    public double getBlue(final int INDEX) { return channels[INDEX * CHANNELS + 2]; }
+    public double getOpacity(final int INDEX) { return channels[INDEX * CHANNELS + 3]; }
+
+    /**
+     * Returns the index of the stop that starts the segment containing the given position,
+     * i.e. the largest index i with offset[i] <= POSITION, limited to [0, size - 2].
+     */
+    public int getSegmentAt(final double POSITION) {
+        int lo = 0;
+        int hi = size - 1;
+        while (hi - lo > 1) {
+            final int MID = (lo + hi) >>> 1;
+            if (offsets[MID] <= POSITION) {
+                lo = MID;
+            } else {
+                hi = MID;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the index of the stop closest to the given position, on a tie the lower one.
+     */
+    public int getNearestIndex(final double POSITION) {
+        if (size < 2) { return size - 1; }
+        final int SEGMENT = getSegmentAt(POSITION);
+        return (POSITION - offsets[SEGMENT]) <= (offsets[SEGMENT + 1] - POSITION) ? SEGMENT : SEGMENT + 1;
+    }
+
+    /**
+     * Returns the index of the first stop with an offset >= MIN_OFFSET (size if there is none).
+     */
+    public int getFirstIndexFrom(final double MIN_OFFSET) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            final int MID = (lo + hi) >>> 1;
+            if (offsets[MID] < MIN_OFFSET) {
+                lo = MID + 1;
+            } else {
+                hi = MID;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the index of the last stop with an offset <= MAX_OFFSET (-1 if there is none).
+     */
+    public int getLastIndexTo(final double MAX_OFFSET) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            final int MID = (lo + hi) >>> 1;
+            if (offsets[MID] <= MAX_OFFSET) {
+                lo = MID + 1;
+            } else {
+                hi = MID;
+            }
+        }
+        return lo - 1;
+    }
+
+    public int getArgbAt(final double POSITION_OF_COLOR) {
+        if (size == 0) { return BLACK_ARGB; }
+        final double POSITION = Helper.clamp(0.0, 1.0, POSITION_OF_COLOR);
+        if (size == 1) { return Helper.toArgb(channels[0], channels[1], channels[2], channels[3]); }
+
+        final int    SEGMENT = getSegmentAt(POSITION);
+        final int    LOWER   = SEGMENT * CHANNELS;
+        final int    UPPER   = LOWER + CHANNELS;
+        final double POS     = (POSITION - offsets[SEGMENT]) / (offsets[SEGMENT + 1] - offsets[SEGMENT]);
+        if (null != space) { return ColorSpaces.wideToArgb(sampleWide(SEGMENT, POS)); }
+        return Helper.toArgb(channels[LOWER]     + (channels[UPPER]     - channels[LOWER])     * POS,
+                             channels[LOWER + 1] + (channels[UPPER + 1] - channels[LOWER + 1]) * POS,
+                             channels[LOWER + 2] + (channels[UPPER + 2] - channels[LOWER + 2]) * POS,
+                             channels[LOWER + 3] + (channels[UPPER + 3] - channels[LOWER + 3]) * POS);
+    }
+
+    /**
+     * Returns the color at the given position as fixed ARGB (8.8 fixed point per channel)
+     * which keeps the fraction that is needed to dither the 8 bit output.
+     */
+    public long getFixedAt(final double POSITION_OF_COLOR) {
+        if (size == 0) { return ColorSpaces.toFixed(0, 0, 0, 1); }
+        final double POSITION = Helper.clamp(0.0, 1.0, POSITION_OF_COLOR);
+        if (size == 1) { return ColorSpaces.toFixed(channels[0], channels[1], channels[2], channels[3]); }
+
+        final int    SEGMENT = getSegmentAt(POSITION);
+        final int    LOWER   = SEGMENT * CHANNELS;
+        final int    UPPER   = LOWER + CHANNELS;
+        final double POS     = (POSITION - offsets[SEGMENT]) / (offsets[SEGMENT + 1] - offsets[SEGMENT]);
+        if (null != space) { return ColorSpaces.wideToFixed(sampleWide(SEGMENT, POS)); }
+        return ColorSpaces.toFixed(channels[LOWER]     + (channels[UPPER]     - channels[LOWER])     * POS,
+                                   channels[LOWER + 1] + (channels[UPPER + 1] - channels[LOWER + 1]) * POS,
+                                   channels[LOWER + 2] + (channels[UPPER + 2] - channels[LOWER + 2]) * POS,
+                                   channels[LOWER + 3] + (channels[UPPER + 3] - channels[LOWER + 3]) * POS);
+    }
+
+    /**
+     * Writes red, green, blue and opacity (0.0 - 1.0) of the color at the given position
+     * into RGBA[OFFSET] to RGBA[OFFSET + 3].
+     */
+    public void getRgbaAt(final double POSITION_OF_COLOR, final float[] RGBA, final int OFFSET) {
+        if (size == 0) {
+            RGBA[OFFSET]     = 0f;
+            RGBA[OFFSET + 1] = 0f;
+            RGBA[OFFSET + 2] = 0f;
+            RGBA[OFFSET + 3] = 1f;
+            return;
+        }
+        final double POSITION = Helper.clamp(0.0, 1.0, POSITION_OF_COLOR);
+        if (size == 1) {
+            RGBA[OFFSET]     = (float) channels[0];
+            RGBA[OFFSET + 1] = (float) channels[1];
+            RGBA[OFFSET + 2] = (float) channels[2];
+            RGBA[OFFSET + 3] = (float) channels[3];
+            return;
+        }
+
+        final int    SEGMENT = getSegmentAt(POSITION);
+        final int    LOWER   = SEGMENT * CHANNELS;
+        final int    UPPER   = LOWER + CHANNELS;
+        final double POS     = (POSITION - offsets[SEGMENT]) / (offsets[SEGMENT + 1] - offsets[SEGMENT]);
+        if (null != space) {
+            final long WIDE = sampleWide(SEGMENT, POS);
+            RGBA[OFFSET]     = ColorSpaces.wideChannel(WIDE, 32);
+            RGBA[OFFSET + 1] = ColorSpaces.wideChannel(WIDE, 16);
+            RGBA[OFFSET + 2] = ColorSpaces.wideChannel(WIDE, 0);
+            RGBA[OFFSET + 3] = ColorSpaces.wideChannel(WIDE, 48);
+            return;
+        }
+        RGBA[OFFSET]     = (float) Helper.clamp(0.0, 1.0, channels[LOWER]     + (channels[UPPER]     - channels[LOWER])     * POS);
+        RGBA[OFFSET + 1] = (float) Helper.clamp(0.0, 1.0, channels[LOWER + 1] + (channels[UPPER + 1] - channels[LOWER + 1]) * POS);
+        RGBA[OFFSET + 2] = (float) Helper.clamp(0.0, 1.0, channels[LOWER + 2] + (channels[UPPER + 2] - channels[LOWER + 2]) * POS);
+        RGBA[OFFSET + 3] = (float) Helper.clamp(0.0, 1.0, channels[LOWER + 3] + (channels[UPPER + 3] - channels[LOWER + 3]) * POS);
+    }
+
+    private long sampleWide(final int SEGMENT, final double POS) {
+        final int    LOWER   = SEGMENT * 3;
+        final int    UPPER   = LOWER + 3;
+        final double C0      = space[LOWER]     + (space[UPPER]     - space[LOWER])     * POS;
+        final double C1      = space[LOWER + 1] + (space[UPPER + 1] - space[LOWER + 1]) * POS;
+        final double OPACITY = channels[SEGMENT * CHANNELS + 3] + (channels[SEGMENT * CHANNELS + 7] - channels[SEGMENT * CHANNELS + 3]) * POS;
+        switch(mode) {
+            case LINEAR_RGB: return ColorSpaces.linearToWide(C0, C1, space[LOWER + 2] + (space[UPPER + 2] - space[LOWER + 2]) * POS, OPACITY);
+            case OKLAB     : return ColorSpaces.oklabToWide(C0, C1, space[LOWER + 2] + (space[UPPER + 2] - space[LOWER + 2]) * POS, OPACITY);
+            default        :
+                final double HUE = hues[SEGMENT * 2] + hues[SEGMENT * 2 + 1] * POS;
+                return ColorSpaces.oklabToWide(C0, C1 * Math.cos(HUE), C1 * Math.sin(HUE), OPACITY);
+        }
+    }
+
+    // Start hue and hue delta along the shorter arc per segment, achromatic stops take the hue of their partner
+    private double[] createSegmentHues() {
+        final double[] SEGMENT_HUES = new double[Math.max(0, size - 1) * 2];
+        for (int i = 0 ; i < size - 1 ; i++) {
+            double startHue = space[i * 3 + 2];
+            double endHue   = space[i * 3 + 5];
+            if (space[i * 3 + 1] < ACHROMATIC) {
+                startHue = endHue;
+            } else if (space[i * 3 + 4] < ACHROMATIC) {
+                endHue = startHue;
+            }
+            double delta = endHue - startHue;
+            if (delta > Math.PI) {
+                delta -= 2 * Math.PI;
+            } else if (delta < -Math.PI) {
+                delta += 2 * Math.PI;
+            }
+            SEGMENT_HUES[i * 2]     = startHue;
+            SEGMENT_HUES[i * 2 + 1] = delta;
+        }
+        return SEGMENT_HUES;
+    }
+}
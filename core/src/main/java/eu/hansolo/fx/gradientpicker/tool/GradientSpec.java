@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+
+/**
+ * Immutable snapshot of the stops of a gradient.
+ * Two specs are equal if they contain the same stops in the same order, the hash
+ * is computed once on construction so specs can be used as cheap cache keys.
+ * The exported formats are created lazily on first use and cached, conversions
+ * to JavaFX Stops and LinearGradients are part of the ui module (FxGradients).
+ */
+public final class GradientSpec {
+    public  static final GradientSpec EMPTY    = new GradientSpec(new double[0], new double[0]);
+    private static final int          CHANNELS = 4;
+    private        final double[]     offsets;
+    private        final double[]     channels;
+    private        final int          hash;
+    private        final String[]     renderings;
+
+
+    // ******************** Constructors **************************************
+    /**
+     * @param OFFSETS  offsets of the stops in the order of the gradient
+     * @param CHANNELS red, green, blue and opacity of each stop (4 values per stop)
+     */
+    public GradientSpec(final double[] OFFSETS, final double[] CHANNELS) {
+        this(OFFSETS, CHANNELS, true);
+    }
+    private GradientSpec(final double[] OFFSETS, final double[] CHANNELS, final boolean COPY) {
+        if (CHANNELS.length != OFFSETS.length * GradientSpec.CHANNELS) { throw new IllegalArgumentException("Channels must contain 4 values per offset"); }
+        offsets    = COPY ? OFFSETS.clone() : OFFSETS;
+        channels   = COPY ? CHANNELS.clone() : CHANNELS;
+        hash       = 31 * Arrays.hashCode(offsets) + Arrays.hashCode(channels);
+        renderings = new String[GradientFormat.values().length];
+    }
+
+
+    // ******************** Methods *******************************************
+    // Takes over the given arrays without copying them, they must not be modified afterwards
+    static GradientSpec wrap(final double[] OFFSETS, final double[] CHANNELS) { return new GradientSpec(OFFSETS, CHANNELS, false); }
+
+    public int getSize() { return offsets.length; }
+
+    public boolean isEmpty() { return 0 == offsets.length; }
+
+    public double getOffset(final int INDEX) { return offsets[INDEX]; }
+
+    public double getRed(final int INDEX) { return channels[INDEX * CHANNELS]; }
+    public double getGreen(final int INDEX) { return channels[INDEX * CHANNELS + 1]; }
+    public double getBlue(final int INDEX) { return channels[INDEX * CHANNELS + 2]; }
+    public double getOpacity(final int INDEX) { return channels[INDEX * CHANNELS + 3]; }
+
+    public int getArgb(final int INDEX) { return Helper.toArgb(getRed(INDEX), getGreen(INDEX), getBlue(INDEX), getOpacity(INDEX)); }
+
+    /**
+     * Returns true if the stop at INDEX equals the stop at SPEC_INDEX of the given spec.
+     */
+    public boolean isSameStop(final int INDEX, final GradientSpec SPEC, final int SPEC_INDEX) {
+        if (Double.compare(offsets[INDEX], SPEC.offsets[SPEC_INDEX]) != 0) { return false; }
+        for (int c = 0 ; c < CHANNELS ; c++) {
+            if (Double.compare(channels[INDEX * CHANNELS + c], SPEC.channels[SPEC_INDEX * CHANNELS + c]) != 0) { return false; }
+        }
+        return true;
+    }
+
+    // The arrays are shared with samplers, they must never be modified
+    double[] getOffsetArray() { return offsets; }
+    double[] getChannelArray() { return channels; }
+
+    /**
+     * Returns the stops as CSS color stops, e.g. "rgba(255, 0, 0, 1.000) 0.0%", one per line.
+     */
+    public String toCss() { return export(GradientFormat.CSS_STOPS); }
+
+    /**
+     * Returns the stops as JavaFX code, e.g. "new Stop(0.000, Color.rgb(255, 0, 0, 1.00))", one per line.
+     */
+    public String toJava() { return export(GradientFormat.JAVA_STOPS); }
+
+    /**
+     * Returns the gradient in the given format, the string is created on first use and cached.
+     */
+    public String export(final GradientFormat FORMAT) {
+        String rendering = renderings[FORMAT.ordinal()];
+        if (null == rendering) {
+            rendering = GradientExporter.toString(this, FORMAT);
+            renderings[FORMAT.ordinal()] = rendering;
+        }
+        return rendering;
+    }
+
+    /**
+     * Streams the gradient in the given format to OUT without creating an intermediate string.
+     */
+    public void export(final GradientFormat FORMAT, final Appendable OUT) throws IOException {
+        final String RENDERING = renderings[FORMAT.ordinal()];
+        if (null == RENDERING) {
+            GradientExporter.export(this, FORMAT, OUT);
+        } else {
+            OUT.append(RENDERING);
+        }
+    }
+
+    @Override public boolean equals(final Object OBJECT) {
+        if (this == OBJECT) { return true; }
+        if (!(OBJECT instanceof GradientSpec)) { return false; }
+        GradientSpec spec = (GradientSpec) OBJECT;
+        return hash == spec.hash && Arrays.equals(offsets, spec.offsets) && Arrays.equals(channels, spec.channels);
+    }
+
+    @Override public int hashCode() { return hash; }
+
+    @Override public String toString() {
+        StringBuilder builder = new StringBuilder("GradientSpec[");
+        for (int i = 0 ; i < offsets.length ; i++) {
+            if (i > 0) { builder.append(", "); }
+            final int ARGB = getArgb(i);
+            builder.append(String.format("0x%08x", (ARGB << 8) | (ARGB >>> 24))).append(' ').append(offsets[i] * 100).append('%');
+        }
+        return builder.append(']').toString();
+    }
+}
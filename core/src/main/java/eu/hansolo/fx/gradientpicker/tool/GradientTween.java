@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.util.Arrays;
+
+
+/**
+ * Interpolates between two gradients with different stops.
+ * On construction both gradients are resampled once onto a shared set of stops (the offsets of both
+ * gradients, stops at the same offset are shared), so every frame is a plain interpolation of the
+ * channels of the shared stops into a reused buffer. After construction neither setProgress() nor the
+ * sampling methods allocate.
+ */
+public final class GradientTween {
+    private static final int          CHANNELS = 4;
+    private        final GradientSpec from;
+    private        final GradientSpec to;
+    private        final int          size;
+    private        final double[]     offsets;
+    private        final double[]     fromChannels;
+    private        final double[]     deltaChannels;
+    private        final double[]     channels;
+    private              double       progress;
+
+
+    // ******************** Constructors **************************************
+    public GradientTween(final GradientSpec FROM, final GradientSpec TO) {
+        if (FROM.isEmpty() || TO.isEmpty()) { throw new IllegalArgumentException("Both gradients need at least one stop"); }
+        from = FROM;
+        to   = TO;
+
+        // Merge the sorted stops of both gradients, a stop of one gradient samples the other one at its offset
+        final int FROM_SIZE = FROM.getSize();
+        final int TO_SIZE   = TO.getSize();
+        double[]  mergedOffsets = new double[FROM_SIZE + TO_SIZE];
+        double[]  mergedFrom    = new double[(FROM_SIZE + TO_SIZE) * CHANNELS];
+        double[]  mergedTo      = new double[(FROM_SIZE + TO_SIZE) * CHANNELS];
+        int       f             = 0;
+        int       t             = 0;
+        int       count         = 0;
+        while (f < FROM_SIZE || t < TO_SIZE) {
+            final double FROM_OFFSET = f < FROM_SIZE ? FROM.getOffset(f) : Double.POSITIVE_INFINITY;
+            final double TO_OFFSET   = t < TO_SIZE ? TO.getOffset(t) : Double.POSITIVE_INFINITY;
+            final double OFFSET      = Math.min(FROM_OFFSET, TO_OFFSET);
+            mergedOffsets[count] = OFFSET;
+            if (FROM_OFFSET == OFFSET) { copyStop(FROM, f, mergedFrom, count); } else { sample(FROM, f, OFFSET, mergedFrom, count); }
+            if (TO_OFFSET == OFFSET)   { copyStop(TO, t, mergedTo, count); }     else { sample(TO, t, OFFSET, mergedTo, count); }
+            if (FROM_OFFSET == OFFSET) { f++; }
+            if (TO_OFFSET == OFFSET)   { t++; }
+            count++;
+        }
+        size          = count;
+        offsets       = Arrays.copyOf(mergedOffsets, size);
+        fromChannels  = Arrays.copyOf(mergedFrom, size * CHANNELS);
+        deltaChannels = new double[size * CHANNELS];
+        for (int i = 0 ; i < deltaChannels.length ; i++) { deltaChannels[i] = mergedTo[i] - fromChannels[i]; }
+        channels      = fromChannels.clone();
+    }
+
+
+    // ******************** Methods *******************************************
+    public GradientSpec getFrom() { return from; }
+
+    public GradientSpec getTo() { return to; }
+
+    /**
+     * Returns the number of shared stops.
+     */
+    public int getSize() { return size; }
+
+    public double getProgress() { return progress; }
+    /**
+     * Interpolates the shared stops for the given (already eased) progress, 0.0 is the start and 1.0 the end gradient.
+     */
+    public void setProgress(final double PROGRESS) {
+        progress = Helper.clamp(0.0, 1.0, PROGRESS);
+        for (int i = 0 ; i < channels.length ; i++) { channels[i] = fromChannels[i] + deltaChannels[i] * progress; }
+    }
+
+    public double getOffset(final int INDEX) { return offsets[INDEX]; }
+
+    public double getRed(final int INDEX) { return channels[INDEX * CHANNELS]; }
+    public double getGreen(final int INDEX) { return channels[INDEX * CHANNELS + 1]; }
+    public double getBlue(final int INDEX) { return channels[INDEX * CHANNELS + 2]; }
+    public double getOpacity(final int INDEX) { return channels[INDEX * CHANNELS + 3]; }
+
+    public int getArgb(final int INDEX) { return Helper.toArgb(getRed(INDEX), getGreen(INDEX), getBlue(INDEX), getOpacity(INDEX)); }
+
+    /**
+     * Returns the color of the current gradient at the given position (0.0 - 1.0).
+     */
+    public int getArgbAt(final double POSITION) {
+        int low  = 0;
+        int high = size;
+        while (low < high) {
+            final int MID = (low + high) >>> 1;
+            if (offsets[MID] <= POSITION) { low = MID + 1; } else { high = MID; }
+        }
+        return getArgbBetween(low, POSITION);
+    }
+
+    /**
+     * Samples the current gradient at LENGTH evenly spaced positions from 0.0 to 1.0 into ARGB,
+     * the stops are walked along with the positions, so this is linear in LENGTH + number of stops.
+     */
+    public void getArgb(final int[] ARGB, final int OFFSET, final int LENGTH) {
+        final double STEP  = LENGTH > 1 ? 1.0 / (LENGTH - 1) : 0.0;
+        int          upper = 0;
+        for (int i = 0 ; i < LENGTH ; i++) {
+            final double POSITION = i * STEP;
+            while (upper < size && offsets[upper] <= POSITION) { upper++; }
+            ARGB[OFFSET + i] = getArgbBetween(upper, POSITION);
+        }
+    }
+
+    /**
+     * Returns the current gradient as an immutable spec, this allocates and is meant for
+     * the end of an animation or for occasional snapshots.
+     */
+    public GradientSpec toSpec() { return GradientSpec.wrap(offsets.clone(), channels.clone()); }
+
+    // UPPER is the first stop with an offset > POSITION
+    private int getArgbBetween(final int UPPER, final double POSITION) {
+        if (0 == UPPER)    { return getArgb(0); }
+        if (size == UPPER) { return getArgb(size - 1); }
+        final int    LOWER  = UPPER - 1;
+        final double FACTOR = (POSITION - offsets[LOWER]) / (offsets[UPPER] - offsets[LOWER]);
+        final int    L      = LOWER * CHANNELS;
+        final int    U      = UPPER * CHANNELS;
+        return Helper.toArgb(channels[L]     + (channels[U]     - channels[L])     * FACTOR,
+                             channels[L + 1] + (channels[U + 1] - channels[L + 1]) * FACTOR,
+                             channels[L + 2] + (channels[U + 2] - channels[L + 2]) * FACTOR,
+                             channels[L + 3] + (channels[U + 3] - channels[L + 3]) * FACTOR);
+    }
+
+    private static void copyStop(final GradientSpec SPEC, final int INDEX, final double[] CHANNELS_OUT, final int OUT_INDEX) {
+        CHANNELS_OUT[OUT_INDEX * CHANNELS]     = SPEC.getRed(INDEX);
+        CHANNELS_OUT[OUT_INDEX * CHANNELS + 1] = SPEC.getGreen(INDEX);
+        CHANNELS_OUT[OUT_INDEX * CHANNELS + 2] = SPEC.getBlue(INDEX);
+        CHANNELS_OUT[OUT_INDEX * CHANNELS + 3] = SPEC.getOpacity(INDEX);
+    }
+
+    // Samples SPEC at OFFSET between its stops UPPER - 1 and UPPER (the first stop with a larger offset)
+    private static void sample(final GradientSpec SPEC, final int UPPER, final double OFFSET, final double[] CHANNELS_OUT, final int OUT_INDEX) {
+        if (0 == UPPER)              { copyStop(SPEC, 0, CHANNELS_OUT, OUT_INDEX); return; }
+        if (SPEC.getSize() == UPPER) { copyStop(SPEC, UPPER - 1, CHANNELS_OUT, OUT_INDEX); return; }
+        final int    LOWER  = UPPER - 1;
+        final double FACTOR = (OFFSET - SPEC.getOffset(LOWER)) / (SPEC.getOffset(UPPER) - SPEC.getOffset(LOWER));
+        final int    OUT    = OUT_INDEX * CHANNELS;
+        CHANNELS_OUT[OUT]     = SPEC.getRed(LOWER) + (SPEC.getRed(UPPER) - SPEC.getRed(LOWER)) * FACTOR;
+        CHANNELS_OUT[OUT + 1] = SPEC.getGreen(LOWER) + (SPEC.getGreen(UPPER) - SPEC.getGreen(LOWER)) * FACTOR;
+        CHANNELS_OUT[OUT + 2] = SPEC.getBlue(LOWER) + (SPEC.getBlue(UPPER) - SPEC.getBlue(LOWER)) * FACTOR;
+        CHANNELS_OUT[OUT + 3] = SPEC.getOpacity(LOWER) + (SPEC.getOpacity(UPPER) - SPEC.getOpacity(LOWER)) * FACTOR;
+    }
+}
@@ -22,4 +22,11 @@ public class Helper {
         if (VALUE > MAX) return MAX;
         return VALUE;
     }
+
+    public static final int toArgb(final double RED, final double GREEN, final double BLUE, final double OPACITY) {
+        return ((int) (clamp(0.0, 1.0, OPACITY) * 255 + 0.5) << 24) |
+               ((int) (clamp(0.0, 1.0, RED)     * 255 + 0.5) << 16) |
+               ((int) (clamp(0.0, 1.0, GREEN)   * 255 + 0.5) << 8)  |
+                (int) (clamp(0.0, 1.0, BLUE)    * 255 + 0.5);
+    }
 }
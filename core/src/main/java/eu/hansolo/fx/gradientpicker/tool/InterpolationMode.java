@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+/**
+ * Color space in which the colors between two stops are interpolated.
+ * RGB         : gamma encoded sRGB (same as JavaFX LinearGradient)
+ * LINEAR_RGB  : linear light sRGB
+ * OKLAB       : perceptual OKLab
+ * OKLCH       : polar OKLab, hue is interpolated along the shorter arc
+ */
+public enum InterpolationMode {
+    RGB, LINEAR_RGB, OKLAB, OKLCH
+}
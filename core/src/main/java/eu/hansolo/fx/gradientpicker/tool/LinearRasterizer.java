@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+/**
+ * Linear gradient along the line from START to END, position 0.0 is on the line
+ * through START and 1.0 on the line through END, both perpendicular to START - END.
+ */
+public final class LinearRasterizer extends GradientRasterizer {
+    private final double startX;
+    private final double startY;
+    private final double endX;
+    private final double endY;
+    private final double stepX;
+    private final double stepY;
+
+
+    // ******************** Constructors **************************************
+    public LinearRasterizer(final ArgbLookup LOOKUP, final CycleMode CYCLE_MODE, final double START_X, final double START_Y, final double END_X, final double END_Y) {
+        super(LOOKUP, CYCLE_MODE);
+        startX = START_X;
+        startY = START_Y;
+        endX   = END_X;
+        endY   = END_Y;
+        final double DX             = END_X - START_X;
+        final double DY             = END_Y - START_Y;
+        final double LENGTH_SQUARED = DX * DX + DY * DY;
+        stepX = LENGTH_SQUARED == 0 ? 0 : DX / LENGTH_SQUARED;
+        stepY = LENGTH_SQUARED == 0 ? 0 : DY / LENGTH_SQUARED;
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Creates a linear gradient that covers the area 0, 0 - WIDTH, HEIGHT in the direction of
+     * the given angle like a css linear-gradient(): 0 points to the top, 90 to the right.
+     * The corners of the area get the colors at 0.0 and 1.0.
+     */
+    public static LinearRasterizer fromAngle(final ArgbLookup LOOKUP, final CycleMode CYCLE_MODE, final double ANGLE, final double WIDTH, final double HEIGHT) {
+        final double RAD         = Math.toRadians(ANGLE);
+        final double DIR_X       = Math.sin(RAD);
+        final double DIR_Y       = -Math.cos(RAD);
+        final double HALF_LENGTH = (Math.abs(WIDTH * DIR_X) + Math.abs(HEIGHT * DIR_Y)) * 0.5;
+        final double CENTER_X    = WIDTH * 0.5;
+        final double CENTER_Y    = HEIGHT * 0.5;
+        return new LinearRasterizer(LOOKUP, CYCLE_MODE, CENTER_X - DIR_X * HALF_LENGTH, CENTER_Y - DIR_Y * HALF_LENGTH,
+                                                        CENTER_X + DIR_X * HALF_LENGTH, CENTER_Y + DIR_Y * HALF_LENGTH);
+    }
+
+    public double getStartX() { return startX; }
+    public double getStartY() { return startY; }
+
+    public double getEndX() { return endX; }
+    public double getEndY() { return endY; }
+
+    @Override protected void fillSpan(final int[] ARGB, final int INDEX, final int X, final int Y, final int LENGTH) {
+        final double ROW = (Y + 0.5 - startY) * stepY - startX * stepX;
+        int index = INDEX;
+        for (int x = X, end = X + LENGTH ; x < end ; x++) {
+            ARGB[index++] = getArgbAt(ROW + (x + 0.5) * stepX, x, Y);
+        }
+    }
+}
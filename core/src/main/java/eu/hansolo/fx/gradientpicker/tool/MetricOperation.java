@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+/**
+ * Operations measured by GradientMetrics.
+ * UPDATE_GRADIENT     : rebuild of the stops and the preview of a GradientPicker
+ * UPDATE_HANDLES      : repositioning of the handles of a GradientPicker
+ * FIRE_GRADIENT_EVENT : dispatch of a gradient event to all observers
+ * LOOKUP              : colors sampled from an ArgbLookup (counted, not timed)
+ * LUT_REBAKE          : (re)bake of the entries of a GradientLut
+ */
+public enum MetricOperation {
+    UPDATE_GRADIENT(true), UPDATE_HANDLES(true), FIRE_GRADIENT_EVENT(false), LOOKUP(false), LUT_REBAKE(true);
+
+    private final boolean rebuild;
+
+
+    // ******************** Constructors **************************************
+    MetricOperation(final boolean REBUILD) {
+        rebuild = REBUILD;
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns true if the operation is reported as a rebuild event to Flight Recorder.
+     */
+    public boolean isRebuild() { return rebuild; }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+
+/**
+ * The CSS color names known by JavaFX (Color.web() and the Color constants) as packed ARGB,
+ * so that names can be resolved without the JavaFX toolkit.
+ */
+final class NamedColors {
+    private static final Map<String, Integer> NAMES = new HashMap<>(256);
+    static {
+        NAMES.put("transparent", 0x00000000);
+        NAMES.put("aliceblue", 0xFFF0F8FF);
+        NAMES.put("antiquewhite", 0xFFFAEBD7);
+        NAMES.put("aqua", 0xFF00FFFF);
+        NAMES.put("aquamarine", 0xFF7FFFD4);
+        NAMES.put("azure", 0xFFF0FFFF);
+        NAMES.put("beige", 0xFFF5F5DC);
+        NAMES.put("bisque", 0xFFFFE4C4);
+        NAMES.put("black", 0xFF000000);
+        NAMES.put("blanchedalmond", 0xFFFFEBCD);
+        NAMES.put("blue", 0xFF0000FF);
+        NAMES.put("blueviolet", 0xFF8A2BE2);
+        NAMES.put("brown", 0xFFA52A2A);
+        NAMES.put("burlywood", 0xFFDEB887);
+        NAMES.put("cadetblue", 0xFF5F9EA0);
+        NAMES.put("chartreuse", 0xFF7FFF00);
+        NAMES.put("chocolate", 0xFFD2691E);
+        NAMES.put("coral", 0xFFFF7F50);
+        NAMES.put("cornflowerblue", 0xFF6495ED);
+        NAMES.put("cornsilk", 0xFFFFF8DC);
+        NAMES.put("crimson", 0xFFDC143C);
+        NAMES.put("cyan", 0xFF00FFFF);
+        NAMES.put("darkblue", 0xFF00008B);
+        NAMES.put("darkcyan", 0xFF008B8B);
+        NAMES.put("darkgoldenrod", 0xFFB8860B);
+        NAMES.put("darkgray", 0xFFA9A9A9);
+        NAMES.put("darkgreen", 0xFF006400);
+        NAMES.put("darkgrey", 0xFFA9A9A9);
+        NAMES.put("darkkhaki", 0xFFBDB76B);
+        NAMES.put("darkmagenta", 0xFF8B008B);
+        NAMES.put("darkolivegreen", 0xFF556B2F);
+        NAMES.put("darkorange", 0xFFFF8C00);
+        NAMES.put("darkorchid", 0xFF9932CC);
+        NAMES.put("darkred", 0xFF8B0000);
+        NAMES.put("darksalmon", 0xFFE9967A);
+        NAMES.put("darkseagreen", 0xFF8FBC8F);
+        NAMES.put("darkslateblue", 0xFF483D8B);
+        NAMES.put("darkslategray", 0xFF2F4F4F);
+        NAMES.put("darkslategrey", 0xFF2F4F4F);
+        NAMES.put("darkturquoise", 0xFF00CED1);
+        NAMES.put("darkviolet", 0xFF9400D3);
+        NAMES.put("deeppink", 0xFFFF1493);
+        NAMES.put("deepskyblue", 0xFF00BFFF);
+        NAMES.put("dimgray", 0xFF696969);
+        NAMES.put("dimgrey", 0xFF696969);
+        NAMES.put("dodgerblue", 0xFF1E90FF);
+        NAMES.put("firebrick", 0xFFB22222);
+        NAMES.put("floralwhite", 0xFFFFFAF0);
+        NAMES.put("forestgreen", 0xFF228B22);
+        NAMES.put("fuchsia", 0xFFFF00FF);
+        NAMES.put("gainsboro", 0xFFDCDCDC);
+        NAMES.put("ghostwhite", 0xFFF8F8FF);
+        NAMES.put("gold", 0xFFFFD700);
+        NAMES.put("goldenrod", 0xFFDAA520);
+        NAMES.put("gray", 0xFF808080);
+        NAMES.put("green", 0xFF008000);
+        NAMES.put("greenyellow", 0xFFADFF2F);
+        NAMES.put("grey", 0xFF808080);
+        NAMES.put("honeydew", 0xFFF0FFF0);
+        NAMES.put("hotpink", 0xFFFF69B4);
+        NAMES.put("indianred", 0xFFCD5C5C);
+        NAMES.put("indigo", 0xFF4B0082);
+        NAMES.put("ivory", 0xFFFFFFF0);
+        NAMES.put("khaki", 0xFFF0E68C);
+        NAMES.put("lavender", 0xFFE6E6FA);
+        NAMES.put("lavenderblush", 0xFFFFF0F5);
+        NAMES.put("lawngreen", 0xFF7CFC00);
+        NAMES.put("lemonchiffon", 0xFFFFFACD);
+        NAMES.put("lightblue", 0xFFADD8E6);
+        NAMES.put("lightcoral", 0xFFF08080);
+        NAMES.put("lightcyan", 0xFFE0FFFF);
+        NAMES.put("lightgoldenrodyellow", 0xFFFAFAD2);
+        NAMES.put("lightgray", 0xFFD3D3D3);
+        NAMES.put("lightgreen", 0xFF90EE90);
+        NAMES.put("lightgrey", 0xFFD3D3D3);
+        NAMES.put("lightpink", 0xFFFFB6C1);
+        NAMES.put("lightsalmon", 0xFFFFA07A);
+        NAMES.put("lightseagreen", 0xFF20B2AA);
+        NAMES.put("lightskyblue", 0xFF87CEFA);
+        NAMES.put("lightslategray", 0xFF778899);
+        NAMES.put("lightslategrey", 0xFF778899);
+        NAMES.put("lightsteelblue", 0xFFB0C4DE);
+        NAMES.put("lightyellow", 0xFFFFFFE0);
+        NAMES.put("lime", 0xFF00FF00);
+        NAMES.put("limegreen", 0xFF32CD32);
+        NAMES.put("linen", 0xFFFAF0E6);
+        NAMES.put("magenta", 0xFFFF00FF);
+        NAMES.put("maroon", 0xFF800000);
+        NAMES.put("mediumaquamarine", 0xFF66CDAA);
+        NAMES.put("mediumblue", 0xFF0000CD);
+        NAMES.put("mediumorchid", 0xFFBA55D3);
+        NAMES.put("mediumpurple", 0xFF9370DB);
+        NAMES.put("mediumseagreen", 0xFF3CB371);
+        NAMES.put("mediumslateblue", 0xFF7B68EE);
+        NAMES.put("mediumspringgreen", 0xFF00FA9A);
+        NAMES.put("mediumturquoise", 0xFF48D1CC);
+        NAMES.put("mediumvioletred", 0xFFC71585);
+        NAMES.put("midnightblue", 0xFF191970);
+        NAMES.put("mintcream", 0xFFF5FFFA);
+        NAMES.put("mistyrose", 0xFFFFE4E1);
+        NAMES.put("moccasin", 0xFFFFE4B5);
+        NAMES.put("navajowhite", 0xFFFFDEAD);
+        NAMES.put("navy", 0xFF000080);
+        NAMES.put("oldlace", 0xFFFDF5E6);
+        NAMES.put("olive", 0xFF808000);
+        NAMES.put("olivedrab", 0xFF6B8E23);
+        NAMES.put("orange", 0xFFFFA500);
+        NAMES.put("orangered", 0xFFFF4500);
+        NAMES.put("orchid", 0xFFDA70D6);
+        NAMES.put("palegoldenrod", 0xFFEEE8AA);
+        NAMES.put("palegreen", 0xFF98FB98);
+        NAMES.put("paleturquoise", 0xFFAFEEEE);
+        NAMES.put("palevioletred", 0xFFDB7093);
+        NAMES.put("papayawhip", 0xFFFFEFD5);
+        NAMES.put("peachpuff", 0xFFFFDAB9);
+        NAMES.put("peru", 0xFFCD853F);
+        NAMES.put("pink", 0xFFFFC0CB);
+        NAMES.put("plum", 0xFFDDA0DD);
+        NAMES.put("powderblue", 0xFFB0E0E6);
+        NAMES.put("purple", 0xFF800080);
+        NAMES.put("red", 0xFFFF0000);
+        NAMES.put("rosybrown", 0xFFBC8F8F);
+        NAMES.put("royalblue", 0xFF4169E1);
+        NAMES.put("saddlebrown", 0xFF8B4513);
+        NAMES.put("salmon", 0xFFFA8072);
+        NAMES.put("sandybrown", 0xFFF4A460);
+        NAMES.put("seagreen", 0xFF2E8B57);
+        NAMES.put("seashell", 0xFFFFF5EE);
+        NAMES.put("sienna", 0xFFA0522D);
+        NAMES.put("silver", 0xFFC0C0C0);
+        NAMES.put("skyblue", 0xFF87CEEB);
+        NAMES.put("slateblue", 0xFF6A5ACD);
+        NAMES.put("slategray", 0xFF708090);
+        NAMES.put("slategrey", 0xFF708090);
+        NAMES.put("snow", 0xFFFFFAFA);
+        NAMES.put("springgreen", 0xFF00FF7F);
+        NAMES.put("steelblue", 0xFF4682B4);
+        NAMES.put("tan", 0xFFD2B48C);
+        NAMES.put("teal", 0xFF008080);
+        NAMES.put("thistle", 0xFFD8BFD8);
+        NAMES.put("tomato", 0xFFFF6347);
+        NAMES.put("turquoise", 0xFF40E0D0);
+        NAMES.put("violet", 0xFFEE82EE);
+        NAMES.put("wheat", 0xFFF5DEB3);
+        NAMES.put("white", 0xFFFFFFFF);
+        NAMES.put("whitesmoke", 0xFFF5F5F5);
+        NAMES.put("yellow", 0xFFFFFF00);
+        NAMES.put("yellowgreen", 0xFF9ACD32);
+    }
+
+
+    // ******************** Constructors **************************************
+    private NamedColors() {}
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns the color with the given case insensitive name or null if there is none.
+     */
+    static Integer getArgb(final String NAME) { return NAMES.get(NAME.toLowerCase(Locale.ROOT)); }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+
+/**
+ * Locale independent number output straight into an Appendable without creating strings.
+ * Fixed point values are rounded half up on their shortest decimal representation,
+ * which gives the same digits as String.format(Locale.US, "%.nf", value), e.g. 1.0005
+ * (stored as 1.000499999...) becomes 1.001 and 0.035 (stored as 0.034999999999999996)
+ * becomes 0.04.
+ * Values that are no longer exact in a double once scaled to their decimals (2^52 / 10^decimals,
+ * e.g. 4.5e6 with 9 decimals) are formatted with BigDecimal, which creates garbage but gives the same digits.
+ */
+public final class NumberFormatter {
+    public  static final int    MAX_DECIMALS  = 9;
+    private static final double MAX_EXACT     = 1L << 52;
+    private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L };
+
+
+    // ******************** Constructors **************************************
+    private NumberFormatter() {}
+
+
+    // ******************** Methods *******************************************
+    public static void appendInt(final Appendable OUT, final long VALUE) throws IOException {
+        if (VALUE < 0) {
+            OUT.append('-');
+            if (VALUE == Long.MIN_VALUE) {
+                OUT.append("9223372036854775808");
+                return;
+            }
+            appendDigits(OUT, -VALUE, 1);
+        } else {
+            appendDigits(OUT, VALUE, 1);
+        }
+    }
+
+    /**
+     * Appends VALUE with exactly DECIMALS digits after the decimal point, e.g. 0.5 with 3 decimals as "0.500".
+     */
+    public static void appendFixed(final Appendable OUT, final double VALUE, final int DECIMALS) throws IOException {
+        if (DECIMALS < 0 || DECIMALS > MAX_DECIMALS) { throw new IllegalArgumentException("Decimals must be between 0 and " + MAX_DECIMALS); }
+        if (Double.isNaN(VALUE))      { OUT.append("NaN"); return; }
+        if (Double.isInfinite(VALUE)) { OUT.append(VALUE > 0 ? "Infinity" : "-Infinity"); return; }
+
+        final long   POWER    = POWERS_OF_TEN[DECIMALS];
+        final double ABS      = Math.abs(VALUE);
+        if (ABS * POWER >= MAX_EXACT) { appendExact(OUT, VALUE, DECIMALS); return; }
+        long         units    = (long) (ABS * POWER);
+        // The division is correctly rounded, so the midpoint is the double closest to the decimal midpoint,
+        // values above (below) it have a shortest representation above (below) the decimal midpoint
+        final double MIDPOINT = (units + 0.5) / POWER;
+        if (ABS == MIDPOINT) {
+            // If the double is fine enough, the decimal midpoint is its shortest representation, otherwise that
+            // might be any decimal that rounds to the same double
+            if (Math.ulp(ABS) * POWER >= 0.1) { appendExact(OUT, VALUE, DECIMALS); return; }
+            units++;
+        } else if (ABS > MIDPOINT) {
+            units++;
+        }
+
+        if (VALUE < 0 && units != 0) { OUT.append('-'); }
+        appendDigits(OUT, units / POWER, 1);
+        if (DECIMALS > 0) {
+            OUT.append('.');
+            appendDigits(OUT, units % POWER, DECIMALS);
+        }
+    }
+
+    // Rounds the shortest representation of VALUE (Double.toString) the slow way
+    private static void appendExact(final Appendable OUT, final double VALUE, final int DECIMALS) throws IOException {
+        OUT.append(BigDecimal.valueOf(VALUE).setScale(DECIMALS, RoundingMode.HALF_UP).toPlainString());
+    }
+
+    // Appends the digits of a positive value, left padded with zeros to MIN_DIGITS
+    private static void appendDigits(final Appendable OUT, final long VALUE, final int MIN_DIGITS) throws IOException {
+        int digits = 1;
+        long divisor = 1;
+        while (digits < 19 && divisor * 10 <= VALUE) {
+            divisor *= 10;
+            digits++;
+        }
+        for (int i = digits ; i < MIN_DIGITS ; i++) { OUT.append('0'); }
+        long rest = VALUE;
+        while (divisor > 0) {
+            OUT.append((char) ('0' + rest / divisor));
+            rest    %= divisor;
+            divisor /= 10;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+/**
+ * Radial gradient around CENTER with the given RADIUS. Position 0.0 is at the FOCUS,
+ * 1.0 on the circle and positions in between are taken along the ray from the focus
+ * through the pixel. The focus is moved to 99% of the radius if it lies outside of the circle.
+ */
+public final class RadialRasterizer extends GradientRasterizer {
+    private static final double MAX_FOCUS = 0.99;
+    private        final double centerX;
+    private        final double centerY;
+    private        final double radius;
+    private        final double focusX;
+    private        final double focusY;
+    private        final double focusOffsetSquared;
+
+
+    // ******************** Constructors **************************************
+    public RadialRasterizer(final ArgbLookup LOOKUP, final CycleMode CYCLE_MODE, final double CENTER_X, final double CENTER_Y, final double RADIUS) {
+        this(LOOKUP, CYCLE_MODE, CENTER_X, CENTER_Y, RADIUS, CENTER_X, CENTER_Y);
+    }
+    public RadialRasterizer(final ArgbLookup LOOKUP, final CycleMode CYCLE_MODE, final double CENTER_X, final double CENTER_Y, final double RADIUS, final double FOCUS_X, final double FOCUS_Y) {
+        super(LOOKUP, CYCLE_MODE);
+        if (!(RADIUS > 0)) { throw new IllegalArgumentException("Radius must be greater than 0"); }
+        centerX = CENTER_X;
+        centerY = CENTER_Y;
+        radius  = RADIUS;
+        final double DX       = FOCUS_X - CENTER_X;
+        final double DY       = FOCUS_Y - CENTER_Y;
+        final double DISTANCE = Math.sqrt(DX * DX + DY * DY);
+        final double SCALE    = DISTANCE > RADIUS * MAX_FOCUS ? RADIUS * MAX_FOCUS / DISTANCE : 1.0;
+        focusX             = CENTER_X + DX * SCALE;
+        focusY             = CENTER_Y + DY * SCALE;
+        focusOffsetSquared = (DX * DX + DY * DY) * SCALE * SCALE - RADIUS * RADIUS;
+    }
+
+
+    // ******************** Methods *******************************************
+    public double getCenterX() { return centerX; }
+    public double getCenterY() { return centerY; }
+
+    public double getRadius() { return radius; }
+
+    public double getFocusX() { return focusX; }
+    public double getFocusY() { return focusY; }
+
+    /**
+     * With d = pixel - focus and e = focus - center the ray focus + s * d hits the circle at
+     * |e + s * d| = radius, the position is 1 / s of the positive root of that quadratic.
+     */
+    @Override protected void fillSpan(final int[] ARGB, final int INDEX, final int X, final int Y, final int LENGTH) {
+        final double DY      = Y + 0.5 - focusY;
+        final double EX      = focusX - centerX;
+        final double EY_DY   = (focusY - centerY) * DY;
+        final double DY_SQ   = DY * DY;
+        int index = INDEX;
+        for (int x = X, end = X + LENGTH ; x < end ; x++) {
+            final double DX  = x + 0.5 - focusX;
+            final double DD  = DX * DX + DY_SQ;
+            final double ED  = EX * DX + EY_DY;
+            ARGB[index++] = getArgbAt(DD == 0 ? 0.0 : DD / (Math.sqrt(ED * ED - DD * focusOffsetSquared) - ED), x, Y);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Renders a rectangular area of a GradientRasterizer by recursively halving it along
+ * its longer side until it fits into a tile of TILE_SIZE x TILE_SIZE pixels.
+ */
+@SuppressWarnings("serial") // Fork/join tasks are never serialized
+class RasterTask extends RecursiveAction {
+    private final GradientRasterizer RASTERIZER;
+    private final int[]              ARGB;
+    private final long               ORIGIN;
+    private final int                STRIDE;
+    private final int                X;
+    private final int                Y;
+    private final int                WIDTH;
+    private final int                HEIGHT;
+
+
+    // ******************** Constructors **************************************
+    /**
+     * ORIGIN is the (virtual) index of the pixel 0, 0 so that pixel x, y is at ORIGIN + y * STRIDE + x.
+     */
+    RasterTask(final GradientRasterizer RASTERIZER, final int[] ARGB, final long ORIGIN, final int STRIDE, final int X, final int Y, final int WIDTH, final int HEIGHT) {
+        this.RASTERIZER = RASTERIZER;
+        this.ARGB       = ARGB;
+        this.ORIGIN     = ORIGIN;
+        this.STRIDE     = STRIDE;
+        this.X          = X;
+        this.Y          = Y;
+        this.WIDTH      = WIDTH;
+        this.HEIGHT     = HEIGHT;
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Runs the task in the common fork/join pool if the area exceeds the parallel threshold, otherwise in the calling thread.
+     */
+    void execute() {
+        if ((long) WIDTH * HEIGHT > GradientRasterizer.PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(this);
+        } else {
+            render();
+        }
+    }
+
+    @Override protected void compute() {
+        if (WIDTH > GradientRasterizer.TILE_SIZE && WIDTH >= HEIGHT) {
+            final int HALF = WIDTH >>> 1;
+            invokeAll(new RasterTask(RASTERIZER, ARGB, ORIGIN, STRIDE, X, Y, HALF, HEIGHT),
+                      new RasterTask(RASTERIZER, ARGB, ORIGIN, STRIDE, X + HALF, Y, WIDTH - HALF, HEIGHT));
+        } else if (HEIGHT > GradientRasterizer.TILE_SIZE) {
+            final int HALF = HEIGHT >>> 1;
+            invokeAll(new RasterTask(RASTERIZER, ARGB, ORIGIN, STRIDE, X, Y, WIDTH, HALF),
+                      new RasterTask(RASTERIZER, ARGB, ORIGIN, STRIDE, X, Y + HALF, WIDTH, HEIGHT - HALF));
+        } else {
+            render();
+        }
+    }
+
+    private void render() {
+        final int END_Y = Y + HEIGHT;
+        for (int y = Y ; y < END_Y ; y++) {
+            RASTERIZER.fillSpan(ARGB, (int) (ORIGIN + (long) y * STRIDE + X), X, y, WIDTH);
+        }
+    }
+}
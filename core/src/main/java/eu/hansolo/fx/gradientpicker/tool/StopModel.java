@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import java.util.Arrays;
+
+
+/**
+ * Mutable, always sorted store for the stops of a gradient that is edited interactively.
+ * Every stop lives in a slot that stays the same for the lifetime of the stop, the offset and
+ * the channel values are kept in primitive arrays indexed by slot and a separate int array holds
+ * the slots in the order of their offsets. Finding a stop, its neighbours or the position for a new
+ * offset is a binary search, inserting, moving and removing a stop shift the slots in between with
+ * a single System.arraycopy() instead of resorting anything. Freed slots are reused.
+ */
+public final class StopModel {
+    private static final int      INITIAL_CAPACITY = 16;
+    private        final int      channels;
+    private              double[] offsets;
+    private              double[] values;
+    private              int[]    order;
+    private              int[]    freeSlots;
+    private              int      freeCount;
+    private              int      slotCount;
+    private              int      size;
+    private              long     modifications;
+
+
+    // ******************** Constructors **************************************
+    /**
+     * @param CHANNELS number of values per stop, e.g. 4 for red, green, blue and opacity
+     */
+    public StopModel(final int CHANNELS) {
+        if (CHANNELS < 1) { throw new IllegalArgumentException("At least one channel is needed"); }
+        channels  = CHANNELS;
+        offsets   = new double[INITIAL_CAPACITY];
+        values    = new double[INITIAL_CAPACITY * CHANNELS];
+        order     = new int[INITIAL_CAPACITY];
+        freeSlots = new int[INITIAL_CAPACITY];
+    }
+
+
+    // ******************** Methods *******************************************
+    public int getChannels() { return channels; }
+
+    public int getSize() { return size; }
+
+    public boolean isEmpty() { return 0 == size; }
+
+    /**
+     * Returns the number of changes so far, e.g. to find out cheaply whether the model changed since it was last looked at.
+     */
+    public long getModifications() { return modifications; }
+
+    /**
+     * Adds a stop at the given offset behind all stops with the same offset and returns its slot,
+     * the channel values of the new stop are 0.
+     */
+    public int add(final double OFFSET) {
+        final int SLOT = allocateSlot();
+        offsets[SLOT] = OFFSET;
+        Arrays.fill(values, SLOT * channels, SLOT * channels + channels, 0.0);
+        final int INDEX = upperBound(OFFSET, 0, size);
+        System.arraycopy(order, INDEX, order, INDEX + 1, size - INDEX);
+        order[INDEX] = SLOT;
+        size++;
+        modifications++;
+        return SLOT;
+    }
+
+    public void remove(final int SLOT) {
+        final int INDEX = indexOf(SLOT);
+        System.arraycopy(order, INDEX + 1, order, INDEX, size - INDEX - 1);
+        size--;
+        freeSlots[freeCount++] = SLOT;
+        modifications++;
+    }
+
+    public void clear() {
+        size      = 0;
+        slotCount = 0;
+        freeCount = 0;
+        modifications++;
+    }
+
+    public double getOffset(final int SLOT) { return offsets[SLOT]; }
+    /**
+     * Moves the stop in the given slot to the new offset, only the slots between the old and the
+     * new position are shifted, so dragging a stop over a few neighbours stays cheap.
+     */
+    public void move(final int SLOT, final double OFFSET) {
+        final double OLD_OFFSET = offsets[SLOT];
+        if (Double.compare(OLD_OFFSET, OFFSET) == 0) { return; }
+        final int OLD_INDEX = indexOf(SLOT);
+        offsets[SLOT] = OFFSET;
+        modifications++;
+        if (OFFSET > OLD_OFFSET) {
+            final int NEW_INDEX = upperBound(OFFSET, OLD_INDEX + 1, size) - 1;
+            System.arraycopy(order, OLD_INDEX + 1, order, OLD_INDEX, NEW_INDEX - OLD_INDEX);
+            order[NEW_INDEX] = SLOT;
+        } else {
+            final int NEW_INDEX = upperBound(OFFSET, 0, OLD_INDEX);
+            System.arraycopy(order, NEW_INDEX, order, NEW_INDEX + 1, OLD_INDEX - NEW_INDEX);
+            order[NEW_INDEX] = SLOT;
+        }
+    }
+
+    public double getValue(final int SLOT, final int CHANNEL) { return values[SLOT * channels + CHANNEL]; }
+    public void setValue(final int SLOT, final int CHANNEL, final double VALUE) {
+        final int INDEX = SLOT * channels + CHANNEL;
+        if (Double.compare(values[INDEX], VALUE) == 0) { return; }
+        values[INDEX] = VALUE;
+        modifications++;
+    }
+
+    /**
+     * Returns the slot of the stop at the given position in offset order.
+     */
+    public int getSlot(final int INDEX) {
+        if (INDEX < 0 || INDEX >= size) { throw new IndexOutOfBoundsException("Index: " + INDEX + ", Size: " + size); }
+        return order[INDEX];
+    }
+
+    /**
+     * Returns the position of the stop in the given slot in offset order.
+     */
+    public int indexOf(final int SLOT) {
+        final double OFFSET = offsets[SLOT];
+        for (int i = lowerBound(OFFSET, 0, size) ; i < size && offsets[order[i]] == OFFSET ; i++) {
+            if (order[i] == SLOT) { return i; }
+        }
+        throw new IllegalArgumentException("Slot " + SLOT + " is not in use");
+    }
+
+    /**
+     * Returns the position of the last stop with an offset smaller than the given one or -1.
+     */
+    public int lowerIndex(final double OFFSET) { return lowerBound(OFFSET, 0, size) - 1; }
+
+    /**
+     * Returns the position of the first stop with an offset larger than the given one or -1.
+     */
+    public int higherIndex(final double OFFSET) {
+        final int INDEX = upperBound(OFFSET, 0, size);
+        return INDEX < size ? INDEX : -1;
+    }
+
+    /**
+     * Returns the value of the given channel at the offset, linear between the neighbouring stops
+     * and constant before the first and after the last stop.
+     */
+    public double interpolate(final double OFFSET, final int CHANNEL) {
+        if (0 == size) { throw new IllegalStateException("The model contains no stops"); }
+        return interpolate(upperBound(OFFSET, 0, size), OFFSET, CHANNEL);
+    }
+
+    /**
+     * Merges a color track (red, green, blue) and an opacity track into one immutable list of stops.
+     * Both tracks are sorted, so this is a single linear pass: every color stop takes the opacity of the
+     * opacity track at its offset, every opacity stop the color of the color track at its offset, stops of
+     * both tracks at the same offset become one stop. Without color stops the spec is empty, without
+     * opacity stops the gradient is opaque.
+     */
+    public static GradientSpec merge(final StopModel COLORS, final StopModel OPACITIES) {
+        if (COLORS.channels < 3) { throw new IllegalArgumentException("The color track needs 3 channels per stop"); }
+        final int NO_OF_COLORS    = COLORS.size;
+        final int NO_OF_OPACITIES = OPACITIES.size;
+        if (0 == NO_OF_COLORS) { return GradientSpec.EMPTY; }
+        final int MAX_SIZE = NO_OF_COLORS + NO_OF_OPACITIES;
+        double[]  offsets  = new double[MAX_SIZE];
+        double[]  channels = new double[MAX_SIZE * 4];
+        int       color    = 0;
+        int       opacity  = 0;
+        int       size     = 0;
+        while (color < NO_OF_COLORS || opacity < NO_OF_OPACITIES) {
+            final double COLOR_OFFSET   = color < NO_OF_COLORS ? COLORS.offsets[COLORS.order[color]] : Double.POSITIVE_INFINITY;
+            final double OPACITY_OFFSET = opacity < NO_OF_OPACITIES ? OPACITIES.offsets[OPACITIES.order[opacity]] : Double.POSITIVE_INFINITY;
+            final int    INDEX          = size * 4;
+            if (COLOR_OFFSET <= OPACITY_OFFSET) {
+                final int SLOT = COLORS.order[color];
+                offsets[size]       = COLOR_OFFSET;
+                channels[INDEX]     = COLORS.getValue(SLOT, 0);
+                channels[INDEX + 1] = COLORS.getValue(SLOT, 1);
+                channels[INDEX + 2] = COLORS.getValue(SLOT, 2);
+                if (COLOR_OFFSET == OPACITY_OFFSET) {
+                    channels[INDEX + 3] = OPACITIES.getValue(OPACITIES.order[opacity], 0);
+                    opacity++;
+                } else {
+                    channels[INDEX + 3] = 0 == NO_OF_OPACITIES ? 1.0 : OPACITIES.interpolate(opacity, COLOR_OFFSET, 0);
+                }
+                color++;
+            } else {
+                offsets[size]       = OPACITY_OFFSET;
+                channels[INDEX]     = COLORS.interpolate(color, OPACITY_OFFSET, 0);
+                channels[INDEX + 1] = COLORS.interpolate(color, OPACITY_OFFSET, 1);
+                channels[INDEX + 2] = COLORS.interpolate(color, OPACITY_OFFSET, 2);
+                channels[INDEX + 3] = OPACITIES.getValue(OPACITIES.order[opacity], 0);
+                opacity++;
+            }
+            size++;
+        }
+        if (size < MAX_SIZE) {
+            offsets  = Arrays.copyOf(offsets, size);
+            channels = Arrays.copyOf(channels, size * 4);
+        }
+        return GradientSpec.wrap(offsets, channels);
+    }
+
+    /**
+     * Returns the stops of this model alone as an immutable list of stops, the channels of the model are
+     * written to the channels starting at SPEC_CHANNEL (0 = red, 3 = opacity), all other channels are 1.0.
+     */
+    public GradientSpec toSpec(final int SPEC_CHANNEL) {
+        if (SPEC_CHANNEL < 0 || SPEC_CHANNEL + channels > 4) { throw new IllegalArgumentException("The channels of the model do not fit at " + SPEC_CHANNEL); }
+        final double[] OFFSETS  = new double[size];
+        final double[] CHANNELS = new double[size * 4];
+        Arrays.fill(CHANNELS, 1.0);
+        for (int i = 0 ; i < size ; i++) {
+            final int SLOT = order[i];
+            OFFSETS[i] = offsets[SLOT];
+            System.arraycopy(values, SLOT * channels, CHANNELS, i * 4 + SPEC_CHANNEL, channels);
+        }
+        return GradientSpec.wrap(OFFSETS, CHANNELS);
+    }
+
+    // Value between the stops at UPPER - 1 and UPPER, UPPER is the first position with an offset > OFFSET
+    private double interpolate(final int UPPER, final double OFFSET, final int CHANNEL) {
+        if (0 == UPPER)    { return getValue(order[0], CHANNEL); }
+        if (size == UPPER) { return getValue(order[size - 1], CHANNEL); }
+        final int    LOWER_SLOT   = order[UPPER - 1];
+        final int    UPPER_SLOT   = order[UPPER];
+        final double LOWER_OFFSET = offsets[LOWER_SLOT];
+        final double FACTOR       = (OFFSET - LOWER_OFFSET) / (offsets[UPPER_SLOT] - LOWER_OFFSET);
+        final double LOWER_VALUE  = getValue(LOWER_SLOT, CHANNEL);
+        return LOWER_VALUE + (getValue(UPPER_SLOT, CHANNEL) - LOWER_VALUE) * FACTOR;
+    }
+
+    // First position in [FROM, TO) with an offset >= OFFSET
+    private int lowerBound(final double OFFSET, final int FROM, final int TO) {
+        int low  = FROM;
+        int high = TO;
+        while (low < high) {
+            final int MID = (low + high) >>> 1;
+            if (offsets[order[MID]] < OFFSET) { low = MID + 1; } else { high = MID; }
+        }
+        return low;
+    }
+
+    // First position in [FROM, TO) with an offset > OFFSET
+    private int upperBound(final double OFFSET, final int FROM, final int TO) {
+        int low  = FROM;
+        int high = TO;
+        while (low < high) {
+            final int MID = (low + high) >>> 1;
+            if (offsets[order[MID]] <= OFFSET) { low = MID + 1; } else { high = MID; }
+        }
+        return low;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) { return freeSlots[--freeCount]; }
+        if (slotCount == offsets.length) {
+            final int CAPACITY = offsets.length * 2;
+            offsets   = Arrays.copyOf(offsets, CAPACITY);
+            values    = Arrays.copyOf(values, CAPACITY * channels);
+            order     = Arrays.copyOf(order, CAPACITY);
+            freeSlots = Arrays.copyOf(freeSlots, CAPACITY);
+        }
+        return slotCount++;
+    }
+}
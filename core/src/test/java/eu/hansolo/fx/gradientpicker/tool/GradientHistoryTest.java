@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class GradientHistoryTest {
+    private static final int STOP_BYTES = 5 * Double.BYTES;
+
+
+    @Test public void undoAndRedoRestoreTheStates() {
+        final Random          random  = new Random(1);
+        final GradientHistory HISTORY = new GradientHistory();
+        final GradientSpec    A       = createSpec(random, 10);
+        final GradientSpec    B       = edit(random, A, 3);
+        final GradientSpec    C       = edit(random, B, 7);
+        HISTORY.record(A, false);
+        HISTORY.record(B, false);
+        HISTORY.record(C, false);
+
+        assertEquals(B, HISTORY.undo());
+        assertEquals(A, HISTORY.undo());
+        assertNull(HISTORY.undo());
+        assertEquals(B, HISTORY.redo());
+
+        final GradientSpec D = edit(random, B, 0);
+        HISTORY.record(D, false);
+        assertFalse(HISTORY.canRedo());
+        assertEquals(B, HISTORY.undo());
+    }
+
+    @Test public void transientStatesMergeIntoOneEntry() {
+        final Random          random  = new Random(2);
+        final GradientHistory HISTORY = new GradientHistory();
+        final GradientSpec    START   = createSpec(random, 10);
+        HISTORY.record(START, false);
+        GradientSpec spec = START;
+        for (int i = 0 ; i < 20 ; i++) {
+            spec = edit(random, spec, 4);
+            HISTORY.record(spec, true);
+        }
+        HISTORY.record(spec, false);
+
+        assertEquals(1, HISTORY.getUndoSize());
+        assertEquals(START, HISTORY.undo());
+        assertEquals(spec, HISTORY.redo());
+    }
+
+    @Test public void unchangedChunksAreShared() {
+        final Random          random  = new Random(3);
+        final GradientHistory HISTORY = new GradientHistory(Long.MAX_VALUE);
+        GradientSpec spec = createSpec(random, 2_000);
+        HISTORY.record(spec, false);
+        final long FIRST = HISTORY.getSizeInBytes();
+        assertTrue(FIRST >= 2_000L * STOP_BYTES);
+
+        // Every edit may only add the chunks around the changed stop, not another copy of all stops
+        for (int i = 0 ; i < 100 ; i++) {
+            final long BEFORE = HISTORY.getSizeInBytes();
+            spec = edit(random, spec, random.nextInt(spec.getSize()));
+            HISTORY.record(spec, false);
+            assertTrue(HISTORY.getSizeInBytes() - BEFORE < FIRST / 10);
+        }
+        for (int i = 0 ; i < 100 ; i++) { HISTORY.undo(); }
+        assertFalse(HISTORY.canUndo());
+    }
+
+    @Test public void insertedStopsOnlyAddTheirChunk() {
+        final Random          random  = new Random(4);
+        final GradientHistory HISTORY = new GradientHistory(Long.MAX_VALUE);
+        final GradientSpec    SPEC    = createSpec(random, 2_000);
+        HISTORY.record(SPEC, false);
+        final long FIRST = HISTORY.getSizeInBytes();
+
+        // Inserting a stop near the start shifts all following stops
+        final GradientSpec INSERTED = insert(random, SPEC, 10);
+        HISTORY.record(INSERTED, false);
+        assertTrue(HISTORY.getSizeInBytes() - FIRST < FIRST / 10);
+        assertEquals(SPEC, HISTORY.undo());
+        assertEquals(INSERTED, HISTORY.redo());
+    }
+
+    @Test public void oldestEntriesAreDroppedAtTheLimit() {
+        final Random          random  = new Random(5);
+        final GradientHistory HISTORY = new GradientHistory(64 * 1024);
+        final GradientSpec[]  STATES  = new GradientSpec[500];
+        STATES[0] = createSpec(random, 100);
+        HISTORY.record(STATES[0], false);
+        for (int i = 1 ; i < STATES.length ; i++) {
+            // Changing every stop prevents sharing, so every state costs a full copy
+            STATES[i] = shift(STATES[i - 1]);
+            HISTORY.record(STATES[i], false);
+            assertTrue(HISTORY.getSizeInBytes() <= HISTORY.getMaxBytes());
+        }
+        final int UNDO_SIZE = HISTORY.getUndoSize();
+        assertTrue(UNDO_SIZE > 0 && UNDO_SIZE < STATES.length - 1);
+        for (int i = 1 ; i <= UNDO_SIZE ; i++) { assertEquals(STATES[STATES.length - 1 - i], HISTORY.undo()); }
+
+        HISTORY.setMaxBytes(0);
+        assertEquals(0, HISTORY.getUndoSize());
+        assertEquals(STATES[STATES.length - 1 - UNDO_SIZE], HISTORY.getCurrent());
+    }
+
+    @Test public void clearReleasesEverythingButTheCurrentState() {
+        final Random          random  = new Random(6);
+        final GradientHistory HISTORY = new GradientHistory(Long.MAX_VALUE);
+        GradientSpec spec = createSpec(random, 200);
+        for (int i = 0 ; i < 50 ; i++) {
+            spec = edit(random, spec, random.nextInt(spec.getSize()));
+            HISTORY.record(spec, false);
+        }
+        HISTORY.undo();
+        HISTORY.clear();
+
+        final GradientHistory FRESH = new GradientHistory();
+        FRESH.record(HISTORY.getCurrent(), false);
+        assertEquals(FRESH.getSizeInBytes(), HISTORY.getSizeInBytes());
+        assertFalse(HISTORY.canUndo());
+        assertFalse(HISTORY.canRedo());
+    }
+
+    @Test public void bothTracksAreRestored() {
+        final Random          random    = new Random(7);
+        final GradientHistory HISTORY   = new GradientHistory();
+        final GradientSpec    COLORS    = createSpec(random, 8);
+        final GradientSpec    OPACITIES = createSpec(random, 3);
+        HISTORY.record(COLORS, OPACITIES, false);
+        // Only the opacity track changes
+        final GradientSpec NEW_OPACITIES = edit(random, OPACITIES, 1);
+        HISTORY.record(COLORS, NEW_OPACITIES, false);
+        assertEquals(1, HISTORY.getUndoSize());
+
+        assertEquals(COLORS, HISTORY.undo());
+        assertEquals(OPACITIES, HISTORY.getCurrentOpacities());
+        assertEquals(COLORS, HISTORY.redo());
+        assertEquals(NEW_OPACITIES, HISTORY.getCurrentOpacities());
+
+        HISTORY.record(COLORS, false);
+        assertNull(HISTORY.getCurrentOpacities());
+    }
+
+    private static GradientSpec createSpec(final Random RANDOM, final int SIZE) {
+        final double[] OFFSETS  = new double[SIZE];
+        final double[] CHANNELS = new double[SIZE * 4];
+        for (int i = 0 ; i < SIZE ; i++) {
+            OFFSETS[i] = i / (double) (SIZE - 1);
+            for (int c = 0 ; c < 4 ; c++) { CHANNELS[i * 4 + c] = RANDOM.nextDouble(); }
+        }
+        return new GradientSpec(OFFSETS, CHANNELS);
+    }
+
+    // Replaces the color of one stop
+    private static GradientSpec edit(final Random RANDOM, final GradientSpec SPEC, final int INDEX) {
+        final double[] OFFSETS  = new double[SPEC.getSize()];
+        final double[] CHANNELS = new double[SPEC.getSize() * 4];
+        copy(SPEC, 0, OFFSETS, CHANNELS, 0, SPEC.getSize());
+        CHANNELS[INDEX * 4] = RANDOM.nextDouble();
+        return new GradientSpec(OFFSETS, CHANNELS);
+    }
+
+    private static GradientSpec insert(final Random RANDOM, final GradientSpec SPEC, final int INDEX) {
+        final int      SIZE     = SPEC.getSize() + 1;
+        final double[] OFFSETS  = new double[SIZE];
+        final double[] CHANNELS = new double[SIZE * 4];
+        copy(SPEC, 0, OFFSETS, CHANNELS, 0, INDEX);
+        copy(SPEC, INDEX, OFFSETS, CHANNELS, INDEX + 1, SPEC.getSize() - INDEX);
+        OFFSETS[INDEX] = (SPEC.getOffset(INDEX - 1) + SPEC.getOffset(INDEX)) / 2;
+        for (int c = 0 ; c < 4 ; c++) { CHANNELS[INDEX * 4 + c] = RANDOM.nextDouble(); }
+        return new GradientSpec(OFFSETS, CHANNELS);
+    }
+
+    // Moves the channels of every stop by a tiny step
+    private static GradientSpec shift(final GradientSpec SPEC) {
+        final double[] OFFSETS  = new double[SPEC.getSize()];
+        final double[] CHANNELS = new double[SPEC.getSize() * 4];
+        copy(SPEC, 0, OFFSETS, CHANNELS, 0, SPEC.getSize());
+        for (int i = 0 ; i < CHANNELS.length ; i++) { CHANNELS[i] += 1e-6; }
+        return new GradientSpec(OFFSETS, CHANNELS);
+    }
+
+    private static void copy(final GradientSpec SPEC, final int FROM, final double[] OFFSETS, final double[] CHANNELS, final int TO, final int LENGTH) {
+        for (int i = 0 ; i < LENGTH ; i++) {
+            OFFSETS[TO + i]            = SPEC.getOffset(FROM + i);
+            CHANNELS[(TO + i) * 4]     = SPEC.getRed(FROM + i);
+            CHANNELS[(TO + i) * 4 + 1] = SPEC.getGreen(FROM + i);
+            CHANNELS[(TO + i) * 4 + 2] = SPEC.getBlue(FROM + i);
+            CHANNELS[(TO + i) * 4 + 3] = SPEC.getOpacity(FROM + i);
+        }
+    }
+}
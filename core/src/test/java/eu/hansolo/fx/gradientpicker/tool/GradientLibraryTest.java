@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+
+public class GradientLibraryTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+    private      Path            path;
+
+
+    @Before public void setup() throws IOException {
+        path = folder.getRoot().toPath().resolve("gradients.gpal");
+    }
+
+    @Test public void appendedGradientsSurviveReopen() throws IOException {
+        final Random             random = new Random(7);
+        final List<String>       names  = new ArrayList<>();
+        final List<GradientSpec> specs  = new ArrayList<>();
+        try (GradientLibrary library = GradientLibrary.open(path)) {
+            // Single appends and batches, enough to move the index a few times
+            for (int i = 0 ; i < 20 ; i++) { append(library, names, specs, "single-" + i, createSpec(random)); }
+            final List<String>       batchNames = new ArrayList<>();
+            final List<GradientSpec> batchSpecs = new ArrayList<>();
+            for (int i = 0 ; i < 100 ; i++) {
+                batchNames.add("batch-" + i);
+                batchSpecs.add(createSpec(random));
+            }
+            assertEquals(20, library.append(batchNames, batchSpecs));
+            names.addAll(batchNames);
+            specs.addAll(batchSpecs);
+            assertContent(library, names, specs);
+        }
+        try (GradientLibrary library = GradientLibrary.open(path)) {
+            assertContent(library, names, specs);
+            append(library, names, specs, "after-reopen", createSpec(random));
+            assertContent(library, names, specs);
+        }
+        try (GradientLibrary library = GradientLibrary.open(path)) {
+            assertContent(library, names, specs);
+        }
+    }
+
+    @Test public void duplicateNamesResolveToTheFirstId() throws IOException {
+        final Random random = new Random(3);
+        try (GradientLibrary library = GradientLibrary.open(path)) {
+            library.append("sunset", createSpec(random));
+            library.append("ocean", createSpec(random));
+            library.append("sunset", createSpec(random));
+            assertEquals(0, library.getId("sunset"));
+            assertEquals(1, library.getId("ocean"));
+            assertEquals(-1, library.getId("forest"));
+            assertNull(library.getSpec("forest"));
+        }
+    }
+
+    @Test public void closeTruncatesAndRejectsAccess() throws IOException {
+        final GradientLibrary LIBRARY = GradientLibrary.open(path);
+        LIBRARY.append("sunset", createSpec(new Random(5)));
+        LIBRARY.close();
+        LIBRARY.close();
+
+        final ByteBuffer HEADER = ByteBuffer.wrap(Files.readAllBytes(path));
+        assertEquals(GradientLibrary.MAGIC, HEADER.getInt(0));
+        assertEquals(GradientLibrary.VERSION, HEADER.getShort(4));
+        assertEquals(Files.size(path), HEADER.getLong(24));
+        try {
+            LIBRARY.getSpec(0);
+            fail("Expected a closed library to reject access");
+        } catch (IllegalStateException e) {
+            assertEquals("library closed", e.getMessage());
+        }
+    }
+
+    @Test(expected = IOException.class) public void rejectsOtherVersions() throws IOException {
+        final ByteBuffer HEADER = ByteBuffer.allocate(GradientLibrary.HEADER_SIZE);
+        HEADER.putInt(GradientLibrary.MAGIC).putShort((short) (GradientLibrary.VERSION - 1));
+        Files.write(path, HEADER.array());
+        GradientLibrary.open(path).close();
+    }
+
+    @Test(expected = IOException.class) public void rejectsOtherFiles() throws IOException {
+        Files.write(path, new byte[GradientLibrary.HEADER_SIZE]);
+        GradientLibrary.open(path).close();
+    }
+
+    private static void append(final GradientLibrary LIBRARY, final List<String> NAMES, final List<GradientSpec> SPECS, final String NAME, final GradientSpec SPEC) throws IOException {
+        assertEquals(NAMES.size(), LIBRARY.append(NAME, SPEC));
+        NAMES.add(NAME);
+        SPECS.add(SPEC);
+    }
+
+    private static void assertContent(final GradientLibrary LIBRARY, final List<String> NAMES, final List<GradientSpec> SPECS) {
+        assertEquals(NAMES.size(), LIBRARY.getSize());
+        for (int id = 0 ; id < NAMES.size() ; id++) {
+            assertEquals(NAMES.get(id), LIBRARY.getName(id));
+            assertEquals(id, LIBRARY.getId(NAMES.get(id)));
+            assertEquals(SPECS.get(id), LIBRARY.getSpec(id));
+        }
+    }
+
+    // Offsets and channels are chosen to survive the float offsets and 8 bit channels of the file unchanged
+    private static GradientSpec createSpec(final Random RANDOM) {
+        final int      SIZE     = 2 + RANDOM.nextInt(8);
+        final double[] OFFSETS  = new double[SIZE];
+        final double[] CHANNELS = new double[SIZE * 4];
+        for (int i = 0 ; i < SIZE ; i++) {
+            OFFSETS[i] = i / 16.0;
+            for (int c = 0 ; c < 4 ; c++) { CHANNELS[i * 4 + c] = RANDOM.nextInt(256) / 255.0; }
+        }
+        OFFSETS[SIZE - 1] = 1.0;
+        return new GradientSpec(OFFSETS, CHANNELS);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class GradientLutTest {
+    private static final int RESOLUTION = 1024;
+
+
+    @Test public void rebakeEqualsFullBake() {
+        final Random random = new Random(42);
+        GradientSampler sampler = createSampler(random, 16);
+        final GradientLut LUT = new GradientLut(RESOLUTION, sampler, true);
+        for (int i = 0 ; i < 200 ; i++) {
+            final GradientSampler NEXT = mutate(random, sampler);
+            LUT.rebake(sampler, NEXT);
+            assertSameTables(new GradientLut(RESOLUTION, NEXT, true), LUT);
+            sampler = NEXT;
+        }
+    }
+
+    @Test public void rebakeOfUnchangedSamplerTouchesNothing() {
+        final GradientSampler SAMPLER = createSampler(new Random(1), 8);
+        final GradientLut     LUT     = new GradientLut(RESOLUTION, SAMPLER);
+        LUT.rebake(SAMPLER, new GradientSampler(offsets(SAMPLER), channels(SAMPLER)));
+        assertEquals(0, LUT.getLastRebakeEntries());
+    }
+
+    @Test public void rebakeOfOneStopOnlyTouchesItsSegments() {
+        final GradientSampler SAMPLER  = createSampler(new Random(2), 10);
+        final double[]        CHANNELS = channels(SAMPLER);
+        CHANNELS[5 * 4] = 1.0 - CHANNELS[5 * 4];
+        final GradientSampler CHANGED  = new GradientSampler(offsets(SAMPLER), CHANNELS);
+        final GradientLut     LUT      = new GradientLut(RESOLUTION, SAMPLER);
+        LUT.rebake(SAMPLER, CHANGED);
+
+        final int SPAN = (int) Math.ceil((SAMPLER.getOffset(6) - SAMPLER.getOffset(4)) * (RESOLUTION - 1)) + 2;
+        assertTrue(LUT.getLastRebakeEntries() <= SPAN);
+        assertSameTables(new GradientLut(RESOLUTION, CHANGED), LUT);
+    }
+
+    private static void assertSameTables(final GradientLut EXPECTED, final GradientLut ACTUAL) {
+        assertArrayEquals(EXPECTED.getTable(), ACTUAL.getTable());
+        if (EXPECTED.hasFixedTable()) {
+            for (int i = 0 ; i < RESOLUTION ; i++) {
+                final double POSITION = i / (double) (RESOLUTION - 1);
+                assertEquals(EXPECTED.getFixedAt(POSITION), ACTUAL.getFixedAt(POSITION));
+            }
+        }
+    }
+
+    private static GradientSampler createSampler(final Random RANDOM, final int SIZE) {
+        final double[] OFFSETS  = new double[SIZE];
+        final double[] CHANNELS = new double[SIZE * 4];
+        for (int i = 0 ; i < SIZE ; i++) {
+            OFFSETS[i] = i / (double) (SIZE - 1);
+            for (int c = 0 ; c < 4 ; c++) { CHANNELS[i * 4 + c] = RANDOM.nextDouble(); }
+        }
+        return new GradientSampler(OFFSETS, CHANNELS);
+    }
+
+    // Changes, adds or removes one stop, offsets stay sorted
+    private static GradientSampler mutate(final Random RANDOM, final GradientSampler SAMPLER) {
+        final double[] OFFSETS  = offsets(SAMPLER);
+        final double[] CHANNELS = channels(SAMPLER);
+        final int      SIZE     = SAMPLER.getSize();
+        final int      INDEX    = 1 + RANDOM.nextInt(SIZE - 2);
+        switch (RANDOM.nextInt(3)) {
+            case 0 : {
+                CHANNELS[INDEX * 4 + RANDOM.nextInt(4)] = RANDOM.nextDouble();
+                OFFSETS[INDEX] = OFFSETS[INDEX - 1] + (OFFSETS[INDEX + 1] - OFFSETS[INDEX - 1]) * RANDOM.nextDouble();
+                return new GradientSampler(OFFSETS, CHANNELS);
+            }
+            case 1 : {
+                if (SIZE == 3) { return new GradientSampler(OFFSETS, CHANNELS); }
+                final double[] NEW_OFFSETS  = new double[SIZE - 1];
+                final double[] NEW_CHANNELS = new double[(SIZE - 1) * 4];
+                System.arraycopy(OFFSETS, 0, NEW_OFFSETS, 0, INDEX);
+                System.arraycopy(OFFSETS, INDEX + 1, NEW_OFFSETS, INDEX, SIZE - INDEX - 1);
+                System.arraycopy(CHANNELS, 0, NEW_CHANNELS, 0, INDEX * 4);
+                System.arraycopy(CHANNELS, (INDEX + 1) * 4, NEW_CHANNELS, INDEX * 4, (SIZE - INDEX - 1) * 4);
+                return new GradientSampler(NEW_OFFSETS, NEW_CHANNELS);
+            }
+            default: {
+                final double[] NEW_OFFSETS  = new double[SIZE + 1];
+                final double[] NEW_CHANNELS = new double[(SIZE + 1) * 4];
+                System.arraycopy(OFFSETS, 0, NEW_OFFSETS, 0, INDEX);
+                System.arraycopy(OFFSETS, INDEX, NEW_OFFSETS, INDEX + 1, SIZE - INDEX);
+                System.arraycopy(CHANNELS, 0, NEW_CHANNELS, 0, INDEX * 4);
+                System.arraycopy(CHANNELS, INDEX * 4, NEW_CHANNELS, (INDEX + 1) * 4, (SIZE - INDEX) * 4);
+                NEW_OFFSETS[INDEX] = OFFSETS[INDEX - 1] + (OFFSETS[INDEX] - OFFSETS[INDEX - 1]) * RANDOM.nextDouble();
+                for (int c = 0 ; c < 4 ; c++) { NEW_CHANNELS[INDEX * 4 + c] = RANDOM.nextDouble(); }
+                return new GradientSampler(NEW_OFFSETS, NEW_CHANNELS);
+            }
+        }
+    }
+
+    private static double[] offsets(final GradientSampler SAMPLER) {
+        final double[] OFFSETS = new double[SAMPLER.getSize()];
+        for (int i = 0 ; i < OFFSETS.length ; i++) { OFFSETS[i] = SAMPLER.getOffset(i); }
+        return OFFSETS;
+    }
+
+    private static double[] channels(final GradientSampler SAMPLER) {
+        final double[] CHANNELS = new double[SAMPLER.getSize() * 4];
+        for (int i = 0 ; i < SAMPLER.getSize() ; i++) {
+            CHANNELS[i * 4]     = SAMPLER.getRed(i);
+            CHANNELS[i * 4 + 1] = SAMPLER.getGreen(i);
+            CHANNELS[i * 4 + 2] = SAMPLER.getBlue(i);
+            CHANNELS[i * 4 + 3] = SAMPLER.getOpacity(i);
+        }
+        return CHANNELS;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class GradientParserTest {
+    private static final double OFFSET_TOLERANCE = 1e-4;
+
+
+    @Test public void parsesEveryExportFormat() throws ParseException {
+        final Random random = new Random(11);
+        for (int i = 0 ; i < 50 ; i++) {
+            final GradientSpec SPEC = createSpec(random);
+            for (GradientFormat format : GradientFormat.values()) {
+                final String TEXT = GradientExporter.toString(SPEC, format);
+                assertSameStops(format + ": " + TEXT, SPEC, GradientParser.parse(TEXT));
+            }
+        }
+    }
+
+    @Test public void parsesLegacyAndModernCssColors() throws ParseException {
+        final GradientSpec SPEC = GradientParser.parse("rgba(255, 0, 0, 0.5) 0%, rgba(0,255,0,50%) 25%, rgb(0 0 255 / 0.5) 75%, rgb(100% 0% 100% / 50%) 100%");
+        assertEquals(0x80FF0000, SPEC.getArgb(0));
+        assertEquals(0x8000FF00, SPEC.getArgb(1));
+        assertEquals(0x800000FF, SPEC.getArgb(2));
+        assertEquals(0x80FF00FF, SPEC.getArgb(3));
+        assertEquals(0.75, SPEC.getOffset(2), 0.0);
+    }
+
+    @Test public void distributesMissingCssPositions() throws ParseException {
+        final GradientSpec SPEC = GradientParser.parse("linear-gradient(to right, red, #00ff00, blue 80%, white)");
+        assertEquals(0.0, SPEC.getOffset(0), 0.0);
+        assertEquals(0.4, SPEC.getOffset(1), 1e-12);
+        assertEquals(0.8, SPEC.getOffset(2), 1e-12);
+        assertEquals(1.0, SPEC.getOffset(3), 0.0);
+    }
+
+    @Test public void parsesNumbersCorrectlyRounded() throws ParseException {
+        final String[] NUMBERS = { "0.35", "0.1", "0.30000000000000004", "0.12345678901234567890123", "1e-30", "3.5e-1", "0.000000000000000000000000001", "0.9999999999999999999999" };
+        for (String number : NUMBERS) {
+            final GradientSpec SPEC = GradientParser.parse("new Stop(" + number + ", Color.RED)");
+            assertEquals(number, Double.parseDouble(number), SPEC.getOffset(0), 0.0);
+        }
+    }
+
+    @Test public void reportsTheErrorOffset() {
+        assertErrorAt("rgba(255, 0, 0, 1.5) 0%", 16);
+        assertErrorAt("rgb(255 0 0) 0%, nocolor 100%", 17);
+        assertErrorAt("new Stop(1.5, Color.RED)", 9);
+        assertErrorAt("{\"stops\":[{\"offset\":0.5}]}", 10);
+    }
+
+    @Test public void parsesNamedLines() {
+        final List<GradientParser.Result> RESULTS = GradientParser.parseLines(Arrays.asList("// comment", "", "sunset = #ff0000, #0000ff", "broken = rgb(300, 0, 0)"));
+        assertEquals(2, RESULTS.size());
+        assertEquals("sunset", RESULTS.get(0).getName());
+        assertTrue(RESULTS.get(0).isValid());
+        assertEquals(3, RESULTS.get(0).getLine());
+        assertFalse(RESULTS.get(1).isValid());
+        assertNull(RESULTS.get(1).getSpec());
+    }
+
+    private static void assertErrorAt(final String TEXT, final int OFFSET) {
+        try {
+            GradientParser.parse(TEXT);
+            fail("Expected an error for " + TEXT);
+        } catch (ParseException e) {
+            assertEquals(TEXT, OFFSET, e.getErrorOffset());
+        }
+    }
+
+    // The exports are rounded to 8 bit colors, so the stops are compared as ARGB
+    private static void assertSameStops(final String MESSAGE, final GradientSpec EXPECTED, final GradientSpec ACTUAL) {
+        assertEquals(MESSAGE, EXPECTED.getSize(), ACTUAL.getSize());
+        for (int i = 0 ; i < EXPECTED.getSize() ; i++) {
+            assertEquals(MESSAGE, EXPECTED.getOffset(i), ACTUAL.getOffset(i), OFFSET_TOLERANCE);
+            assertEquals(MESSAGE, EXPECTED.getArgb(i), ACTUAL.getArgb(i));
+        }
+    }
+
+    // Offsets and opacities are multiples of 1/4, the CSS stops are exported as whole percents
+    private static GradientSpec createSpec(final Random RANDOM) {
+        final int      SIZE     = 2 + RANDOM.nextInt(4);
+        final double[] OFFSETS  = new double[SIZE];
+        final double[] CHANNELS = new double[SIZE * 4];
+        for (int i = 0 ; i < SIZE ; i++) {
+            OFFSETS[i] = i / 4.0;
+            for (int c = 0 ; c < 3 ; c++) { CHANNELS[i * 4 + c] = RANDOM.nextInt(256) / 255.0; }
+            CHANNELS[i * 4 + 3] = RANDOM.nextInt(5) / 4.0;
+        }
+        OFFSETS[SIZE - 1] = 1.0;
+        return new GradientSpec(OFFSETS, CHANNELS);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+public class StopModelTest {
+    private static final double TOLERANCE = 1e-12;
+
+
+    // The slots in offset order are compared with a plain list that is kept sorted the slow way
+    @Test public void keepsTheOrderOfARandomEditSequence() {
+        final Random        random   = new Random(1);
+        final StopModel     MODEL    = new StopModel(4);
+        final List<Integer> EXPECTED = new ArrayList<>();
+        for (int i = 0 ; i < 5_000 ; i++) {
+            final int OPERATION = EXPECTED.size() < 10 ? 0 : random.nextInt(4);
+            switch (OPERATION) {
+                case 0 : {
+                    // Few distinct offsets, so stops with equal offsets are common
+                    final int SLOT = MODEL.add(random.nextInt(20) / 19.0);
+                    insertSorted(MODEL, EXPECTED, SLOT);
+                    break;
+                }
+                case 1 : {
+                    final Integer SLOT = EXPECTED.remove(random.nextInt(EXPECTED.size()));
+                    MODEL.remove(SLOT);
+                    break;
+                }
+                case 2 : {
+                    final Integer SLOT   = EXPECTED.get(random.nextInt(EXPECTED.size()));
+                    final double  OFFSET = random.nextInt(20) / 19.0;
+                    if (Double.compare(MODEL.getOffset(SLOT), OFFSET) == 0) { break; }
+                    EXPECTED.remove(SLOT);
+                    MODEL.move(SLOT, OFFSET);
+                    insertSorted(MODEL, EXPECTED, SLOT);
+                    break;
+                }
+                default: {
+                    MODEL.setValue(EXPECTED.get(random.nextInt(EXPECTED.size())), random.nextInt(4), random.nextDouble());
+                    break;
+                }
+            }
+            assertOrder(MODEL, EXPECTED);
+        }
+    }
+
+    @Test public void findsNeighboursAndInterpolates() {
+        final StopModel MODEL  = new StopModel(1);
+        final double[]  VALUES = { 0.0, 1.0, 0.5, 0.5 };
+        final double[]  STOPS  = { 0.0, 0.5, 0.5, 1.0 };
+        for (int i = 0 ; i < STOPS.length ; i++) { MODEL.setValue(MODEL.add(STOPS[i]), 0, VALUES[i]); }
+
+        assertEquals(-1, MODEL.lowerIndex(0.0));
+        assertEquals(0, MODEL.lowerIndex(0.5));
+        assertEquals(1, MODEL.higherIndex(0.0));
+        assertEquals(3, MODEL.higherIndex(0.5));
+        assertEquals(-1, MODEL.higherIndex(1.0));
+
+        assertEquals(0.5, MODEL.interpolate(0.25, 0), TOLERANCE);
+        // At an offset with two stops the later one wins, like in a gradient
+        assertEquals(0.5, MODEL.interpolate(0.5, 0), TOLERANCE);
+        assertEquals(0.5, MODEL.interpolate(0.75, 0), TOLERANCE);
+        assertEquals(0.0, MODEL.interpolate(-1.0, 0), TOLERANCE);
+        assertEquals(0.5, MODEL.interpolate(2.0, 0), TOLERANCE);
+    }
+
+    @Test public void countsOnlyRealModifications() {
+        final StopModel MODEL = new StopModel(4);
+        final int       SLOT  = MODEL.add(0.5);
+        long modifications = MODEL.getModifications();
+
+        MODEL.setValue(SLOT, 0, 0.0);
+        MODEL.move(SLOT, 0.5);
+        assertEquals(modifications, MODEL.getModifications());
+
+        MODEL.setValue(SLOT, 0, 1.0);
+        assertEquals(++modifications, MODEL.getModifications());
+        MODEL.move(SLOT, 0.25);
+        assertEquals(++modifications, MODEL.getModifications());
+        MODEL.remove(SLOT);
+        assertEquals(++modifications, MODEL.getModifications());
+    }
+
+    @Test public void reusesFreedSlots() {
+        final StopModel    MODEL = new StopModel(4);
+        final Set<Integer> SLOTS = new HashSet<>();
+        for (int i = 0 ; i < 100 ; i++) { SLOTS.add(MODEL.add(i / 99.0)); }
+        for (int i = 0 ; i < 1_000 ; i++) {
+            final int SLOT = MODEL.getSlot(i % MODEL.getSize());
+            MODEL.remove(SLOT);
+            assertTrue(SLOTS.contains(MODEL.add(i / 999.0)));
+        }
+        assertEquals(100, MODEL.getSize());
+    }
+
+    @Test public void mergesColorAndOpacityTracks() {
+        final Random    random    = new Random(2);
+        final StopModel COLORS    = new StopModel(3);
+        final StopModel OPACITIES = new StopModel(1);
+        final double[]  SHARED    = { 0.0, 0.5, 1.0 };
+        for (double offset : SHARED) {
+            fill(random, COLORS, COLORS.add(offset));
+            fill(random, OPACITIES, OPACITIES.add(offset));
+        }
+        for (int i = 0 ; i < 200 ; i++) { fill(random, COLORS, COLORS.add(random.nextDouble())); }
+        for (int i = 0 ; i < 50 ; i++) { fill(random, OPACITIES, OPACITIES.add(random.nextDouble())); }
+
+        final GradientSpec SPEC = StopModel.merge(COLORS, OPACITIES);
+        assertEquals(COLORS.getSize() + OPACITIES.getSize() - SHARED.length, SPEC.getSize());
+        for (int i = 0 ; i < SPEC.getSize() ; i++) {
+            final double OFFSET = SPEC.getOffset(i);
+            if (i > 0) { assertTrue(OFFSET > SPEC.getOffset(i - 1)); }
+            assertEquals(COLORS.interpolate(OFFSET, 0), SPEC.getRed(i), TOLERANCE);
+            assertEquals(COLORS.interpolate(OFFSET, 1), SPEC.getGreen(i), TOLERANCE);
+            assertEquals(COLORS.interpolate(OFFSET, 2), SPEC.getBlue(i), TOLERANCE);
+            assertEquals(OPACITIES.interpolate(OFFSET, 0), SPEC.getOpacity(i), TOLERANCE);
+        }
+    }
+
+    @Test public void mergeWithoutOpacitiesIsOpaque() {
+        final Random    random = new Random(3);
+        final StopModel COLORS = new StopModel(3);
+        for (int i = 0 ; i < 10 ; i++) { fill(random, COLORS, COLORS.add(i / 9.0)); }
+
+        final GradientSpec SPEC = StopModel.merge(COLORS, new StopModel(1));
+        assertEquals(10, SPEC.getSize());
+        for (int i = 0 ; i < SPEC.getSize() ; i++) { assertEquals(1.0, SPEC.getOpacity(i), 0.0); }
+
+        final StopModel OPACITIES = new StopModel(1);
+        OPACITIES.add(0.5);
+        assertSame(GradientSpec.EMPTY, StopModel.merge(new StopModel(3), OPACITIES));
+    }
+
+    @Test public void writesTheChannelsOfASingleTrack() {
+        final StopModel OPACITIES = new StopModel(1);
+        OPACITIES.setValue(OPACITIES.add(1.0), 0, 0.25);
+        OPACITIES.setValue(OPACITIES.add(0.0), 0, 0.75);
+
+        final GradientSpec SPEC = OPACITIES.toSpec(3);
+        assertEquals(0.0, SPEC.getOffset(0), 0.0);
+        assertEquals(0.75, SPEC.getOpacity(0), 0.0);
+        assertEquals(0.25, SPEC.getOpacity(1), 0.0);
+        assertEquals(1.0, SPEC.getRed(0), 0.0);
+    }
+
+    private static void insertSorted(final StopModel MODEL, final List<Integer> SLOTS, final int SLOT) {
+        int index = 0;
+        while (index < SLOTS.size() && MODEL.getOffset(SLOTS.get(index)) <= MODEL.getOffset(SLOT)) { index++; }
+        SLOTS.add(index, SLOT);
+    }
+
+    private static void assertOrder(final StopModel MODEL, final List<Integer> EXPECTED) {
+        assertEquals(EXPECTED.size(), MODEL.getSize());
+        for (int i = 0 ; i < EXPECTED.size() ; i++) {
+            assertEquals((int) EXPECTED.get(i), MODEL.getSlot(i));
+            assertEquals(i, MODEL.indexOf(EXPECTED.get(i)));
+        }
+    }
+
+    private static void fill(final Random RANDOM, final StopModel MODEL, final int SLOT) {
+        for (int channel = 0 ; channel < MODEL.getChannels() ; channel++) { MODEL.setValue(SLOT, channel, RANDOM.nextDouble()); }
+    }
+}
@@ -0,0 +1,60 @@
+package eu.hansolo.fx.gradientpicker;
+
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Stop;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the stop collection pipeline of updateGradient() and the export of the stops.
+ * The picker is never shown, creating a JFXPanel only starts the JavaFX toolkit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GradientPickerBenchmark {
+    @Param({ "2", "10", "100", "1000", "10000" })
+    private int            stopCount;
+    private GradientPicker picker;
+
+
+    @Setup public void setup() {
+        new JFXPanel();
+        Random random = new Random(42);
+        picker = new GradientPicker();
+        for (int i = 0 ; i < stopCount ; i++) {
+            double fraction = stopCount == 1 ? 0.0 : i / (double) (stopCount - 1);
+            picker.addHandle(new Handle(HandleType.COLOR_HANDLE, fraction, Color.color(random.nextDouble(), random.nextDouble(), random.nextDouble())));
+        }
+    }
+
+    @Benchmark
+    public List<Stop> updateGradient() {
+        picker.updateGradient();
+        return picker.getStops();
+    }
+
+    @Benchmark
+    public String getStopsAsCss() { return picker.getStopsAsString(true); }
+
+    @Benchmark
+    public String getStopsAsJava() { return picker.getStopsAsString(false); }
+}
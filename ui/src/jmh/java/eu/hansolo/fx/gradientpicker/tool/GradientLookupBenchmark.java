@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Stop;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GradientLookupBenchmark {
+    private static final int            POSITIONS = 1024;
+    @Param({ "2", "10", "100", "1000", "10000" })
+    private              int            stopCount;
+    private              List<Stop>     stops;
+    private              List<Stop>     movedStops;
+    private              double[]       positions;
+    private              GradientLookup lookup;
+    private              GradientLookup lutLookup;
+    private              boolean        toggle;
+
+
+    @Setup public void setup() {
+        Random random = new Random(42);
+        stops      = new ArrayList<>(stopCount);
+        movedStops = new ArrayList<>(stopCount);
+        for (int i = 0 ; i < stopCount ; i++) {
+            double offset = stopCount == 1 ? 0.0 : i / (double) (stopCount - 1);
+            Color  color  = Color.color(random.nextDouble(), random.nextDouble(), random.nextDouble(), random.nextDouble());
+            stops.add(new Stop(offset, color));
+            movedStops.add(new Stop(offset, color));
+        }
+        // Move one stop in the middle within its neighbours
+        int middle = stopCount / 2;
+        if (middle > 0 && middle < stopCount - 1) {
+            double offset = (stops.get(middle - 1).getOffset() + stops.get(middle).getOffset()) * 0.5;
+            movedStops.set(middle, new Stop(offset, stops.get(middle).getColor()));
+        }
+
+        positions = new double[POSITIONS];
+        for (int i = 0 ; i < POSITIONS ; i++) { positions[i] = random.nextDouble(); }
+
+        lookup    = new GradientLookup(stops);
+        lutLookup = new GradientLookup(stops);
+        lutLookup.setLutResolution(1024);
+    }
+
+    @Benchmark @OperationsPerInvocation(POSITIONS)
+    public void getColorAt(final Blackhole BLACKHOLE) {
+        for (double position : positions) { BLACKHOLE.consume(lookup.getColorAt(position)); }
+    }
+
+    @Benchmark @OperationsPerInvocation(POSITIONS)
+    public void getArgbAt(final Blackhole BLACKHOLE) {
+        for (double position : positions) { BLACKHOLE.consume(lookup.getArgbAt(position)); }
+    }
+
+    @Benchmark @OperationsPerInvocation(POSITIONS)
+    public void getArgbAtLut(final Blackhole BLACKHOLE) {
+        for (double position : positions) { BLACKHOLE.consume(lutLookup.getArgbAt(position)); }
+    }
+
+    @Benchmark
+    public GradientLookup setStops() {
+        lookup.setStops(stops);
+        return lookup;
+    }
+
+    @Benchmark
+    public GradientLookup setStopsWithLut() {
+        toggle = !toggle;
+        lutLookup.setStops(toggle ? movedStops : stops);
+        return lutLookup;
+    }
+}
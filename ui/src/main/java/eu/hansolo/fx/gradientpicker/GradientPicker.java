@@ -0,0 +1,1111 @@
+package eu.hansolo.fx.gradientpicker;
+
+import eu.hansolo.fx.gradientpicker.event.GradientEvent;
+import eu.hansolo.fx.gradientpicker.event.GradientEventType;
+import eu.hansolo.fx.gradientpicker.event.GradientObserver;
+import eu.hansolo.fx.gradientpicker.event.GradientPublisher;
+import eu.hansolo.fx.gradientpicker.event.GradientSubscriber;
+import eu.hansolo.fx.gradientpicker.event.GradientSubscription;
+import eu.hansolo.fx.gradientpicker.event.HandleObserver;
+import eu.hansolo.fx.gradientpicker.tool.FxGradients;
+import eu.hansolo.fx.gradientpicker.tool.GradientFormat;
+import eu.hansolo.fx.gradientpicker.tool.GradientHistory;
+import eu.hansolo.fx.gradientpicker.tool.GradientLookup;
+import eu.hansolo.fx.gradientpicker.tool.GradientMetrics;
+import eu.hansolo.fx.gradientpicker.tool.GradientParser;
+import eu.hansolo.fx.gradientpicker.tool.GradientSpec;
+import eu.hansolo.fx.gradientpicker.tool.Helper;
+import eu.hansolo.fx.gradientpicker.tool.InterpolationMode;
+import eu.hansolo.fx.gradientpicker.tool.MetricOperation;
+import eu.hansolo.fx.gradientpicker.tool.NumberTextField;
+import eu.hansolo.fx.gradientpicker.tool.StopModel;
+import javafx.beans.DefaultProperty;
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.BooleanBinding;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ObjectPropertyBase;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.event.EventHandler;
+import javafx.event.EventType;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.ColorPicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.control.Tooltip;
+import javafx.scene.effect.BlurType;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.effect.InnerShadow;
+import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.ImagePattern;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Stop;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.shape.Shape;
+import javafx.stage.Popup;
+import javafx.util.StringConverter;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import static eu.hansolo.fx.gradientpicker.tool.Helper.clamp;
+
+
+/**
+ * User: hansolo
+ * Date: 13.07.18
+ * Time: 12:29
+ */
+@DefaultProperty("children")
+public class GradientPicker extends Region {
+    private static final double                   PREFERRED_WIDTH  = 200;
+    private static final double                   PREFERRED_HEIGHT = 70;
+    private static final double                   MINIMUM_WIDTH    = 50;
+    private static final double                   MINIMUM_HEIGHT   = 70;
+    private static final double                   MAXIMUM_WIDTH    = 1024;
+    private static final double                   MAXIMUM_HEIGHT   = 70;
+    private static final double                   PADDING_LEFT     = 13;
+    private static final double                   PADDING_RIGHT    = 2 * PADDING_LEFT;
+    private static final double                   BOX_HEIGHT       = 20;
+    private static final double                   HANDLE_CENTER    = Handle.HANDLE_SIZE * 0.5;
+    private static final double                   DRAG_Y_OFFSET    = Handle.HANDLE_SIZE;
+    private static final double                   HANDLE_HEIGHT    = Handle.HANDLE_SIZE;
+    private static final int                      PREVIEW_STEPS    = 64;
+    private static final KeyCombination           UNDO_KEYS        = new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN);
+    private static final KeyCombination           REDO_KEYS        = new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN);
+    private static final KeyCombination           REDO_ALT_KEYS    = new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN);
+    private        final GradientEvent            GRADIENT_CHANGED  = new GradientEvent(GradientPicker.this, GradientEventType.GRADIENT_CHANGED);
+    private        final GradientEvent            GRADIENT_CHANGING = new GradientEvent(GradientPicker.this, GradientEventType.GRADIENT_CHANGING, null, null, false);
+    private              BooleanBinding           showing;
+    private              double                   width;
+    private              double                   height;
+    private              GradientSpec             spec;
+    private              LinearGradient           gradient;
+    private              List<Stop>               stops;
+    private              GradientSpec             stopsSpec;
+    private              GradientSpec             committedSpec;
+    private              GradientSpec             notifiedSpec;
+    private              InterpolationMode        previewMode;
+    private              Rectangle                gradientBackground;
+    private              Rectangle                gradientBox;
+    private              Pane                     pane;
+    private              ObservableList<Handle>   handles;
+    private              StopModel                colorModel;
+    private              StopModel                alphaModel;
+    private              Handle[]                 colorSlotHandles;
+    private              Handle[]                 alphaSlotHandles;
+    private              double                   dragX;
+    private              double                   dragY;
+    private              boolean                  gradientDirty;
+    private              Handle                   editHandle;
+    private              GradientEventType        editType;
+    private              Stop                     editStartStop;
+    private              Stop                     editLastStop;
+    private              boolean                  editNotified;
+    private              EventHandler<MouseEvent> mouseHandler;
+    private              EventHandler<MouseEvent> layerMouseHandler;
+    private              HandleObserver           handleObserver;
+    private              HandleLayer              handleLayer;
+    private              Handle                   layerHandle;
+    private              Handle                   selectedHandle;
+    private              GradientLookup           lookup;
+    private              GradientHistory          history;
+    private              boolean                  restoring;
+    private              long                     recordedModifications;
+    private              int                      updateDepth;
+    private              boolean                  batchChanged;
+    private              boolean                  batchCommitted;
+    private              List<Handle>             batchHandles;
+    private              Handle                   focusedHandle;
+    private              ColorPicker              colorPicker;
+    private              Popup                    alphaPopup;
+    private              StackPane                alphaPopupPane;
+    private              Rectangle                alphaPopupBounds;
+    private              Slider                   alphaSlider;
+    private              NumberTextField          alphaTextField;
+    private              HBox                     alphaBox;
+    private              Popup                    positionPopup;
+    private              StackPane                positionPopupPane;
+    private              Rectangle                positionPopupBounds;
+    private              NumberTextField          positionTextField;
+    private              HBox                     positionBox;
+    private              List<GradientObserver>   observers;
+    private              GradientPublisher<GradientSpec>   publisher;
+    private              InterpolationMode                 _interpolationMode;
+    private              ObjectProperty<InterpolationMode> interpolationMode;
+    private              HandleRendering                   _handleRendering;
+    private              ObjectProperty<HandleRendering>   handleRendering;
+
+
+    // ******************** Constructors **************************************
+    public GradientPicker() {
+        getStylesheets().add(GradientPicker.class.getResource("gradientpicker.css").toExternalForm());
+        handles          = FXCollections.observableArrayList();
+        colorModel       = new StopModel(3);
+        alphaModel       = new StopModel(1);
+        colorSlotHandles = new Handle[16];
+        alphaSlotHandles = new Handle[16];
+        mouseHandler     = e -> {
+            final EventType<? extends MouseEvent> TYPE = e.getEventType();
+            final Handle     handle     = (Handle) e.getSource();
+            final HandleType handleType = handle.getType();
+            if (TYPE.equals(MouseEvent.MOUSE_PRESSED)) {
+                focusHandle(handle);
+                selectedHandle = handle;
+                if (e.isAltDown() || e.isSecondaryButtonDown()) {
+                    if (HandleType.COLOR_HANDLE == handleType) {
+                        colorPicker.setValue(handle.getFill());
+                        colorPicker.show();
+                    } else {
+                        beginEdit(handle, GradientEventType.STOP_ALPHA_CHANGED);
+                        alphaSlider.setValue(handle.getAlpha());
+                        showAlphaPopup(getScene(), e);
+                    }
+                } else if (e.isControlDown()) {
+                    showPositionPopup(getScene(), e);
+                } else {
+                    beginEdit(handle, GradientEventType.STOP_MOVED);
+                }
+                dragX = handle.getLayoutX() - e.getScreenX();
+                dragY = handle.getLayoutY() - e.getScreenY();
+            } else if (TYPE.equals(MouseEvent.MOUSE_DRAGGED)) {
+                markHandleDirty(handle);
+                handle.setLayoutX(Helper.clamp(gradientBox.getX() - HANDLE_CENTER, gradientBox.getX() + gradientBox.getWidth() - HANDLE_CENTER, e.getScreenX() + dragX));
+                if (HandleType.COLOR_HANDLE == handleType) {
+                    handle.setLayoutY(Helper.clamp(gradientBox.getY() + gradientBox.getHeight(), gradientBox.getY() + gradientBox.getHeight() + DRAG_Y_OFFSET, e.getScreenY() + dragY));
+                } else {
+                    handle.setLayoutY(Helper.clamp(gradientBox.getY() - HANDLE_HEIGHT - DRAG_Y_OFFSET, gradientBox.getY() - HANDLE_HEIGHT, e.getScreenY() + dragY));
+                }
+                handle.setFraction((handle.getLayoutX() - gradientBox.getX() + HANDLE_CENTER) / gradientBox.getWidth());
+                markHandleDirty(handle);
+                requestGradientUpdate();
+            } else if (TYPE.equals(MouseEvent.MOUSE_RELEASED)) {
+                // Color handles are removed by dragging them down, alpha handles by dragging them up
+                final boolean REMOVE = HandleType.COLOR_HANDLE == handleType ?
+                                       handle.getLayoutY() >= gradientBox.getY() + gradientBox.getHeight() + DRAG_Y_OFFSET :
+                                       handle.getLayoutY() <= gradientBox.getY() - HANDLE_HEIGHT - DRAG_Y_OFFSET;
+                if (REMOVE) {
+                    // Observers that only follow committed events know the stop from before the drag
+                    Stop removedStop = handle == editHandle ? editStartStop : createStop(handle);
+                    editHandle = null;
+                    handles.remove(handle);
+                    fireGradientEvent(new GradientEvent(GradientPicker.this, GradientEventType.STOP_REMOVED, removedStop, null, true));
+                } else {
+                    commitEdit();
+                    updateHandle(handle);
+                }
+            }
+        };
+        lookup             = new GradientLookup();
+        history            = new GradientHistory();
+        observers          = new CopyOnWriteArrayList<>();
+        publisher          = new GradientPublisher<>();
+        _interpolationMode = InterpolationMode.RGB;
+        _handleRendering   = HandleRendering.NODES;
+        initGraphics();
+        initPopups();
+        registerListeners();
+    }
+
+
+    // ******************** Initialization ************************************
+    private void initGraphics() {
+        if (Double.compare(getPrefWidth(), 0.0) <= 0 || Double.compare(getPrefHeight(), 0.0) <= 0 || Double.compare(getWidth(), 0.0) <= 0 ||
+            Double.compare(getHeight(), 0.0) <= 0) {
+            if (getPrefWidth() > 0 && getPrefHeight() > 0) {
+                setPrefSize(getPrefWidth(), getPrefHeight());
+            } else {
+                setPrefSize(PREFERRED_WIDTH, PREFERRED_HEIGHT);
+            }
+        }
+
+        getStyleClass().add("gradient-picker");
+
+        spec          = GradientSpec.EMPTY;
+        gradient      = FxGradients.toLinearGradient(spec);
+        stops         = gradient.getStops();
+        stopsSpec     = FxGradients.toSpec(stops);
+        committedSpec = spec;
+        notifiedSpec  = spec;
+        previewMode   = InterpolationMode.RGB;
+
+        gradientBackground = new Rectangle(10, 10, 180, 20);
+        gradientBackground.setFill(new ImagePattern(new Image(getClass().getResourceAsStream("opacitypattern.png")), 0, 5, 20, 20, false));
+
+        gradientBox = new Rectangle(10, 10, 180, 20);
+        gradientBox.setFill(gradient);
+        gradientBox.setStroke(Color.web("#353535"));
+
+        Tooltip tooltip = new Tooltip("Double click to add a new color stop\nDouble click above to add a new opacity stop");
+        Tooltip.install(gradientBox, tooltip);
+
+        colorPicker = new ColorPicker();
+        colorPicker.getStyleClass().add("button");
+        colorPicker.setTranslateY(65);
+        colorPicker.setVisible(false);
+        colorPicker.setManaged(false);
+
+        handleLayer = new HandleLayer(GradientPicker.this);
+
+        pane = new Pane(gradientBackground, gradientBox, colorPicker);
+
+        getChildren().setAll(pane);
+    }
+
+    private void initPopups() {
+        DropShadow shadow = new DropShadow();
+        shadow.setBlurType(BlurType.GAUSSIAN);
+        shadow.setRadius(4);
+        shadow.setOffsetY(2);
+
+        /*
+        colorPicker = new ColorPicker();
+        colorPicker.getStyleClass().add("button");
+
+        colorPickerPopupPane = new StackPane();
+        colorPickerPopupPane.setPadding(new Insets(10));
+        colorPickerPopupBounds = new Rectangle(225, 50);
+        Shape colorPickerPopupShape = createPopupShape(colorPickerPopupBounds.getWidth(), colorPickerPopupBounds.getHeight());
+        colorPickerPopupPane.getChildren().setAll(colorPickerPopupShape, colorPicker);
+        colorPickerPopupPane.setEffect(shadow);
+
+        colorPickerPopup = new Popup();
+        colorPickerPopup.setHideOnEscape(true);
+        colorPickerPopup.setAutoHide(true);
+        colorPickerPopup.getContent().add(colorPicker);
+        */
+
+        alphaSlider = new Slider();
+        alphaSlider.setMin(0.0);
+        alphaSlider.setMax(1.0);
+        alphaSlider.setValue(1.0);
+        alphaSlider.setMinWidth(150);
+        alphaSlider.setFocusTraversable(false);
+
+        alphaTextField = new NumberTextField();
+        alphaTextField.setPrefWidth(55);
+        alphaTextField.setDecimals(3);
+        alphaTextField.setText("1.0");
+        alphaTextField.setFocusTraversable(false);
+
+        alphaBox = new HBox();
+        alphaBox.setSpacing(10);
+        alphaBox.setAlignment(Pos.CENTER);
+        alphaBox.getChildren().addAll(alphaSlider, alphaTextField);
+
+        Label positionLabel = new Label("Position:");
+        positionLabel.setTextFill(Color.WHITE);
+
+        positionTextField = new NumberTextField();
+        positionTextField.setDecimals(3);
+        positionTextField.setPrefWidth(55);
+        positionTextField.setFocusTraversable(false);
+
+        positionBox = new HBox();
+        positionBox.setSpacing(10);
+        positionBox.setAlignment(Pos.CENTER);
+        positionBox.getChildren().addAll(positionLabel, positionTextField);
+
+        alphaPopupPane = new StackPane();
+        alphaPopupPane.setPadding(new Insets(10));
+        alphaPopupBounds = new Rectangle(225, 50);
+        Shape alphaPopupShape = createPopupShape(alphaPopupBounds.getWidth(), alphaPopupBounds.getHeight());
+        alphaPopupPane.getChildren().setAll(alphaPopupShape, alphaBox);
+        alphaPopupPane.setEffect(shadow);
+        alphaPopup = new Popup();
+        alphaPopup.setHideOnEscape(true);
+        alphaPopup.setAutoHide(true);
+        alphaPopup.getContent().add(alphaPopupPane);
+
+        positionPopupPane = new StackPane();
+        positionPopupPane.setPadding(new Insets(10));
+        positionPopupBounds = new Rectangle(135, 50);
+        Shape positionPopupShape = createPopupShape(positionPopupBounds.getWidth(), positionPopupBounds.getHeight());
+        positionPopupPane.getChildren().setAll(positionPopupShape, positionBox);
+        positionPopupPane.setEffect(shadow);
+        positionPopup = new Popup();
+        positionPopup.setHideOnEscape(true);
+        positionPopup.setAutoHide(true);
+        positionPopup.getContent().add(positionPopupPane);
+    }
+
+    private void registerListeners() {
+        widthProperty().addListener(o -> resize());
+        heightProperty().addListener(o -> resize());
+        // Changes of the color or alpha of a handle made from outside the picker also have to show up on the canvas
+        handleObserver = e -> markHandleDirty(e.getHandle());
+        // With HandleRendering.CANVAS the handles are picked on the pane and the events are passed on as if they came from the handle
+        layerMouseHandler = e -> {
+            if (HandleRendering.CANVAS != getHandleRendering()) { return; }
+            if (MouseEvent.MOUSE_PRESSED.equals(e.getEventType())) { layerHandle = handleLayer.pick(e.getX(), e.getY()); }
+            if (null == layerHandle) { return; }
+            final Handle HANDLE = layerHandle;
+            if (MouseEvent.MOUSE_RELEASED.equals(e.getEventType())) { layerHandle = null; }
+            mouseHandler.handle(e.copyFor(HANDLE, HANDLE));
+            e.consume();
+        };
+        pane.addEventFilter(MouseEvent.MOUSE_PRESSED, layerMouseHandler);
+        pane.addEventFilter(MouseEvent.MOUSE_DRAGGED, layerMouseHandler);
+        pane.addEventFilter(MouseEvent.MOUSE_RELEASED, layerMouseHandler);
+        handles.addListener((ListChangeListener<Handle>) change -> {
+            boolean changed = false;
+            while (change.next()) {
+                // Remove first, on a replacement the same handle might be removed and added again
+                if (change.wasRemoved())  {
+                    // Back to front, the handles are usually in offset order and removing the last stop shifts nothing in the model
+                    List<? extends Handle> removed = change.getRemoved();
+                    for (int i = removed.size() - 1 ; i >= 0 ; i--) {
+                        Handle handle = removed.get(i);
+                        markHandleDirty(handle);
+                        removeStop(handle);
+                        handle.removeHandleEventListener(handleObserver);
+                        handle.removeEventFilter(MouseEvent.MOUSE_PRESSED, mouseHandler);
+                        handle.removeEventFilter(MouseEvent.MOUSE_DRAGGED, mouseHandler);
+                        handle.removeEventFilter(MouseEvent.MOUSE_RELEASED, mouseHandler);
+                    }
+                    if (HandleRendering.NODES == getHandleRendering()) { pane.getChildren().removeAll(new HashSet<>(removed)); }
+                    changed = true;
+                }
+                if (change.wasAdded())    {
+                    change.getAddedSubList().forEach(handle -> {
+                        if (updateDepth > 0) {
+                            handle.beginUpdate();
+                            batchHandles.add(handle);
+                        }
+                        addStop(handle);
+                        handle.addHandleEventListener(handleObserver);
+                        handle.addEventFilter(MouseEvent.MOUSE_PRESSED, mouseHandler);
+                        handle.addEventFilter(MouseEvent.MOUSE_DRAGGED, mouseHandler);
+                        handle.addEventFilter(MouseEvent.MOUSE_RELEASED, mouseHandler);
+                        updateHandle(handle);
+                    });
+                    if (HandleRendering.NODES == getHandleRendering()) { pane.getChildren().addAll(change.getAddedSubList()); }
+                    changed = true;
+                }
+            }
+            if (changed) { updateGradient(); }
+        });
+        gradientBox.setOnMousePressed(e -> {
+            if (e.getButton().equals(MouseButton.PRIMARY)) {
+                if (e.getClickCount() == 2) { addHandleAt(e); }
+            }
+        });
+        pane.setOnMousePressed(e -> {
+            if (e.getButton().equals(MouseButton.PRIMARY) && e.getClickCount() == 2 && e.getTarget() == pane && e.getY() < gradientBox.getY()) {
+                addAlphaHandleAt(e);
+            }
+        });
+        focusedProperty().addListener(o -> focusHandle(null));
+        addEventHandler(KeyEvent.KEY_PRESSED, e -> {
+            if (UNDO_KEYS.match(e)) {
+                undo();
+                e.consume();
+            } else if (REDO_KEYS.match(e) || REDO_ALT_KEYS.match(e)) {
+                redo();
+                e.consume();
+            }
+        });
+
+        colorPicker.setOnAction(e -> {
+            Stop oldStop = createStop(selectedHandle);
+            selectedHandle.setFill(Color.color(colorPicker.getValue().getRed(), colorPicker.getValue().getGreen(), colorPicker.getValue().getBlue()));
+            colorPicker.hide();
+            updateGradient();
+            fireGradientEvent(new GradientEvent(GradientPicker.this, GradientEventType.STOP_COLOR_CHANGED, oldStop, createStop(selectedHandle), true));
+        });
+
+        positionTextField.setOnAction(actionEvent -> {
+            if (!positionTextField.getText().isEmpty() && null != selectedHandle) {
+                Stop oldStop = createStop(selectedHandle);
+                selectedHandle.setFraction(Double.parseDouble(positionTextField.getText()));
+                updateHandle(selectedHandle);
+                updateGradient();
+                positionPopup.hide();
+                fireGradientEvent(new GradientEvent(GradientPicker.this, GradientEventType.STOP_MOVED, oldStop, createStop(selectedHandle), true));
+            }
+        });
+        alphaSlider.valueProperty().addListener(o -> {
+            if (null != selectedHandle) {
+                selectedHandle.setAlpha(alphaSlider.getValue());
+                requestGradientUpdate();
+            }
+        });
+        alphaSlider.setOnMouseReleased(mouseEvent -> {
+            commitEdit();
+            alphaPopup.hide();
+        });
+        alphaTextField.setOnAction(actionEvent -> {
+            commitEdit();
+            alphaPopup.hide();
+        });
+        alphaPopup.setOnHidden(windowEvent -> commitEdit());
+        alphaTextField.textProperty().bindBidirectional(alphaSlider.valueProperty(), new StringConverter<Number>() {
+            @Override public String toString(Number number) { return String.format(Locale.US, "%.3f", number); }
+            @Override public Number fromString(String text) { return (null == text || text.isEmpty()) ? 0.0 : Double.parseDouble(text); }
+        });
+
+        if (null != getScene()) {
+            setupBinding();
+        } else {
+            sceneProperty().addListener((o1, ov1, nv1) -> {
+                if (null == nv1) { return; }
+                if (null != getScene().getWindow()) {
+                    setupBinding();
+                } else {
+                    sceneProperty().get().windowProperty().addListener((o2, ov2, nv2) -> {
+                        if (null == nv2) { return; }
+                        setupBinding();
+                    });
+                }
+            });
+        }
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public void layoutChildren() {
+        super.layoutChildren();
+        if (gradientDirty) {
+            updateGradient(false);
+            fireEditProgress();
+        }
+        if (HandleRendering.CANVAS == getHandleRendering() && handleLayer.isDirty()) { handleLayer.redraw(); }
+    }
+
+    @Override protected double computeMinWidth(final double HEIGHT) { return MINIMUM_WIDTH; }
+    @Override protected double computeMinHeight(final double WIDTH) { return MINIMUM_HEIGHT; }
+    @Override protected double computePrefWidth(final double HEIGHT) { return super.computePrefWidth(HEIGHT); }
+    @Override protected double computePrefHeight(final double WIDTH) { return super.computePrefHeight(WIDTH); }
+    @Override protected double computeMaxWidth(final double HEIGHT) { return MAXIMUM_WIDTH; }
+    @Override protected double computeMaxHeight(final double WIDTH) { return MAXIMUM_HEIGHT; }
+
+    @Override public ObservableList<Node> getChildren() { return super.getChildren(); }
+
+    /**
+     * Returns the stops of the gradient as normalized by LinearGradient: sorted, at most two stops per offset
+     * and always a stop at 0.0 and at 1.0. The raw merged stops are available via getGradientSpec().
+     */
+    public List<Stop> getStops() { return stops; }
+    /**
+     * Replaces all handles with handles for the given stops, the handles are rebuilt
+     * and the gradient is updated and reported only once.
+     */
+    public void setStops(final List<Stop> STOPS) {
+        List<Handle> newHandles = new ArrayList<>(STOPS.size() * 2);
+        for (Stop stop : STOPS) {
+            Color  color    = stop.getColor();
+            double fraction = clamp(0.0, 1.0, stop.getOffset());
+            newHandles.add(new Handle(HandleType.ALPHA_HANDLE, fraction, color.getOpacity()));
+            newHandles.add(new Handle(HandleType.COLOR_HANDLE, fraction, Color.color(color.getRed(), color.getGreen(), color.getBlue())));
+        }
+        alphaPopup.hide();
+        positionPopup.hide();
+        editHandle     = null;
+        selectedHandle = null;
+        handles.setAll(newHandles);
+    }
+    /**
+     * Parses the given gradient definition (see GradientParser) and loads its stops.
+     */
+    public void setStops(final CharSequence GRADIENT) throws ParseException { setStops(FxGradients.toStops(GradientParser.parse(GRADIENT))); }
+
+    /**
+     * Returns the stops of getStops() as CSS or Java code.
+     */
+    public String getStopsAsString(final boolean CSS) { return CSS ? stopsSpec.toCss() : stopsSpec.toJava(); }
+
+    public String getGradientAsString(final GradientFormat FORMAT) { return spec.export(FORMAT); }
+    public void exportGradient(final GradientFormat FORMAT, final Appendable OUT) throws IOException { spec.export(FORMAT, OUT); }
+
+    /**
+     * Returns an immutable snapshot of the current stops.
+     */
+    public GradientSpec getGradientSpec() { return spec; }
+
+    /**
+     * Restores the stops before the last change, a drag or a slider edit counts as a single change.
+     * Returns false if there is nothing to undo.
+     */
+    public boolean undo() {
+        if (updateDepth > 0) { throw new IllegalStateException("Undo is not possible during a batch update"); }
+        commitEdit();
+        recordHistory();
+        GradientSpec previous = history.undo();
+        if (null == previous) { return false; }
+        applyTracks(previous, history.getCurrentOpacities());
+        return true;
+    }
+
+    /**
+     * Reapplies the last undone change, returns false if there is nothing to redo.
+     */
+    public boolean redo() {
+        if (updateDepth > 0) { throw new IllegalStateException("Redo is not possible during a batch update"); }
+        commitEdit();
+        recordHistory();
+        GradientSpec next = history.redo();
+        if (null == next) { return false; }
+        applyTracks(next, history.getCurrentOpacities());
+        return true;
+    }
+
+    /**
+     * Starts a batch of changes. Until the matching endUpdate() the gradient is not rebuilt,
+     * no gradient events are fired and the events of the handles are held back. Calls can be nested.
+     */
+    public void beginUpdate() {
+        if (0 == updateDepth++) {
+            batchHandles = new ArrayList<>(handles);
+            batchHandles.forEach(Handle::beginUpdate);
+        }
+    }
+    /**
+     * Ends a batch of changes, the outermost call releases the held back handle events and
+     * rebuilds the gradient once which is reported as a single GRADIENT_CHANGED event. A committed
+     * change inside the batch is reported that way even if the stops ended up unchanged.
+     */
+    public void endUpdate() {
+        if (0 == updateDepth) { throw new IllegalStateException("endUpdate() without beginUpdate()"); }
+        if (--updateDepth > 0) { return; }
+        List<Handle> batch = batchHandles;
+        batchHandles = null;
+        batch.forEach(Handle::endUpdate);
+        if (batchChanged || batchCommitted) {
+            if (batchCommitted) { committedSpec = null; }
+            batchChanged   = false;
+            batchCommitted = false;
+            updateGradient();
+        }
+    }
+    /**
+     * Runs the given changes as one batch (see beginUpdate()).
+     */
+    public void update(final Runnable CHANGES) {
+        beginUpdate();
+        try {
+            CHANGES.run();
+        } finally {
+            endUpdate();
+        }
+    }
+
+    public boolean isUpdating() { return updateDepth > 0; }
+
+    public boolean canUndo() { return history.canUndo(); }
+
+    public boolean canRedo() { return history.canRedo(); }
+
+    /**
+     * Returns the undo/redo history, e.g. to change its memory limit (GradientHistory.setMaxBytes()).
+     */
+    public GradientHistory getHistory() { return history; }
+
+    public InterpolationMode getInterpolationMode() {
+        if (null == interpolationMode) { return _interpolationMode; }
+        final InterpolationMode MODE = interpolationMode.get();
+        return null == MODE ? InterpolationMode.RGB : MODE;
+    }
+    /**
+     * Defines the color space used for the preview and for the colors of newly added stops.
+     * The stops themselves are not changed, a JavaFX LinearGradient always interpolates in RGB.
+     * Null is treated as RGB.
+     */
+    public void setInterpolationMode(final InterpolationMode MODE) {
+        if (null == interpolationMode) {
+            _interpolationMode = null == MODE ? InterpolationMode.RGB : MODE;
+            lookup.setInterpolationMode(_interpolationMode);
+            updateGradient();
+        } else {
+            interpolationMode.set(MODE);
+        }
+    }
+    public ObjectProperty<InterpolationMode> interpolationModeProperty() {
+        if (null == interpolationMode) {
+            interpolationMode = new ObjectPropertyBase<InterpolationMode>(_interpolationMode) {
+                @Override protected void invalidated() {
+                    if (null == get() && !isBound()) {
+                        set(InterpolationMode.RGB);
+                        return;
+                    }
+                    lookup.setInterpolationMode(getInterpolationMode());
+                    updateGradient();
+                }
+                @Override public Object getBean() { return GradientPicker.this; }
+                @Override public String getName() { return "interpolationMode"; }
+            };
+            _interpolationMode = null;
+        }
+        return interpolationMode;
+    }
+
+    public HandleRendering getHandleRendering() { return null == handleRendering ? _handleRendering : handleRendering.get(); }
+    /**
+     * Defines how the handles are rendered, with CANVAS the handles are not part of the scene graph
+     * but drawn into a single Canvas which scales to many stops. The handles do not show tooltips in this mode.
+     */
+    public void setHandleRendering(final HandleRendering RENDERING) {
+        if (null == handleRendering) {
+            _handleRendering = RENDERING;
+            applyHandleRendering();
+        } else {
+            handleRendering.set(RENDERING);
+        }
+    }
+    public ObjectProperty<HandleRendering> handleRenderingProperty() {
+        if (null == handleRendering) {
+            handleRendering = new ObjectPropertyBase<HandleRendering>(_handleRendering) {
+                @Override protected void invalidated() { applyHandleRendering(); }
+                @Override public Object getBean() { return GradientPicker.this; }
+                @Override public String getName() { return "handleRendering"; }
+            };
+            _handleRendering = null;
+        }
+        return handleRendering;
+    }
+
+    public boolean isShowing() { return null == showing ? false : showing.get(); }
+
+    private void setupBinding() {
+        showing = Bindings.createBooleanBinding(() -> {
+            if (getScene() != null && getScene().getWindow() != null) {
+                return getScene().getWindow().isShowing();
+            } else {
+                return false;
+            }
+        }, sceneProperty(), getScene().windowProperty(), getScene().getWindow().showingProperty());
+
+        showing.addListener(o -> {
+            if (showing.get() && handles.isEmpty()) {
+                addHandle(new Handle(HandleType.COLOR_HANDLE, 0.0, Color.WHITE));
+                addHandle(new Handle(HandleType.COLOR_HANDLE, 1.0, Color.BLACK));
+                addHandle(new Handle(HandleType.ALPHA_HANDLE, 0.0, 1.0));
+                addHandle(new Handle(HandleType.ALPHA_HANDLE, 1.0, 1.0));
+                history.clear();
+            }
+        });
+    }
+
+    private void addHandleAt(final MouseEvent MOUSE_EVENT) {
+        double fraction    = (MOUSE_EVENT.getX() - gradientBox.getX()) / gradientBox.getWidth();
+        Color  pickedColor = calculateColor(fraction);
+        Handle colorHandle = new Handle(HandleType.COLOR_HANDLE, fraction, Color.color(pickedColor.getRed(), pickedColor.getGreen(), pickedColor.getBlue()));
+        addHandle(colorHandle);
+    }
+
+    // A new alpha handle starts with the opacity the gradient already has at its position
+    private void addAlphaHandleAt(final MouseEvent MOUSE_EVENT) {
+        double fraction = clamp(0.0, 1.0, (MOUSE_EVENT.getX() - gradientBox.getX()) / gradientBox.getWidth());
+        addHandle(new Handle(HandleType.ALPHA_HANDLE, fraction, calculateOpacity(fraction)));
+    }
+
+    /**
+     * Adds the given color or alpha handle, color and opacity stops are independent tracks which are merged into the stops of the gradient.
+     */
+    void addHandle(final Handle HANDLE) {
+        updateHandle(HANDLE);
+        focusHandle(HANDLE);
+        handles.add(HANDLE);
+        fireGradientEvent(new GradientEvent(GradientPicker.this, GradientEventType.STOP_ADDED, null, createStop(HANDLE), true));
+    }
+
+    // Only repositions the handles, they stay attached to the pane
+    private void updateHandles() {
+        if (!GradientMetrics.isEnabled()) {
+            for (Handle handle : handles) { updateHandle(handle); }
+            return;
+        }
+        final long START       = System.nanoTime();
+        final long START_BYTES = GradientMetrics.getAllocatedBytes();
+        for (Handle handle : handles) { updateHandle(handle); }
+        GradientMetrics.record(MetricOperation.UPDATE_HANDLES, START, START_BYTES, handles.size());
+    }
+
+    private void updateHandle(final Handle HANDLE) {
+        markHandleDirty(HANDLE);
+        HANDLE.setLayoutX(gradientBox.getX() + (HANDLE.getFraction() * gradientBox.getWidth()) - HANDLE_CENTER);
+        if (HandleType.COLOR_HANDLE == HANDLE.getType()) {
+            HANDLE.setLayoutY(gradientBox.getY() + gradientBox.getHeight());
+        } else {
+            HANDLE.setLayoutY(gradientBox.getY() - HANDLE_HEIGHT);
+        }
+        markHandleDirty(HANDLE);
+    }
+
+    // Marks the gradient as dirty, it will be rebuilt once in the next layout pass no matter how many edits happen until then
+    private void requestGradientUpdate() {
+        gradientDirty = true;
+        requestLayout();
+    }
+
+    // Starts tracking an edit of the given color or alpha handle, its changes are reported as EDIT_TYPE events
+    private void beginEdit(final Handle HANDLE, final GradientEventType EDIT_TYPE) {
+        editHandle    = HANDLE;
+        editType      = EDIT_TYPE;
+        editStartStop = createStop(HANDLE);
+        editLastStop  = editStartStop;
+        editNotified  = false;
+    }
+
+    // Reports the change since the last transient notification of the current edit
+    private void fireEditProgress() {
+        if (null == editHandle) { return; }
+        editNotified = true;
+        Stop stop = createStop(editHandle);
+        if (stop.equals(editLastStop)) { return; }
+        fireGradientEvent(new GradientEvent(GradientPicker.this, editType, editLastStop, stop, false));
+        editLastStop = stop;
+    }
+
+    // Rebuilds a pending gradient immediately and reports the whole edit as committed
+    private void commitEdit() {
+        if (null == editHandle) {
+            if (gradientDirty) { updateGradient(); }
+            return;
+        }
+        Handle            handle    = editHandle;
+        GradientEventType type      = editType;
+        Stop              startStop = editStartStop;
+        Stop              stop      = createStop(handle);
+        boolean           changed   = !stop.equals(startStop);
+        if (gradientDirty || editNotified || changed) { updateGradient(); }
+        editHandle = null;
+        if (changed) { fireGradientEvent(new GradientEvent(GradientPicker.this, type, startStop, stop, true)); }
+    }
+
+    // The history keeps both tracks, so each track gets back exactly the stops it had. Both tracks are
+    // restored in one batch, so the restored state is rebuilt and reported once
+    private void applyTracks(final GradientSpec COLORS, final GradientSpec OPACITIES) {
+        alphaPopup.hide();
+        positionPopup.hide();
+        editHandle     = null;
+        selectedHandle = null;
+        restoring      = true;
+        try {
+            update(() -> {
+                applyTrack(HandleType.COLOR_HANDLE, colorModel, colorSlotHandles, COLORS);
+                applyTrack(HandleType.ALPHA_HANDLE, alphaModel, alphaSlotHandles, null == OPACITIES ? GradientSpec.EMPTY : OPACITIES);
+                updateGradient();
+            });
+        } finally {
+            restoring             = false;
+            recordedModifications = getModifications();
+        }
+    }
+
+    // Reuses the existing handles of the track in offset order, only missing handles are created and surplus handles removed
+    private void applyTrack(final HandleType TYPE, final StopModel MODEL, final Handle[] SLOT_HANDLES, final GradientSpec SPEC) {
+        final boolean COLOR    = HandleType.COLOR_HANDLE == TYPE;
+        final int     OLD_SIZE = MODEL.getSize();
+        // The handles move in the model while they are updated, so their order is taken before
+        Handle[]      trackHandles = new Handle[OLD_SIZE];
+        for (int i = 0 ; i < OLD_SIZE ; i++) { trackHandles[i] = SLOT_HANDLES[MODEL.getSlot(i)]; }
+        final int     NEW_SIZE = SPEC.getSize();
+        List<Handle>  added    = new ArrayList<>();
+        for (int i = 0 ; i < NEW_SIZE ; i++) {
+            final double FRACTION = SPEC.getOffset(i);
+            if (i < OLD_SIZE) {
+                Handle handle = trackHandles[i];
+                handle.setFraction(FRACTION);
+                if (COLOR) {
+                    handle.setFill(Color.color(SPEC.getRed(i), SPEC.getGreen(i), SPEC.getBlue(i)));
+                } else {
+                    handle.setAlpha(SPEC.getOpacity(i));
+                }
+                updateHandle(handle);
+            } else if (COLOR) {
+                added.add(new Handle(HandleType.COLOR_HANDLE, FRACTION, Color.color(SPEC.getRed(i), SPEC.getGreen(i), SPEC.getBlue(i))));
+            } else {
+                added.add(new Handle(HandleType.ALPHA_HANDLE, FRACTION, SPEC.getOpacity(i)));
+            }
+        }
+        if (NEW_SIZE < OLD_SIZE) { handles.removeAll(new HashSet<>(Arrays.asList(trackHandles).subList(NEW_SIZE, OLD_SIZE))); }
+        if (!added.isEmpty()) { handles.addAll(added); }
+    }
+
+    // Adds the stop of the given handle to its track and turns the handle into a view of the stop
+    private void addStop(final Handle HANDLE) {
+        if (HandleType.COLOR_HANDLE == HANDLE.getType()) {
+            final Color FILL = HANDLE.getFill();
+            final int   SLOT = colorModel.add(HANDLE.getFraction());
+            colorModel.setValue(SLOT, 0, FILL.getRed());
+            colorModel.setValue(SLOT, 1, FILL.getGreen());
+            colorModel.setValue(SLOT, 2, FILL.getBlue());
+            colorSlotHandles = setSlotHandle(colorSlotHandles, SLOT, HANDLE);
+            HANDLE.attach(colorModel, SLOT);
+        } else {
+            final int SLOT = alphaModel.add(HANDLE.getFraction());
+            alphaModel.setValue(SLOT, 0, HANDLE.getAlpha());
+            alphaSlotHandles = setSlotHandle(alphaSlotHandles, SLOT, HANDLE);
+            HANDLE.attach(alphaModel, SLOT);
+        }
+    }
+
+    private void removeStop(final Handle HANDLE) {
+        final int SLOT = HANDLE.getSlot();
+        if (SLOT < 0) { return; }
+        HANDLE.detach();
+        if (HandleType.COLOR_HANDLE == HANDLE.getType()) {
+            colorModel.remove(SLOT);
+            colorSlotHandles[SLOT] = null;
+        } else {
+            alphaModel.remove(SLOT);
+            alphaSlotHandles[SLOT] = null;
+        }
+    }
+
+    private static Handle[] setSlotHandle(final Handle[] SLOT_HANDLES, final int SLOT, final Handle HANDLE) {
+        Handle[] slotHandles = SLOT >= SLOT_HANDLES.length ? Arrays.copyOf(SLOT_HANDLES, Math.max(SLOT + 1, SLOT_HANDLES.length * 2)) : SLOT_HANDLES;
+        slotHandles[SLOT] = HANDLE;
+        return slotHandles;
+    }
+
+    // A color handle reports the opacity of the alpha track at its position, an alpha handle the color of the color track
+    private Stop createStop(final Handle HANDLE) {
+        final double FRACTION = HANDLE.getFraction();
+        if (HandleType.COLOR_HANDLE == HANDLE.getType()) {
+            Color fill = HANDLE.getFill();
+            return new Stop(FRACTION, Color.color(fill.getRed(), fill.getGreen(), fill.getBlue(), calculateOpacity(FRACTION)));
+        }
+        if (colorModel.isEmpty()) { return new Stop(FRACTION, Color.color(0, 0, 0, HANDLE.getAlpha())); }
+        return new Stop(FRACTION, Color.color(colorModel.interpolate(FRACTION, 0), colorModel.interpolate(FRACTION, 1), colorModel.interpolate(FRACTION, 2), HANDLE.getAlpha()));
+    }
+
+    void updateGradient() { updateGradient(true); }
+    private void updateGradient(final boolean COMMITTED) {
+        if (updateDepth > 0) {
+            batchChanged = true;
+            return;
+        }
+        if (!GradientMetrics.isEnabled()) {
+            rebuildGradient(COMMITTED);
+            return;
+        }
+        final long START       = System.nanoTime();
+        final long START_BYTES = GradientMetrics.getAllocatedBytes();
+        rebuildGradient(COMMITTED);
+        GradientMetrics.record(MetricOperation.UPDATE_GRADIENT, START, START_BYTES, spec.getSize());
+    }
+
+    private void rebuildGradient(final boolean COMMITTED) {
+        gradientDirty = false;
+        // Both tracks are always sorted, so merging them is a single pass over the stops
+        GradientSpec newSpec = StopModel.merge(colorModel, alphaModel);
+        if (!newSpec.equals(spec) || getInterpolationMode() != previewMode) {
+            if (!newSpec.equals(spec)) {
+                // The stops are normalized once per change, getStops() returns them like LinearGradient.getStops()
+                gradient  = FxGradients.toLinearGradient(newSpec);
+                stops     = gradient.getStops();
+                stopsSpec = FxGradients.toSpec(stops);
+            }
+            spec        = newSpec;
+            previewMode = getInterpolationMode();
+            gradientBox.setFill(InterpolationMode.RGB == previewMode || spec.isEmpty() ? gradient : createPreviewGradient(spec));
+        }
+
+        if (COMMITTED && !restoring) { recordHistory(); }
+
+        // Only notify if the stops differ from the last notification of the same phase,
+        // a commit is also sent if transient notifications moved away from the committed stops
+        if (COMMITTED) {
+            if (spec.equals(committedSpec) && spec.equals(notifiedSpec)) { return; }
+            committedSpec = spec;
+            notifiedSpec  = spec;
+            fireGradientEvent(GRADIENT_CHANGED);
+        } else {
+            if (spec.equals(notifiedSpec)) { return; }
+            notifiedSpec = spec;
+            fireGradientEvent(GRADIENT_CHANGING);
+        }
+        publisher.submit(spec);
+    }
+
+    // Only committed states go into the history and only if one of the tracks changed since the last one, so drags
+    // and resizes don't copy the tracks. Uncommitted changes are recorded before an undo or redo
+    private void recordHistory() {
+        final long MODIFICATIONS = getModifications();
+        if (MODIFICATIONS == recordedModifications) { return; }
+        recordedModifications = MODIFICATIONS;
+        history.record(colorModel.toSpec(0), alphaModel.toSpec(3), false);
+    }
+
+    private long getModifications() { return colorModel.getModifications() + alphaModel.getModifications(); }
+
+    // LinearGradient interpolates in RGB, so other modes are previewed by resampling the gradient
+    private LinearGradient createPreviewGradient(final GradientSpec SPEC) {
+        lookup.setSpec(SPEC);
+        List<Stop> previewStops = new ArrayList<>(PREVIEW_STEPS + 1);
+        for (int i = 0 ; i <= PREVIEW_STEPS ; i++) {
+            double fraction = i / (double) PREVIEW_STEPS;
+            previewStops.add(new Stop(fraction, lookup.getColorAt(fraction)));
+        }
+        return new LinearGradient(0.0, 0.0, 1.0, 0.0, true, CycleMethod.NO_CYCLE, previewStops);
+    }
+
+    private Color calculateColor(final double FRACTION) {
+        lookup.setSpec(spec);
+        return lookup.getColorAt(FRACTION);
+    }
+
+    // Opacity of the alpha track at the given fraction, a binary search for the neighbouring alpha stops
+    private double calculateOpacity(final double FRACTION) { return alphaModel.isEmpty() ? 1.0 : alphaModel.interpolate(FRACTION, 0); }
+
+    private void focusHandle(final Handle HANDLE) {
+        if (null != focusedHandle) {
+            focusedHandle.setFocus(false);
+            markHandleDirty(focusedHandle);
+        }
+        focusedHandle = HANDLE;
+        handleLayer.setFocusedHandle(HANDLE);
+        if (null == HANDLE) return;
+        HANDLE.setFocus(true);
+        markHandleDirty(HANDLE);
+    }
+
+    // Moves the handles between the scene graph and the canvas
+    private void applyHandleRendering() {
+        layerHandle = null;
+        if (HandleRendering.CANVAS == getHandleRendering()) {
+            pane.getChildren().removeAll(new HashSet<>(handles));
+            if (!pane.getChildren().contains(handleLayer)) { pane.getChildren().add(handleLayer); }
+            handleLayer.markAllDirty();
+            requestLayout();
+        } else {
+            pane.getChildren().remove(handleLayer);
+            pane.getChildren().addAll(handles);
+        }
+    }
+
+    // Only the strip of the handle is redrawn in the next layout pass
+    private void markHandleDirty(final Handle HANDLE) {
+        if (HandleRendering.CANVAS != getHandleRendering()) { return; }
+        handleLayer.markDirty(HANDLE);
+        requestLayout();
+    }
+
+    StopModel getTrack(final HandleType TYPE) { return HandleType.COLOR_HANDLE == TYPE ? colorModel : alphaModel; }
+
+    Handle getTrackHandle(final HandleType TYPE, final int SLOT) { return HandleType.COLOR_HANDLE == TYPE ? colorSlotHandles[SLOT] : alphaSlotHandles[SLOT]; }
+
+    private Shape createPopupShape(final double WIDTH, final double HEIGHT) {
+        Rectangle shape = new Rectangle(WIDTH, HEIGHT);
+        shape.setArcWidth(10);
+        shape.setArcHeight(10);
+
+        LinearGradient gradient =
+            new LinearGradient(0, shape.getLayoutBounds().getMinY(), 0, shape.getLayoutBounds().getMinY() + shape.getLayoutBounds().getHeight(), false, CycleMethod.NO_CYCLE,
+                               new Stop(0.0, Color.rgb(48, 48, 48, 0.8)),
+                               new Stop(1.0, Color.rgb(33, 33, 33, 0.8)));
+        shape.setFill(gradient);
+
+        InnerShadow innerShadow = new InnerShadow();
+        innerShadow.setRadius(4);
+        innerShadow.setBlurType(BlurType.GAUSSIAN);
+        innerShadow.setColor(Color.rgb(255, 255, 255, 0.6));
+        innerShadow.setOffsetX(0);
+        innerShadow.setOffsetY(0);
+
+        shape.setEffect(innerShadow);
+
+        return shape;
+    }
+
+    private void showAlphaPopup(final Scene SCENE, final MouseEvent EVENT) {
+        if (null == SCENE) return;
+        final double popupX = EVENT.getScreenX() - HANDLE_CENTER - alphaPopupBounds.getWidth() * 0.5;
+        final double popupY = EVENT.getScreenY() - alphaPopupBounds.getHeight() * 1.7;
+        alphaPopup.show(SCENE.getWindow(), popupX, popupY);
+    }
+
+    private void showPositionPopup(final Scene SCENE, final MouseEvent EVENT) {
+        if (null == SCENE) return;
+        final double popupX = EVENT.getScreenX() - positionPopupBounds.getWidth() * 0.5;
+        final double popupY = EVENT.getScreenY() + 10;
+        positionTextField.setText(String.format(Locale.US, "%.3f", selectedHandle.getFraction()));
+        positionPopup.show(SCENE.getWindow(), popupX, popupY);
+    }
+
+
+    // ******************** EventHandling *************************************
+    public void addGradientObserver(final GradientObserver OBSERVER) { if (!observers.contains(OBSERVER)) { observers.add(OBSERVER); } }
+    public void removeGradientObserver(final GradientObserver OBSERVER) {
+        if (observers.contains(OBSERVER)) { observers.remove(OBSERVER); }
+        if (GradientMetrics.isEnabled()) { GradientMetrics.removeObserver(OBSERVER); }
+    }
+
+    /**
+     * Subscribes to immutable snapshots of the stops which are delivered on the given executor instead of the
+     * FX application thread. A subscriber that falls behind only receives the latest snapshot.
+     */
+    public GradientSubscription subscribe(final GradientSubscriber<? super GradientSpec> SUBSCRIBER, final Executor EXECUTOR) { return publisher.subscribe(SUBSCRIBER, EXECUTOR); }
+
+    // Events are held back during a batch, a committed one is reported by endUpdate() as GRADIENT_CHANGED
+    private void fireGradientEvent(final GradientEvent EVT) {
+        if (updateDepth > 0) {
+            if (EVT.isCommitted()) { batchCommitted = true; }
+            return;
+        }
+        if (!GradientMetrics.isEnabled()) {
+            for (GradientObserver observer : observers) { observer.onGradientChanged(EVT); }
+            return;
+        }
+        final long START       = System.nanoTime();
+        final long START_BYTES = GradientMetrics.getAllocatedBytes();
+        for (GradientObserver observer : observers) {
+            final long OBSERVER_START = System.nanoTime();
+            observer.onGradientChanged(EVT);
+            GradientMetrics.recordObserver(observer, EVT.getType().name(), OBSERVER_START);
+        }
+        GradientMetrics.record(MetricOperation.FIRE_GRADIENT_EVENT, START, START_BYTES, observers.size());
+    }
+
+
+    // ******************** Resizing ******************************************
+    private void resize() {
+        width  = getWidth() - getInsets().getLeft() - getInsets().getRight();
+        height = getHeight() - getInsets().getTop() - getInsets().getBottom();
+
+        if (width > 0 && height > 0) {
+            pane.setMaxSize(width, height);
+            pane.setPrefSize(width, height);
+            pane.relocate((getWidth() - width) * 0.5, (getHeight() - height) * 0.5);
+
+            gradientBackground.setWidth(width - PADDING_RIGHT);
+            gradientBackground.setHeight(BOX_HEIGHT);
+            gradientBackground.setX(PADDING_LEFT);
+            gradientBackground.setY((height - BOX_HEIGHT) * 0.5);
+
+            gradientBox.setWidth(width - PADDING_RIGHT);
+            gradientBox.setHeight(BOX_HEIGHT);
+            gradientBox.setX(PADDING_LEFT);
+            gradientBox.setY((height - BOX_HEIGHT) * 0.5);
+
+            handleLayer.setBounds(width, height, gradientBox.getX(), gradientBox.getY(), gradientBox.getWidth(), gradientBox.getHeight());
+
+            updateHandles();
+            updateGradient();
+        }
+    }
+}
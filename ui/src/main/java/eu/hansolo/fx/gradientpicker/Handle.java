@@ -5,6 +5,7 @@ import eu.hansolo.fx.gradientpicker.event.HandleEvent;
 import eu.hansolo.fx.gradientpicker.event.HandleObserver;
 import eu.hansolo.fx.gradientpicker.event.HandleEventType;
 import eu.hansolo.fx.gradientpicker.tool.Helper;
+import eu.hansolo.fx.gradientpicker.tool.StopModel;
 import javafx.beans.DefaultProperty;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.DoublePropertyBase;
@@ -49,6 +50,12 @@ public class Handle extends Region implements Comparable<Handle>{
     private static final double                     MAXIMUM_WIDTH    = HANDLE_SIZE;
     private static final double                     MAXIMUM_HEIGHT   = HANDLE_SIZE;
     private static final double                     ASPECT_RATIO     = PREFERRED_HEIGHT / PREFERRED_WIDTH;
+    private static final int                        CACHE_BITS       = 10;
+    private static final long[]                     CACHE_KEYS       = new long[1 << CACHE_BITS];
+    private static final Background[]               CACHE            = new Background[1 << CACHE_BITS];
+    private static final BackgroundFill             FRAME_FILL       = new BackgroundFill(Color.WHITE, CornerRadii.EMPTY, new Insets(1));
+    private static final Insets                     COLOR_INSETS     = new Insets(2);
+    private static final int                        OPACITY_CHANNEL  = 0;
     private        final HandleEvent                COLOR_EVENT      = new HandleEvent(Handle.this, HandleEventType.COLOR);
     private        final HandleEvent                ALPHA_EVENT      = new HandleEvent(Handle.this, HandleEventType.ALPHA);
     private        final HandleEvent           FRACTION_EVENT   = new HandleEvent(Handle.this, HandleEventType.FRACTION);
@@ -73,6 +80,11 @@ public class Handle extends Region implements Comparable<Handle>{
     private              Handle                     linkedHandle;
     private              Tooltip                    tooltip;
     private              Map<HandleType, String>    tooltipTexts;
+    private              int                        updateDepth;
+    private              boolean                    backgroundDirty;
+    private              HandleEvent[]              pendingEvents;
+    private              StopModel                  model;
+    private              int                        slot;
 
 
     // ******************** Constructors **************************************
@@ -94,8 +106,9 @@ public class Handle extends Region implements Comparable<Handle>{
         _stroke      = STROKE;
         _focusColor  = Color.web("#039ED3");
         linkedHandle = null;
+        slot         = -1;
         tooltipTexts = new HashMap<>(2);
-        tooltipTexts.put(HandleType.ALPHA_HANDLE, "Right mouse button to set alpha");
+        tooltipTexts.put(HandleType.ALPHA_HANDLE, "Right mouse button to set alpha\nCTRL + left mouse button to set fraction\nDrag up to remove handle");
         tooltipTexts.put(HandleType.COLOR_HANDLE, "Right mouse button to select color\nCTRL + left mouse button to set fraction\nDrag down to remove handle");
         tooltip      = new Tooltip(tooltipTexts.get(_type));
 
@@ -123,9 +136,7 @@ public class Handle extends Region implements Comparable<Handle>{
 
         setShape(path);
 
-        setBackground(new Background(new BackgroundFill(getStroke(), CornerRadii.EMPTY, Insets.EMPTY),
-                                     new BackgroundFill(Color.web("#dbdbdb"), CornerRadii.EMPTY, new Insets(1)),
-                                     new BackgroundFill(getFill(), CornerRadii.EMPTY, new Insets(2))));
+        updateBackground();
 
         if (HandleType.COLOR_HANDLE == getType()) { setRotate(180); }
 
@@ -158,6 +169,7 @@ public class Handle extends Region implements Comparable<Handle>{
     public void setFill(final Color FILL) {
         if (null == fill) {
             _fill = FILL;
+            writeFill(FILL);
             updateBackground();
             fireHandleEvent(COLOR_EVENT);
         } else {
@@ -166,8 +178,9 @@ public class Handle extends Region implements Comparable<Handle>{
     }
     public ObjectProperty<Color> fillProperty() {
         if (null == fill) {
-            fill = new ObjectPropertyBase<Color>() {
+            fill = new ObjectPropertyBase<Color>(_fill) {
                 @Override protected void invalidated() {
+                    writeFill(get());
                     updateBackground();
                     fireHandleEvent(COLOR_EVENT);
                 }
@@ -200,10 +213,15 @@ public class Handle extends Region implements Comparable<Handle>{
         return stroke;
     }
 
-    public double getAlpha() { return null == alpha ? _alpha : alpha.get(); }
+    public double getAlpha() {
+        if (null != alpha) { return alpha.get(); }
+        return isAlphaView() ? model.getValue(slot, OPACITY_CHANNEL) : _alpha;
+    }
     public void setAlpha(final double ALPHA) {
         if (null == alpha) {
             _alpha = Helper.clamp(0.0, 1.0, ALPHA);
+            if (isAlphaView()) { model.setValue(slot, OPACITY_CHANNEL, _alpha); }
+            updateBackground();
             fireHandleEvent(ALPHA_EVENT);
         } else {
             alpha.set(ALPHA);
@@ -211,9 +229,11 @@ public class Handle extends Region implements Comparable<Handle>{
     }
     public DoubleProperty alphaProperty() {
         if (null == alpha) {
-            alpha = new DoublePropertyBase() {
+            alpha = new DoublePropertyBase(getAlpha()) {
                 @Override protected void invalidated() {
                     set(Helper.clamp(0.0, 1.0, get()));
+                    if (isAlphaView()) { model.setValue(slot, OPACITY_CHANNEL, get()); }
+                    updateBackground();
                     fireHandleEvent(ALPHA_EVENT);
                 }
                 @Override public Object getBean() { return Handle.this; }
@@ -223,10 +243,14 @@ public class Handle extends Region implements Comparable<Handle>{
         return alpha;
     }
 
-    public double getFraction() { return null == fraction ? _fraction : fraction.get(); }
+    public double getFraction() {
+        if (null != fraction) { return fraction.get(); }
+        return null == model ? _fraction : model.getOffset(slot);
+    }
     public void setFraction(final double FRACTION) {
         if (null == fraction) {
             _fraction = Helper.clamp(0.0, 1.0, FRACTION);
+            if (null != model) { model.move(slot, _fraction); }
             fireHandleEvent(FRACTION_EVENT);
         } else {
             fraction.set(FRACTION);
@@ -234,9 +258,10 @@ public class Handle extends Region implements Comparable<Handle>{
     }
     public DoubleProperty fractionProperty() {
         if (null == fraction) {
-            fraction = new DoublePropertyBase() {
+            fraction = new DoublePropertyBase(getFraction()) {
                 @Override protected void invalidated() {
                     set(Helper.clamp(0.0, 1.0, get()));
+                    if (null != model) { model.move(slot, get()); }
                     fireHandleEvent(FRACTION_EVENT);
                 }
                 @Override public Object getBean() { return Handle.this; }
@@ -293,8 +318,14 @@ public class Handle extends Region implements Comparable<Handle>{
     public String getTooltipText() { return tooltipTexts.get(getType()); }
     public void setTooltipText(final String TEXT) { tooltipTexts.put(getType(), TEXT); }
 
-    public Handle getLinkedHandle() { return linkedHandle; }
-    public void setLinkedHandle(final Handle HANDLE) {
+    /**
+     * @deprecated the GradientPicker keeps color and alpha handles on independent tracks and does not link them anymore
+     */
+    @Deprecated public Handle getLinkedHandle() { return linkedHandle; }
+    /**
+     * @deprecated the GradientPicker keeps color and alpha handles on independent tracks and does not link them anymore
+     */
+    @Deprecated public void setLinkedHandle(final Handle HANDLE) {
         if (null == HANDLE) return;
         if (null != linkedHandle) {
             linkedHandle.layoutXProperty().unbindBidirectional(Handle.this.layoutXProperty());
@@ -306,15 +337,96 @@ public class Handle extends Region implements Comparable<Handle>{
 
     public void setFocus(final boolean FOCUSED) { path.setStroke(FOCUSED ? getFocusColor() : getStroke()); }
 
-    private Color createColor() {
-        Color fill = getFill();
-        return Color.color(fill.getRed(), fill.getGreen(), fill.getBlue(), getAlpha());
+    /**
+     * Turns the handle into a view of the stop in the given slot of the model. A color handle
+     * reads and writes the offset and the color (red, green, blue), an alpha handle the offset
+     * and the opacity.
+     */
+    void attach(final StopModel MODEL, final int SLOT) {
+        model = MODEL;
+        slot  = SLOT;
+    }
+    /**
+     * Copies the values of the stop back into the handle, must be called before the stop is removed from the model.
+     */
+    void detach() {
+        if (null == model) { return; }
+        _fraction = model.getOffset(slot);
+        if (isAlphaView()) { _alpha = model.getValue(slot, OPACITY_CHANNEL); }
+        model = null;
+        slot  = -1;
+    }
+
+    int getSlot() { return slot; }
+
+    /**
+     * Starts a batch of changes, until the matching endUpdate() the background is not
+     * updated and handle events are held back. Calls can be nested.
+     */
+    public void beginUpdate() {
+        if (0 == updateDepth++ && null == pendingEvents) { pendingEvents = new HandleEvent[HandleEventType.values().length]; }
+    }
+    /**
+     * Ends a batch of changes, the outermost call updates the background once and
+     * fires the last held back event of each event type once.
+     */
+    public void endUpdate() {
+        if (0 == updateDepth) { throw new IllegalStateException("endUpdate() without beginUpdate()"); }
+        if (--updateDepth > 0) { return; }
+        if (backgroundDirty) {
+            backgroundDirty = false;
+            updateBackground();
+        }
+        for (int i = 0 ; i < pendingEvents.length ; i++) {
+            final HandleEvent EVENT = pendingEvents[i];
+            if (null == EVENT) { continue; }
+            pendingEvents[i] = null;
+            fireHandleEvent(EVENT);
+        }
+    }
+
+    public boolean isUpdating() { return updateDepth > 0; }
+
+    private boolean isAlphaView() { return null != model && HandleType.ALPHA_HANDLE == getType(); }
+
+    private void writeFill(final Color FILL) {
+        if (null == model || HandleType.COLOR_HANDLE != getType()) { return; }
+        model.setValue(slot, 0, FILL.getRed());
+        model.setValue(slot, 1, FILL.getGreen());
+        model.setValue(slot, 2, FILL.getBlue());
     }
 
     private void updateBackground() {
-        setBackground(new Background(new BackgroundFill(getStroke(), CornerRadii.EMPTY, Insets.EMPTY),
-                                     new BackgroundFill(Color.WHITE, CornerRadii.EMPTY, new Insets(1)),
-                                     new BackgroundFill(createColor(), CornerRadii.EMPTY, new Insets(2))));
+        if (updateDepth > 0) {
+            backgroundDirty = true;
+            return;
+        }
+        setBackground(getBackground(getStroke(), getFill(), getAlpha()));
+    }
+
+    /**
+     * Returns a shared Background for the given stroke and fill color (with alpha).
+     * The backgrounds are kept in a small direct mapped cache keyed by the 8 bit ARGB
+     * values, so repeated color changes (e.g. from the alpha slider) do not allocate.
+     */
+    private static Background getBackground(final Color STROKE, final Color FILL, final double ALPHA) {
+        final int  STROKE_ARGB = Helper.toArgb(STROKE.getRed(), STROKE.getGreen(), STROKE.getBlue(), STROKE.getOpacity());
+        final int  FILL_ARGB   = Helper.toArgb(FILL.getRed(), FILL.getGreen(), FILL.getBlue(), ALPHA);
+        final long KEY         = ((long) STROKE_ARGB << 32) | (FILL_ARGB & 0xFFFFFFFFL);
+        final int  INDEX       = (int) (((KEY ^ (KEY >>> 29)) * 0x9E3779B97F4A7C15L) >>> (64 - CACHE_BITS));
+        Background background  = CACHE[INDEX];
+        if (null == background || CACHE_KEYS[INDEX] != KEY) {
+            background = new Background(new BackgroundFill(toColor(STROKE_ARGB), CornerRadii.EMPTY, Insets.EMPTY),
+                                        FRAME_FILL,
+                                        new BackgroundFill(toColor(FILL_ARGB), CornerRadii.EMPTY, COLOR_INSETS));
+            CACHE[INDEX]      = background;
+            CACHE_KEYS[INDEX] = KEY;
+        }
+        return background;
+    }
+
+    private static Color toColor(final int ARGB) {
+        return Color.rgb((ARGB >> 16) & 0xFF, (ARGB >> 8) & 0xFF, ARGB & 0xFF, ((ARGB >>> 24) & 0xFF) / 255.0);
     }
 
 
@@ -326,6 +438,10 @@ public class Handle extends Region implements Comparable<Handle>{
         if (observers.contains(OBSERVER)) { observers.remove(OBSERVER); }
     }
     public void fireHandleEvent(final HandleEvent EVENT) {
+        if (updateDepth > 0) {
+            pendingEvents[EVENT.getType().ordinal()] = EVENT;
+            return;
+        }
         observers.forEach(observer -> observer.onHandleEvent(EVENT));
     }
 
@@ -0,0 +1,140 @@
+package eu.hansolo.fx.gradientpicker;
+
+import eu.hansolo.fx.gradientpicker.tool.StopModel;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+
+/**
+ * Draws the color and alpha handles of a GradientPicker into one Canvas (HandleRendering.CANVAS).
+ * The handles are looked up in the sorted stop tracks of the picker, so picking a handle and finding
+ * the handles in a dirty strip are binary searches. Changes only mark the horizontal strip of the
+ * affected handles as dirty, redraw() then clears and repaints just that strip.
+ */
+class HandleLayer extends Canvas {
+    private static final double          SIZE   = Handle.HANDLE_SIZE;
+    private static final double          RADIUS = SIZE * 0.5;
+    private        final GradientPicker  picker;
+    private        final GraphicsContext ctx;
+    private              double          boxX;
+    private              double          boxY;
+    private              double          boxWidth;
+    private              double          boxHeight;
+    private              double          dirtyMinX;
+    private              double          dirtyMaxX;
+    private              Handle          focusedHandle;
+
+
+    // ******************** Constructors **************************************
+    HandleLayer(final GradientPicker PICKER) {
+        picker    = PICKER;
+        ctx       = getGraphicsContext2D();
+        dirtyMinX = Double.POSITIVE_INFINITY;
+        dirtyMaxX = Double.NEGATIVE_INFINITY;
+        setMouseTransparent(true);
+    }
+
+
+    // ******************** Methods *******************************************
+    void setBounds(final double WIDTH, final double HEIGHT, final double BOX_X, final double BOX_Y, final double BOX_WIDTH, final double BOX_HEIGHT) {
+        setWidth(WIDTH);
+        setHeight(HEIGHT);
+        boxX      = BOX_X;
+        boxY      = BOX_Y;
+        boxWidth  = BOX_WIDTH;
+        boxHeight = BOX_HEIGHT;
+        markAllDirty();
+    }
+
+    void setFocusedHandle(final Handle HANDLE) { focusedHandle = HANDLE; }
+
+    void markDirty(final Handle HANDLE) { markDirty(HANDLE.getLayoutX() - 1, HANDLE.getLayoutX() + SIZE + 1); }
+    void markDirty(final double MIN_X, final double MAX_X) {
+        if (MIN_X < dirtyMinX) { dirtyMinX = MIN_X; }
+        if (MAX_X > dirtyMaxX) { dirtyMaxX = MAX_X; }
+    }
+    void markAllDirty() { markDirty(0, getWidth()); }
+
+    boolean isDirty() { return dirtyMaxX > dirtyMinX; }
+
+    /**
+     * Repaints the dirty strip, the strip is used as clip so handles that only overlap it
+     * are not painted over their neighbours outside of it.
+     */
+    void redraw() {
+        final double MIN_X = Math.max(0, dirtyMinX);
+        final double MAX_X = Math.min(getWidth(), dirtyMaxX);
+        dirtyMinX = Double.POSITIVE_INFINITY;
+        dirtyMaxX = Double.NEGATIVE_INFINITY;
+        if (MAX_X <= MIN_X) { return; }
+        ctx.save();
+        ctx.beginPath();
+        ctx.rect(MIN_X, 0, MAX_X - MIN_X, getHeight());
+        ctx.clip();
+        ctx.clearRect(MIN_X, 0, MAX_X - MIN_X, getHeight());
+        drawTrack(HandleType.ALPHA_HANDLE, MIN_X, MAX_X);
+        drawTrack(HandleType.COLOR_HANDLE, MIN_X, MAX_X);
+        ctx.restore();
+    }
+
+    /**
+     * Returns the handle at the given position or null, color handles are picked below
+     * the gradient box and alpha handles above it.
+     */
+    Handle pick(final double X, final double Y) {
+        final HandleType TYPE;
+        if (Y >= boxY + boxHeight && Y <= boxY + boxHeight + SIZE) {
+            TYPE = HandleType.COLOR_HANDLE;
+        } else if (Y >= boxY - SIZE && Y <= boxY) {
+            TYPE = HandleType.ALPHA_HANDLE;
+        } else {
+            return null;
+        }
+        final StopModel MODEL = picker.getTrack(TYPE);
+        if (MODEL.isEmpty() || boxWidth <= 0) { return null; }
+        // The nearest handles are the last one left of the position and the first one right of it
+        final int UPPER = MODEL.higherIndex((X - boxX) / boxWidth);
+        final int LOWER = UPPER < 0 ? MODEL.getSize() - 1 : UPPER - 1;
+        Handle picked   = null;
+        double distance = RADIUS;
+        if (LOWER >= 0) {
+            Handle handle = picker.getTrackHandle(TYPE, MODEL.getSlot(LOWER));
+            if (Math.abs(handle.getLayoutX() + RADIUS - X) <= distance) {
+                picked   = handle;
+                distance = Math.abs(handle.getLayoutX() + RADIUS - X);
+            }
+        }
+        if (UPPER >= 0) {
+            Handle handle = picker.getTrackHandle(TYPE, MODEL.getSlot(UPPER));
+            if (Math.abs(handle.getLayoutX() + RADIUS - X) <= distance) { picked = handle; }
+        }
+        return picked;
+    }
+
+    private void drawTrack(final HandleType TYPE, final double MIN_X, final double MAX_X) {
+        if (boxWidth <= 0) { return; }
+        final StopModel MODEL = picker.getTrack(TYPE);
+        final double    FROM  = (MIN_X - SIZE - boxX) / boxWidth;
+        final double    TO    = (MAX_X + SIZE - boxX) / boxWidth;
+        for (int i = MODEL.lowerIndex(FROM) + 1 ; i < MODEL.getSize() ; i++) {
+            final int SLOT = MODEL.getSlot(i);
+            if (MODEL.getOffset(SLOT) > TO) { break; }
+            drawHandle(picker.getTrackHandle(TYPE, SLOT));
+        }
+    }
+
+    // Same layers as the background of a Handle: stroke (or focus) color, white frame and the fill with its alpha
+    private void drawHandle(final Handle HANDLE) {
+        final double X = HANDLE.getLayoutX();
+        final double Y = HANDLE.getLayoutY();
+        ctx.setFill(HANDLE == focusedHandle ? HANDLE.getFocusColor() : HANDLE.getStroke());
+        ctx.fillOval(X, Y, SIZE, SIZE);
+        ctx.setFill(Color.WHITE);
+        ctx.fillOval(X + 1, Y + 1, SIZE - 2, SIZE - 2);
+        ctx.setGlobalAlpha(HANDLE.getAlpha());
+        ctx.setFill(HANDLE.getFill());
+        ctx.fillOval(X + 2, Y + 2, SIZE - 4, SIZE - 4);
+        ctx.setGlobalAlpha(1.0);
+    }
+}
@@ -0,0 +1,8 @@
+package eu.hansolo.fx.gradientpicker;
+
+/**
+ * NODES adds every handle as a Region to the scene graph, CANVAS draws all handles into one Canvas.
+ */
+public enum HandleRendering {
+    NODES, CANVAS
+}
@@ -17,17 +17,34 @@
 package eu.hansolo.fx.gradientpicker.event;
 
 import eu.hansolo.fx.gradientpicker.GradientPicker;
+import javafx.scene.paint.Stop;
 
 
+/**
+ * GRADIENT_CHANGED is fired whenever the gradient has been rebuilt after a finished change,
+ * GRADIENT_CHANGING (always transient) while a change is in progress, the STOP_XXX types
+ * describe a single change with the stop before (null for STOP_ADDED) and after the
+ * change (null for STOP_REMOVED). Transient events are fired while an edit is in
+ * progress (e.g. during a drag), committed events when it has been finished.
+ */
 public class GradientEvent {
     private final GradientPicker    GRADIENT_PICKER;
     private final GradientEventType TYPE;
+    private final Stop              OLD_STOP;
+    private final Stop              NEW_STOP;
+    private final boolean           COMMITTED;
 
 
     // ******************** Constructors **************************************
     public GradientEvent(final GradientPicker SRC, final GradientEventType TYPE) {
+        this(SRC, TYPE, null, null, true);
+    }
+    public GradientEvent(final GradientPicker SRC, final GradientEventType TYPE, final Stop OLD_STOP, final Stop NEW_STOP, final boolean COMMITTED) {
         this.GRADIENT_PICKER = SRC;
         this.TYPE            = TYPE;
+        this.OLD_STOP        = OLD_STOP;
+        this.NEW_STOP        = NEW_STOP;
+        this.COMMITTED       = COMMITTED;
     }
 
 
@@ -35,4 +52,12 @@ public class GradientEvent {
     public GradientPicker getSource() { return GRADIENT_PICKER; }
 
     public GradientEventType getType() { return TYPE; }
+
+    public Stop getOldStop() { return OLD_STOP; }
+
+    public Stop getNewStop() { return NEW_STOP; }
+
+    public boolean isCommitted() { return COMMITTED; }
+
+    public boolean isTransient() { return !COMMITTED; }
 }
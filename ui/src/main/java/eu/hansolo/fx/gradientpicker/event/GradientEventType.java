@@ -17,5 +17,5 @@
 package eu.hansolo.fx.gradientpicker.event;
 
 public enum GradientEventType {
-    GRADIENT_CHANGED
+    GRADIENT_CHANGED, GRADIENT_CHANGING, STOP_ADDED, STOP_REMOVED, STOP_MOVED, STOP_COLOR_CHANGED, STOP_ALPHA_CHANGED
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Hands immutable snapshots to subscribers on their own executor.
+ * Every subscriber only holds the latest undelivered snapshot, if it falls behind
+ * older snapshots are replaced (and counted as dropped) instead of being queued.
+ * Snapshots are only delivered as far as the subscriber has requested them.
+ */
+public class GradientPublisher<T> {
+    private final List<Subscription> subscriptions;
+    private volatile Item<T>         latest;
+
+
+    // ******************** Constructors **************************************
+    public GradientPublisher() {
+        subscriptions = new CopyOnWriteArrayList<>();
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Subscribes to the snapshots, the latest snapshot (if any) is delivered as soon as it is requested.
+     */
+    public GradientSubscription subscribe(final GradientSubscriber<? super T> SUBSCRIBER, final Executor EXECUTOR) {
+        Subscription subscription = new Subscription(SUBSCRIBER, EXECUTOR);
+        subscriptions.add(subscription);
+        SUBSCRIBER.onSubscribe(subscription);
+        Item<T> item = latest;
+        if (null != item) { subscription.offer(item); }
+        return subscription;
+    }
+
+    public void submit(final T SNAPSHOT) {
+        Item<T> item = new Item<>(SNAPSHOT, System.nanoTime());
+        latest = item;
+        for (Subscription subscription : subscriptions) { subscription.offer(item); }
+    }
+
+    public int getSubscriberCount() { return subscriptions.size(); }
+
+
+    // ******************** Inner Classes *************************************
+    private static final class Item<T> {
+        private final T    SNAPSHOT;
+        private final long PUBLISHED_NANOS;
+
+        Item(final T SNAPSHOT, final long PUBLISHED_NANOS) {
+            this.SNAPSHOT        = SNAPSHOT;
+            this.PUBLISHED_NANOS = PUBLISHED_NANOS;
+        }
+    }
+
+    private final class Subscription implements GradientSubscription {
+        private final    GradientSubscriber<? super T> SUBSCRIBER;
+        private final    Executor                      EXECUTOR;
+        private final    AtomicReference<Item<T>>      pending;
+        private final    AtomicLong                    demand;
+        private final    AtomicInteger                 wip;
+        private final    AtomicLong                    delivered;
+        private final    AtomicLong                    dropped;
+        private volatile long                          lastLag;
+        private volatile long                          maxLag;
+        private volatile boolean                       cancelled;
+
+        Subscription(final GradientSubscriber<? super T> SUBSCRIBER, final Executor EXECUTOR) {
+            this.SUBSCRIBER = SUBSCRIBER;
+            this.EXECUTOR   = EXECUTOR;
+            pending         = new AtomicReference<>();
+            demand          = new AtomicLong();
+            wip             = new AtomicInteger();
+            delivered       = new AtomicLong();
+            dropped         = new AtomicLong();
+        }
+
+        @Override public void request(final long N) {
+            if (N <= 0) { throw new IllegalArgumentException("Requested amount must be positive"); }
+            demand.getAndUpdate(current -> Long.MAX_VALUE - current <= N ? Long.MAX_VALUE : current + N);
+            schedule();
+        }
+
+        @Override public void cancel() {
+            cancelled = true;
+            pending.set(null);
+            subscriptions.remove(this);
+        }
+
+        @Override public boolean isCancelled() { return cancelled; }
+
+        @Override public long getDeliveredCount() { return delivered.get(); }
+
+        @Override public long getDroppedCount() { return dropped.get(); }
+
+        @Override public long getLastDeliveryLagNanos() { return lastLag; }
+
+        @Override public long getMaxDeliveryLagNanos() { return maxLag; }
+
+        void offer(final Item<T> ITEM) {
+            if (cancelled) { return; }
+            if (null != pending.getAndSet(ITEM)) { dropped.incrementAndGet(); }
+            schedule();
+        }
+
+        // Only one drain runs at a time per subscriber, signals during a drain let it loop again
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) { EXECUTOR.execute(this::drain); }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                while (!cancelled && demand.get() > 0) {
+                    Item<T> item = pending.getAndSet(null);
+                    if (null == item) { break; }
+                    if (demand.get() != Long.MAX_VALUE) { demand.decrementAndGet(); }
+                    long lag = System.nanoTime() - item.PUBLISHED_NANOS;
+                    lastLag = lag;
+                    if (lag > maxLag) { maxLag = lag; }
+                    delivered.incrementAndGet();
+                    try {
+                        SUBSCRIBER.onNext(item.SNAPSHOT);
+                    } catch (RuntimeException e) {
+                        cancel();
+                        throw e;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
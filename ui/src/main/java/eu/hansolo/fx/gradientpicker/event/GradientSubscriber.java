@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.event;
+
+public interface GradientSubscriber<T> {
+    /**
+     * Called once when subscribing, nothing is delivered before the subscriber requests it via SUBSCRIPTION.request(n).
+     */
+    void onSubscribe(final GradientSubscription SUBSCRIPTION);
+
+    /**
+     * Called on the executor of the subscription with the latest snapshot, never concurrently for the same subscriber.
+     */
+    void onNext(final T SNAPSHOT);
+}
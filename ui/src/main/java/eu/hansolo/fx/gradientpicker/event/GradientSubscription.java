@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.event;
+
+public interface GradientSubscription {
+    /**
+     * Allows the delivery of N more snapshots, Long.MAX_VALUE means unbounded.
+     */
+    void request(final long N);
+
+    void cancel();
+
+    boolean isCancelled();
+
+    long getDeliveredCount();
+
+    /**
+     * Returns the number of snapshots that have been replaced by a newer one before they could be delivered.
+     */
+    long getDroppedCount();
+
+    /**
+     * Returns the time between publishing and delivering the last delivered snapshot in nanoseconds.
+     */
+    long getLastDeliveryLagNanos();
+
+    long getMaxDeliveryLagNanos();
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Stop;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Conversions between the JavaFX free gradient model of the core module and JavaFX paints.
+ */
+public final class FxGradients {
+
+    // ******************** Constructors **************************************
+    private FxGradients() {}
+
+
+    // ******************** Methods *******************************************
+    public static GradientSpec toSpec(final List<Stop> STOPS) {
+        final int NO_OF_STOPS = STOPS.size();
+        double[] offsets  = new double[NO_OF_STOPS];
+        double[] channels = new double[NO_OF_STOPS * 4];
+        for (int i = 0 ; i < NO_OF_STOPS ; i++) {
+            Stop  stop  = STOPS.get(i);
+            Color color = stop.getColor();
+            offsets[i]          = stop.getOffset();
+            channels[i * 4]     = color.getRed();
+            channels[i * 4 + 1] = color.getGreen();
+            channels[i * 4 + 2] = color.getBlue();
+            channels[i * 4 + 3] = color.getOpacity();
+        }
+        return new GradientSpec(offsets, channels);
+    }
+
+    /**
+     * Returns an unmodifiable list with the stops of the given spec.
+     */
+    public static List<Stop> toStops(final GradientSpec SPEC) {
+        List<Stop> stops = new ArrayList<>(SPEC.getSize());
+        for (int i = 0 ; i < SPEC.getSize() ; i++) { stops.add(toStop(SPEC, i)); }
+        return Collections.unmodifiableList(stops);
+    }
+
+    public static Stop toStop(final GradientSpec SPEC, final int INDEX) {
+        return new Stop(SPEC.getOffset(INDEX), Color.color(SPEC.getRed(INDEX), SPEC.getGreen(INDEX), SPEC.getBlue(INDEX), SPEC.getOpacity(INDEX)));
+    }
+
+    /**
+     * Returns a horizontal LinearGradient from left to right over the whole shape.
+     */
+    public static LinearGradient toLinearGradient(final GradientSpec SPEC) {
+        return new LinearGradient(0.0, 0.0, 1.0, 0.0, true, CycleMethod.NO_CYCLE, toStops(SPEC));
+    }
+
+    public static CycleMode toCycleMode(final CycleMethod CYCLE_METHOD) {
+        switch(CYCLE_METHOD) {
+            case REFLECT: return CycleMode.REFLECT;
+            case REPEAT : return CycleMode.REPEAT;
+            default     : return CycleMode.NO_CYCLE;
+        }
+    }
+
+    /**
+     * Returns a rasterizer that renders the given LinearGradient into an area of WIDTH x HEIGHT pixels.
+     */
+    public static LinearRasterizer toRasterizer(final LinearGradient GRADIENT, final double WIDTH, final double HEIGHT) {
+        final double SCALE_X = GRADIENT.isProportional() ? WIDTH : 1.0;
+        final double SCALE_Y = GRADIENT.isProportional() ? HEIGHT : 1.0;
+        return new LinearRasterizer(new ArgbLookup(toSpec(GRADIENT.getStops())), toCycleMode(GRADIENT.getCycleMethod()),
+                                    GRADIENT.getStartX() * SCALE_X, GRADIENT.getStartY() * SCALE_Y, GRADIENT.getEndX() * SCALE_X, GRADIENT.getEndY() * SCALE_Y);
+    }
+
+    public static Color toColor(final int ARGB) {
+        return Color.rgb((ARGB >> 16) & 0xFF, (ARGB >> 8) & 0xFF, ARGB & 0xFF, (ARGB >>> 24) / 255.0);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.util.Duration;
+
+import java.util.function.Consumer;
+
+
+/**
+ * Animates the transition between two gradients on an AnimationTimer.
+ * The gradients are aligned once by a GradientTween, every frame only interpolates the shared
+ * stops into reused buffers and hands the tween to the frame callback. If an image is set, the
+ * current gradient is also sampled into a reused row and written into every row of the image,
+ * e.g. a 256 x 1 image stretched by an ImageView. After the first frame nothing is allocated
+ * by the animation itself, creating a LinearGradient from the tween in the callback would.
+ */
+public class GradientAnimation extends AnimationTimer {
+    private        final GradientTween           tween;
+    private        final long                    durationNanos;
+    private              Easing                  easing;
+    private              Consumer<GradientTween> onFrame;
+    private              Runnable                onFinished;
+    private              WritableImage           image;
+    private              PixelWriter             pixelWriter;
+    private              int[]                   row;
+    private              long                    startNanos;
+
+
+    // ******************** Constructors **************************************
+    public GradientAnimation(final GradientSpec FROM, final GradientSpec TO, final Duration DURATION) {
+        this(FROM, TO, DURATION, Easing.EASE_IN_OUT);
+    }
+    public GradientAnimation(final GradientSpec FROM, final GradientSpec TO, final Duration DURATION, final Easing EASING) {
+        tween         = new GradientTween(FROM, TO);
+        durationNanos = (long) (DURATION.toMillis() * 1_000_000);
+        easing        = EASING;
+        startNanos    = -1;
+    }
+
+
+    // ******************** Methods *******************************************
+    public GradientTween getTween() { return tween; }
+
+    public Easing getEasing() { return easing; }
+    public void setEasing(final Easing EASING) { easing = EASING; }
+
+    /**
+     * The callback is called on every frame after the tween was updated, the tween must not be kept.
+     */
+    public void setOnFrame(final Consumer<GradientTween> ON_FRAME) { onFrame = ON_FRAME; }
+
+    public void setOnFinished(final Runnable ON_FINISHED) { onFinished = ON_FINISHED; }
+
+    public WritableImage getImage() { return image; }
+    /**
+     * Sets the image the current gradient is drawn into on every frame, from left to right over its width.
+     */
+    public void setImage(final WritableImage IMAGE) {
+        image       = IMAGE;
+        pixelWriter = null == IMAGE ? null : IMAGE.getPixelWriter();
+        row         = null == IMAGE ? null : new int[(int) IMAGE.getWidth()];
+    }
+
+    /**
+     * Starts the animation from the beginning.
+     */
+    @Override public void start() {
+        startNanos = -1;
+        super.start();
+    }
+
+    @Override public void handle(final long NOW) {
+        if (startNanos < 0) { startNanos = NOW; }
+        final double PROGRESS = durationNanos <= 0 ? 1.0 : Math.min(1.0, (NOW - startNanos) / (double) durationNanos);
+        tween.setProgress(easing.apply(PROGRESS));
+        if (null != image) {
+            tween.getArgb(row, 0, row.length);
+            // A scanline stride of 0 writes the same row into every row of the image
+            pixelWriter.setPixels(0, 0, row.length, (int) image.getHeight(), PixelFormat.getIntArgbInstance(), row, 0, 0);
+        }
+        if (null != onFrame) { onFrame.accept(tween); }
+        if (PROGRESS >= 1.0) {
+            stop();
+            if (null != onFinished) { onFinished.run(); }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Stop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * ArgbLookup with the JavaFX Stop and Color API.
+ */
+public class GradientLookup extends ArgbLookup {
+    private Stop[] stops;
+
+
+    // ******************** Constructors **************************************
+    public GradientLookup () {
+        this(new Stop[]{});
+    }
+    public GradientLookup(final Stop... STOPS) {
+        this(Arrays.asList(STOPS));
+    }
+    public GradientLookup(final List<Stop> STOPS) {
+        super(FxGradients.toSpec(STOPS));
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public void setSpec(final GradientSpec SPEC) {
+        super.setSpec(SPEC);
+        stops = FxGradients.toStops(getSpec()).toArray(new Stop[0]);
+    }
+
+    public Color getColorAt(final double POSITION_OF_COLOR) {
+        if (getSampler().isEmpty()) return Color.BLACK;
+        final float[] RGBA = new float[4];
+        getRgbaAt(POSITION_OF_COLOR, RGBA, 0);
+        return Color.color(RGBA[0], RGBA[1], RGBA[2], RGBA[3]);
+    }
+
+    public List<Stop> getStops() { return new ArrayList<>(Arrays.asList(stops)); }
+    public void setStops(final Stop... STOPS) { setStops(Arrays.asList(STOPS)); }
+    public void setStops(final List<Stop> STOPS) { setSpec(FxGradients.toSpec(STOPS)); }
+
+    public Stop getStopAt(final double POSITION_OF_STOP) { return stops[getStopIndexAt(POSITION_OF_STOP)]; }
+
+    public List<Stop> getStopsBetween(final double MIN_OFFSET, final double MAX_OFFSET) {
+        final int FROM = getSampler().getFirstIndexFrom(MIN_OFFSET);
+        final int TO   = getSampler().getLastIndexTo(MAX_OFFSET);
+        List<Stop> selectedStops = new ArrayList<>(Math.max(0, TO - FROM + 1));
+        for (int i = FROM ; i <= TO ; i++) { selectedStops.add(stops[i]); }
+        return selectedStops;
+    }
+}
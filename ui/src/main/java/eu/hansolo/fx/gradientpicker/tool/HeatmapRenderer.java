@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.tool;
+
+import javafx.application.Platform;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Stop;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Colorizes a 2D scalar field with a gradient into a WritableImage.
+ * The colors are written as packed ARGB into a back buffer in tiles of rows across
+ * the common fork/join pool. A completed region is copied into the front buffer,
+ * which is only read by the FX application thread, so the image never shows a region
+ * that is still being rendered. Only the union of the regions completed since the
+ * last update is copied into the image. Render calls are serialized (each one still
+ * runs in parallel), so overlapping renders from different threads can't mix in the back buffer.
+ * NaN values in the field are rendered transparent, the dither mode of the lookup
+ * is applied with the image coordinates of each pixel.
+ */
+public class HeatmapRenderer {
+    public  static final int                    TILE_HEIGHT = 32;
+    private static final PixelFormat<IntBuffer> FORMAT      = PixelFormat.getIntArgbInstance();
+    private        final int                    width;
+    private        final int                    height;
+    private        final int[]                  pixels;
+    private        final IntBuffer              front;
+    private        final WritableImage          image;
+    private        final Object                 lock;
+    private        final Object                 renderLock;
+    private              ArgbLookup             lookup;
+    private              int                    dirtyMinX;
+    private              int                    dirtyMinY;
+    private              int                    dirtyMaxX;
+    private              int                    dirtyMaxY;
+    private              boolean                updateScheduled;
+
+
+    // ******************** Constructors **************************************
+    public HeatmapRenderer(final int WIDTH, final int HEIGHT, final List<Stop> STOPS) {
+        this(WIDTH, HEIGHT, new GradientLookup(STOPS));
+    }
+    public HeatmapRenderer(final int WIDTH, final int HEIGHT, final ArgbLookup LOOKUP) {
+        if (WIDTH <= 0 || HEIGHT <= 0) { throw new IllegalArgumentException("Width and height must be positive"); }
+        width      = WIDTH;
+        height     = HEIGHT;
+        pixels     = new int[WIDTH * HEIGHT];
+        front      = IntBuffer.allocate(WIDTH * HEIGHT);
+        image      = new WritableImage(WIDTH, HEIGHT);
+        lock       = new Object();
+        renderLock = new Object();
+        lookup     = LOOKUP;
+        resetDirtyRegion();
+    }
+
+
+    // ******************** Methods *******************************************
+    public int getWidth() { return width; }
+
+    public int getHeight() { return height; }
+
+    public WritableImage getImage() { return image; }
+
+    public ArgbLookup getLookup() { return lookup; }
+    public void setLookup(final ArgbLookup LOOKUP) { lookup = LOOKUP; }
+
+    public void setStops(final List<Stop> STOPS) { lookup.setSpec(FxGradients.toSpec(STOPS)); }
+
+    /**
+     * Colorizes the whole field, FIELD is expected in row major order with width * height values.
+     */
+    public void render(final double[] FIELD, final double MIN, final double MAX) { render(FIELD, MIN, MAX, 0, 0, width, height); }
+    public void render(final float[] FIELD, final double MIN, final double MAX) { render(FIELD, MIN, MAX, 0, 0, width, height); }
+    public void render(final FloatBuffer FIELD, final double MIN, final double MAX) { render(FIELD, MIN, MAX, 0, 0, width, height); }
+
+    /**
+     * Colorizes the given region of the field and hands only that region to the FX application thread.
+     */
+    public void render(final double[] FIELD, final double MIN, final double MAX, final int X, final int Y, final int WIDTH, final int HEIGHT) {
+        checkField(FIELD.length);
+        render(new TileTask(lookup, FIELD, null, null, MIN, MAX, X, Y, WIDTH, HEIGHT), X, Y, WIDTH, HEIGHT);
+    }
+    public void render(final float[] FIELD, final double MIN, final double MAX, final int X, final int Y, final int WIDTH, final int HEIGHT) {
+        checkField(FIELD.length);
+        render(new TileTask(lookup, null, FIELD, null, MIN, MAX, X, Y, WIDTH, HEIGHT), X, Y, WIDTH, HEIGHT);
+    }
+    public void render(final FloatBuffer FIELD, final double MIN, final double MAX, final int X, final int Y, final int WIDTH, final int HEIGHT) {
+        checkField(FIELD.limit());
+        render(new TileTask(lookup, null, null, FIELD, MIN, MAX, X, Y, WIDTH, HEIGHT), X, Y, WIDTH, HEIGHT);
+    }
+
+    private void render(final TileTask TASK, final int X, final int Y, final int WIDTH, final int HEIGHT) {
+        if (X < 0 || Y < 0 || WIDTH < 0 || HEIGHT < 0 || X + WIDTH > width || Y + HEIGHT > height) { throw new IndexOutOfBoundsException("Region out of bounds"); }
+        if (WIDTH == 0 || HEIGHT == 0) { return; }
+
+        final boolean SCHEDULE;
+        // The back buffer belongs to one render at a time until its region has been copied into the front buffer
+        synchronized (renderLock) {
+            if (HEIGHT > TILE_HEIGHT) {
+                ForkJoinPool.commonPool().invoke(TASK);
+            } else {
+                TASK.compute();
+            }
+
+            synchronized (lock) {
+                final int[] FRONT = front.array();
+                for (int y = Y ; y < Y + HEIGHT ; y++) { System.arraycopy(pixels, y * width + X, FRONT, y * width + X, WIDTH); }
+                dirtyMinX       = Math.min(dirtyMinX, X);
+                dirtyMinY       = Math.min(dirtyMinY, Y);
+                dirtyMaxX       = Math.max(dirtyMaxX, X + WIDTH);
+                dirtyMaxY       = Math.max(dirtyMaxY, Y + HEIGHT);
+                SCHEDULE        = !updateScheduled;
+                updateScheduled = true;
+            }
+        }
+        if (Platform.isFxApplicationThread()) {
+            updateImage();
+        } else if (SCHEDULE) {
+            Platform.runLater(this::updateImage);
+        }
+    }
+
+    private void updateImage() {
+        // The lock keeps renders that complete meanwhile from writing into the front buffer
+        synchronized (lock) {
+            final int X      = dirtyMinX;
+            final int Y      = dirtyMinY;
+            final int WIDTH  = dirtyMaxX - dirtyMinX;
+            final int HEIGHT = dirtyMaxY - dirtyMinY;
+            resetDirtyRegion();
+            if (WIDTH <= 0 || HEIGHT <= 0) { return; }
+
+            IntBuffer region = front.duplicate();
+            region.position(Y * width + X);
+            image.getPixelWriter().setPixels(X, Y, WIDTH, HEIGHT, FORMAT, region, width);
+        }
+    }
+
+    private void resetDirtyRegion() {
+        dirtyMinX       = Integer.MAX_VALUE;
+        dirtyMinY       = Integer.MAX_VALUE;
+        dirtyMaxX       = Integer.MIN_VALUE;
+        dirtyMaxY       = Integer.MIN_VALUE;
+        updateScheduled = false;
+    }
+
+    private void checkField(final int LENGTH) {
+        if (LENGTH < width * height) { throw new IllegalArgumentException("Field must contain at least width * height values"); }
+    }
+
+
+    // ******************** Inner Classes *************************************
+    @SuppressWarnings("serial") // Fork/join tasks are never serialized
+    private class TileTask extends RecursiveAction {
+        private final ArgbLookup  LOOKUP;
+        private final double[]    DOUBLE_FIELD;
+        private final float[]     FLOAT_FIELD;
+        private final FloatBuffer BUFFER_FIELD;
+        private final double      MIN;
+        private final double      MAX;
+        private final int         X;
+        private final int         Y;
+        private final int         WIDTH;
+        private final int         HEIGHT;
+
+
+        TileTask(final ArgbLookup LOOKUP, final double[] DOUBLE_FIELD, final float[] FLOAT_FIELD, final FloatBuffer BUFFER_FIELD,
+                 final double MIN, final double MAX, final int X, final int Y, final int WIDTH, final int HEIGHT) {
+            this.LOOKUP       = LOOKUP;
+            this.DOUBLE_FIELD = DOUBLE_FIELD;
+            this.FLOAT_FIELD  = FLOAT_FIELD;
+            this.BUFFER_FIELD = BUFFER_FIELD;
+            this.MIN          = MIN;
+            this.MAX          = MAX;
+            this.X            = X;
+            this.Y            = Y;
+            this.WIDTH        = WIDTH;
+            this.HEIGHT       = HEIGHT;
+        }
+
+        @Override protected void compute() {
+            if (HEIGHT > TILE_HEIGHT) {
+                final int HALF = HEIGHT >>> 1;
+                invokeAll(new TileTask(LOOKUP, DOUBLE_FIELD, FLOAT_FIELD, BUFFER_FIELD, MIN, MAX, X, Y, WIDTH, HALF),
+                          new TileTask(LOOKUP, DOUBLE_FIELD, FLOAT_FIELD, BUFFER_FIELD, MIN, MAX, X, Y + HALF, WIDTH, HEIGHT - HALF));
+                return;
+            }
+            final int[]  PIXELS = pixels;
+            final double SCALE  = MAX > MIN ? 1.0 / (MAX - MIN) : 0.0;
+            for (int y = Y ; y < Y + HEIGHT ; y++) {
+                final int START = y * width + X;
+                final int END   = START + WIDTH;
+                if (null != DOUBLE_FIELD) {
+                    for (int i = START ; i < END ; i++) { PIXELS[i] = colorize(DOUBLE_FIELD[i], SCALE, i - START + X, y); }
+                } else if (null != FLOAT_FIELD) {
+                    for (int i = START ; i < END ; i++) { PIXELS[i] = colorize(FLOAT_FIELD[i], SCALE, i - START + X, y); }
+                } else {
+                    for (int i = START ; i < END ; i++) { PIXELS[i] = colorize(BUFFER_FIELD.get(i), SCALE, i - START + X, y); }
+                }
+            }
+        }
+
+        private int colorize(final double VALUE, final double SCALE, final int PIXEL_X, final int PIXEL_Y) {
+            return Double.isNaN(VALUE) ? 0 : LOOKUP.getArgbAt((VALUE - MIN) * SCALE, PIXEL_X, PIXEL_Y);
+        }
+    }
+}
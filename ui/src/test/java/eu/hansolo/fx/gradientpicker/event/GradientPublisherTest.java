@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2018 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.gradientpicker.event;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class GradientPublisherTest {
+    private GradientPublisher<Integer> publisher;
+    private ManualExecutor             executor;
+    private Recorder                   recorder;
+
+
+    @Before public void setup() {
+        publisher = new GradientPublisher<>();
+        executor  = new ManualExecutor();
+        recorder  = new Recorder();
+    }
+
+    @Test public void deliversNothingWithoutDemand() {
+        publisher.subscribe(recorder, executor);
+        publisher.submit(1);
+        executor.runAll();
+        assertTrue(recorder.received.isEmpty());
+
+        recorder.subscription.request(1);
+        executor.runAll();
+        assertEquals(Collections.singletonList(1), recorder.received);
+    }
+
+    @Test public void conflatesToTheLatestSnapshot() {
+        publisher.subscribe(recorder, executor);
+        for (int i = 1 ; i <= 5 ; i++) { publisher.submit(i); }
+        recorder.subscription.request(10);
+        executor.runAll();
+
+        assertEquals(Collections.singletonList(5), recorder.received);
+        assertEquals(1, recorder.subscription.getDeliveredCount());
+        assertEquals(4, recorder.subscription.getDroppedCount());
+    }
+
+    @Test public void deliversNoMoreThanRequested() {
+        publisher.subscribe(recorder, executor);
+        recorder.subscription.request(2);
+        for (int i = 1 ; i <= 3 ; i++) {
+            publisher.submit(i);
+            executor.runAll();
+        }
+        assertEquals(Arrays.asList(1, 2), recorder.received);
+
+        recorder.subscription.request(1);
+        executor.runAll();
+        assertEquals(Arrays.asList(1, 2, 3), recorder.received);
+        assertEquals(0, recorder.subscription.getDroppedCount());
+    }
+
+    @Test public void lateSubscriberGetsTheLatestSnapshot() {
+        publisher.submit(1);
+        publisher.submit(2);
+        publisher.subscribe(recorder, executor);
+        recorder.subscription.request(Long.MAX_VALUE);
+        executor.runAll();
+        assertEquals(Collections.singletonList(2), recorder.received);
+    }
+
+    @Test public void cancelStopsDelivery() {
+        publisher.subscribe(recorder, executor);
+        recorder.subscription.request(Long.MAX_VALUE);
+        publisher.submit(1);
+        executor.runAll();
+        recorder.subscription.cancel();
+        publisher.submit(2);
+        executor.runAll();
+
+        assertEquals(Collections.singletonList(1), recorder.received);
+        assertTrue(recorder.subscription.isCancelled());
+        assertEquals(0, publisher.getSubscriberCount());
+    }
+
+    @Test public void failingSubscriberIsCancelled() {
+        final Recorder FAILING = new Recorder() {
+            @Override public void onNext(final Integer SNAPSHOT) { throw new IllegalStateException("failed"); }
+        };
+        publisher.subscribe(FAILING, executor);
+        FAILING.subscription.request(1);
+        publisher.submit(1);
+        try {
+            executor.runAll();
+            fail("Expected the exception of the subscriber");
+        } catch (IllegalStateException e) {
+            assertTrue(FAILING.subscription.isCancelled());
+        }
+        assertEquals(0, publisher.getSubscriberCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class) public void rejectsNonPositiveRequests() {
+        publisher.subscribe(recorder, executor);
+        recorder.subscription.request(0);
+    }
+
+
+    // ******************** Inner Classes *************************************
+    private static class Recorder implements GradientSubscriber<Integer> {
+        private final List<Integer>        received = new ArrayList<>();
+        private       GradientSubscription subscription;
+
+        @Override public void onSubscribe(final GradientSubscription SUBSCRIPTION) { subscription = SUBSCRIPTION; }
+
+        @Override public void onNext(final Integer SNAPSHOT) { received.add(SNAPSHOT); }
+    }
+
+    // Runs the scheduled drains on the test thread
+    private static class ManualExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override public void execute(final Runnable TASK) { tasks.add(TASK); }
+
+        void runAll() {
+            while (!tasks.isEmpty()) { tasks.poll().run(); }
+        }
+    }
+}